@@ -0,0 +1,167 @@
+package gol;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of the basic DynamicArray operations. The values are boxed once in
+ * setUp, so boxing is not part of what is measured. The *Int benchmarks run
+ * the same operations on IntDynamicArray for comparison.
+ *
+ * @author Your Name Here
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicArrayBenchmark {
+
+    /**
+     * The number of elements.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * The values that are added.
+     */
+    private Integer[] values;
+
+    /**
+     * A full array for the get and insert/remove benchmarks.
+     */
+    private DynamicArray<Integer> full;
+
+    /**
+     * The same values unboxed.
+     */
+    private int[] ints;
+
+    /**
+     * A full IntDynamicArray for the get benchmark.
+     */
+    private IntDynamicArray fullInts;
+
+    /**
+     * Boxes the values and fills the array.
+     */
+    @Setup
+    public void setUp() {
+        values = new Integer[size];
+        full = new DynamicArray<>();
+        ints = new int[size];
+        fullInts = new IntDynamicArray();
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+            full.add(values[i]);
+            ints[i] = i;
+            fullInts.add(i);
+        }
+    }
+
+    /**
+     * Appends size elements to a new array, growing it as it goes.
+     *
+     * @return the array
+     */
+    @Benchmark
+    public DynamicArray<Integer> add() {
+        DynamicArray<Integer> array = new DynamicArray<>();
+        for (Integer value : values) {
+            array.add(value);
+        }
+        return array;
+    }
+
+    /**
+     * Reads every element by index.
+     *
+     * @return the sum of the elements
+     */
+    @Benchmark
+    public long get() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += full.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Appends size elements and removes them all again from the end.
+     *
+     * @return the emptied array
+     */
+    @Benchmark
+    public DynamicArray<Integer> addThenRemoveLast() {
+        DynamicArray<Integer> array = add();
+        for (int i = size - 1; i >= 0; i--) {
+            array.remove(i);
+        }
+        return array;
+    }
+
+    /**
+     * Inserts at the front and removes it again, shifting every element twice.
+     *
+     * @return the removed element
+     */
+    @Benchmark
+    public Integer insertRemoveFirst() {
+        full.add(0, values[0]);
+        return full.remove(0);
+    }
+
+    /**
+     * Appends size ints to a new IntDynamicArray one at a time.
+     *
+     * @return the array
+     */
+    @Benchmark
+    public IntDynamicArray addInt() {
+        IntDynamicArray array = new IntDynamicArray();
+        for (int value : ints) {
+            array.add(value);
+        }
+        return array;
+    }
+
+    /**
+     * Appends size ints to a new IntDynamicArray in one bulk copy.
+     *
+     * @return the array
+     */
+    @Benchmark
+    public IntDynamicArray addAllInt() {
+        IntDynamicArray array = new IntDynamicArray();
+        array.addAll(ints, 0, size);
+        return array;
+    }
+
+    /**
+     * Reads every element of the IntDynamicArray by index.
+     *
+     * @return the sum of the elements
+     */
+    @Benchmark
+    public long getInt() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += fullInts.get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,113 @@
+package gol;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of one Simulation.evolve() on a random soup, for every engine
+ * against the object-per-cell grid ("cells").
+ * Each invocation puts the same soup back and then times a fixed batch of
+ * GENERATIONS generations, so every score covers the same early, busy
+ * generations at the chosen density instead of the ash or empty grid a
+ * small soup settles into within one iteration. Putting the soup back is
+ * not timed.
+ *
+ * @author Your Name Here
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvolveBenchmark {
+
+    /**
+     * The number of generations timed per invocation.
+     */
+    static final int GENERATIONS = 64;
+
+    /**
+     * The number of rows and columns.
+     */
+    @Param({"25", "100", "1000", "4096"})
+    public int size;
+
+    /**
+     * The fraction of cells alive at the start.
+     */
+    @Param({"0.1", "0.3", "0.5"})
+    public double density;
+
+    /**
+     * The storage, see Workloads.create().
+     */
+    @Param({"cells", "buffered", "bitboard", "parallel", "tiled", "sparse", "generations", "compact",
+            "mapped"})
+    public String engine;
+
+    /**
+     * The rule; -p rule=B3/S23,B36/S23 compares Conway's rule with one that
+     * goes through the rule table. Generations rules such as B2/S/C3 only
+     * run on the generations engine.
+     */
+    @Param({"B3/S23"})
+    public String rule;
+
+    /**
+     * The simulation being evolved.
+     */
+    private Simulation sim;
+
+    /**
+     * The live cells of the soup, see Workloads.soupCells().
+     */
+    private int[] soup;
+
+    /**
+     * Builds the simulation and draws the soup once.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        sim = Workloads.create(engine, size);
+        sim.setRule(Rule.parse(rule));
+        soup = Workloads.soupCells(size, density);
+    }
+
+    /**
+     * Puts the soup back at generation 0 before every batch.
+     */
+    @Setup(Level.Invocation)
+    public void restore() {
+        sim.reset();
+        Workloads.fill(sim, size, soup);
+    }
+
+    /**
+     * Advances the soup by GENERATIONS generations; the score is per
+     * generation.
+     *
+     * @return the generation count, so the work is not optimized away
+     */
+    @Benchmark
+    @OperationsPerInvocation(GENERATIONS)
+    public int evolve() {
+        for (int i = 0; i < GENERATIONS; i++) {
+            sim.evolve();
+        }
+        return sim.getGenerations();
+    }
+}
@@ -0,0 +1,77 @@
+package gol;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of Simulation.countLiveNeighbors() for every cell of the grid, the
+ * way a naive evolve would call it.
+ *
+ * @author Your Name Here
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeighborBenchmark {
+
+    /**
+     * The number of rows and columns.
+     */
+    @Param({"25", "100", "1000", "4096"})
+    public int size;
+
+    /**
+     * The fraction of live cells.
+     */
+    @Param({"0.1", "0.5"})
+    public double density;
+
+    /**
+     * The storage, see Workloads.create().
+     */
+    @Param({"cells", "bitboard"})
+    public String engine;
+
+    /**
+     * The simulation being read. Never evolved, so every call sees the same grid.
+     */
+    private Simulation sim;
+
+    /**
+     * Builds the soup once.
+     */
+    @Setup
+    public void setUp() {
+        sim = Workloads.soup(engine, size, density);
+    }
+
+    /**
+     * Counts the neighbors of every cell.
+     *
+     * @return the sum of the counts
+     */
+    @Benchmark
+    public long countAll() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                sum += sim.countLiveNeighbors(i, j);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,102 @@
+package gol;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of Simulation.parseRle() and the streaming Simulation.loadRle() on
+ * large random patterns that fill the grid.
+ *
+ * @author Your Name Here
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RleBenchmark {
+
+    /**
+     * The width and height of the pattern and the grid.
+     */
+    @Param({"256", "1024", "4096"})
+    public int size;
+
+    /**
+     * The fraction of live cells in the pattern.
+     */
+    @Param({"0.1", "0.5"})
+    public double density;
+
+    /**
+     * The storage, see Workloads.create().
+     */
+    @Param({"cells", "bitboard"})
+    public String engine;
+
+    /**
+     * The lines of the RLE file.
+     */
+    private DynamicArray<String> lines;
+
+    /**
+     * The same file as one string, for the streaming decoder.
+     */
+    private String text;
+
+    /**
+     * The simulation the pattern is loaded into (parseRle resets it first).
+     */
+    private Simulation sim;
+
+    /**
+     * Encodes the pattern once.
+     */
+    @Setup
+    public void setUp() {
+        lines = Workloads.rleSoup(size, density);
+        StringBuilder all = new StringBuilder();
+        for (String line : lines) {
+            all.append(line).append('\n');
+        }
+        text = all.toString();
+        sim = Workloads.create(engine, size);
+    }
+
+    /**
+     * Parses the pattern into the grid.
+     *
+     * @return the population, so the work is not optimized away
+     */
+    @Benchmark
+    public int parse() {
+        sim.parseRle(lines);
+        return sim.getAliveCells();
+    }
+
+    /**
+     * Streams the pattern into the grid with RleDecoder.
+     *
+     * @return the population, so the work is not optimized away
+     * @throws IOException never, the source is a string
+     */
+    @Benchmark
+    public int stream() throws IOException {
+        sim.loadRle(new StringReader(text));
+        return sim.getAliveCells();
+    }
+}
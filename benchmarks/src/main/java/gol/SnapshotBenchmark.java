@@ -0,0 +1,118 @@
+package gol;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to save a whole simulation as a Snapshot to a file and to restore
+ * it, on a soup that has run a few generations so the ages vary.
+ *
+ * @author Your Name Here
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotBenchmark {
+
+    /**
+     * The number of rows and columns.
+     */
+    @Param({"1024", "4096", "10000"})
+    public int size;
+
+    /**
+     * The storage, see Workloads.create().
+     */
+    @Param({"bitboard", "tiled"})
+    public String engine;
+
+    /**
+     * The simulation that is saved.
+     */
+    private Simulation source;
+
+    /**
+     * The simulation the snapshot is restored into.
+     */
+    private Simulation target;
+
+    /**
+     * The snapshot file.
+     */
+    private Path file;
+
+    /**
+     * Builds the soup and writes the snapshot the load benchmark reads.
+     *
+     * @throws IOException if the temporary file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        source = Workloads.soup(engine, size, 0.3);
+        for (int i = 0; i < 3; i++) {
+            source.evolve();
+        }
+        target = Workloads.create(engine, size);
+        file = Files.createTempFile("snapshot", ".bin");
+        save();
+    }
+
+    /**
+     * Deletes the snapshot file.
+     *
+     * @throws IOException if it cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    /**
+     * Writes the snapshot.
+     *
+     * @return the file size, so the work is not optimized away
+     * @throws IOException if the file cannot be written
+     */
+    @Benchmark
+    public long save() throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            source.saveSnapshot(out);
+            return out.size();
+        }
+    }
+
+    /**
+     * Restores the snapshot.
+     *
+     * @return the population, so the work is not optimized away
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public int load() throws IOException {
+        try (FileChannel in = FileChannel.open(file)) {
+            target.loadSnapshot(new Snapshot(in));
+        }
+        return target.getAliveCells();
+    }
+}
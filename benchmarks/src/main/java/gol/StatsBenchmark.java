@@ -0,0 +1,94 @@
+package gol;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of the statistics getters. They are meant to be O(1), so the result
+ * should not depend on size; if it does, a getter went back to scanning.
+ *
+ * @author Your Name Here
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsBenchmark {
+
+    /**
+     * The number of rows and columns.
+     */
+    @Param({"25", "1000", "4096"})
+    public int size;
+
+    /**
+     * The fraction of cells alive at the start.
+     */
+    @Param({"0.3"})
+    public double density;
+
+    /**
+     * The storage, see Workloads.create().
+     */
+    @Param({"cells", "buffered", "bitboard", "tiled", "sparse"})
+    public String engine;
+
+    /**
+     * The simulation being read.
+     */
+    private Simulation sim;
+
+    /**
+     * Builds the soup and evolves it a little so there are different ages.
+     */
+    @Setup
+    public void setUp() {
+        sim = Workloads.soup(engine, size, density);
+        for (int i = 0; i < 10; i++) {
+            sim.evolve();
+        }
+    }
+
+    /**
+     * Reads the population.
+     *
+     * @return the number of live cells
+     */
+    @Benchmark
+    public int aliveCells() {
+        return sim.getAliveCells();
+    }
+
+    /**
+     * Reads the average age.
+     *
+     * @return the average age
+     */
+    @Benchmark
+    public double averageAge() {
+        return sim.getAverageAge();
+    }
+
+    /**
+     * Reads the maximum age.
+     *
+     * @return the maximum age
+     */
+    @Benchmark
+    public int maxAge() {
+        return sim.getMaxAge();
+    }
+}
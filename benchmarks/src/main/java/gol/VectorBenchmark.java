@@ -0,0 +1,96 @@
+package gol;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of one generation on the bit-packed engine with the scalar kernel
+ * and with the Vector API kernel (VectorEngine). Needs a build with
+ * -Pvector; the fork gets the incubator module. On an AVX-512 host,
+ * -jvmArgsAppend "--add-modules=jdk.incubator.vector -XX:UseAVX=2" measures
+ * the 256-bit (AVX2) vectors (the option replaces the annotation's, so the
+ * module has to be repeated).
+ * With ages=false only the kernel and the population count are measured.
+ *
+ * @author Your Name Here
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorBenchmark {
+
+    /**
+     * The number of rows and columns.
+     */
+    @Param({"1024", "4096"})
+    public int size;
+
+    /**
+     * scalar (BitboardEngine) or vector (VectorEngine).
+     */
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    /**
+     * Whether the engine tracks ages, which walks every live cell.
+     */
+    @Param({"false", "true"})
+    public boolean ages;
+
+    /**
+     * The engine, refilled with the same soup before every iteration.
+     */
+    private BitboardEngine engine;
+
+    /**
+     * Builds the engine and a soup of density 0.3.
+     *
+     * @throws IllegalStateException if the vector kernel was asked for but
+     *         is not built in
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        boolean vector = kernel.equals("vector");
+        engine = vector ? BitboardEngine.createVectorEngine(size, size, ages)
+                : new BitboardEngine(size, size, ages);
+        if (vector && engine.getClass() == BitboardEngine.class) {
+            throw new IllegalStateException("VectorEngine is not available; build with -Pvector"
+                    + " and run with --add-modules=jdk.incubator.vector");
+        }
+        Random random = new Random(Workloads.SEED);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (random.nextDouble() < 0.3) {
+                    engine.setAlive(i, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances the soup by one generation.
+     *
+     * @return the engine
+     */
+    @Benchmark
+    public BitboardEngine step() {
+        engine.step();
+        return engine;
+    }
+}
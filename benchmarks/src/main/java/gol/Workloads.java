@@ -0,0 +1,156 @@
+package gol;
+
+import java.util.Random;
+
+/**
+ * Builds the simulations the benchmarks run on, so every benchmark uses the
+ * same engines and the same random soups.
+ *
+ * @author Your Name Here
+ */
+final class Workloads {
+
+    /**
+     * The seed of every random soup, so runs are comparable.
+     */
+    static final long SEED = 310;
+
+    /**
+     * This class only has static methods.
+     */
+    private Workloads() {
+    }
+
+    /**
+     * Creates an empty simulation on the named storage.
+     *
+     * @param engine cells (the object-per-cell grid), buffered, bitboard,
+     *               parallel, tiled, sparse, compact, vector (bitboard
+     *               unless VectorEngine is built in), mapped (off-heap
+     *               direct buffers) or generations
+     * @param size the number of rows and columns
+     * @return the simulation
+     * @throws IllegalArgumentException if the engine name is unknown
+     */
+    static Simulation create(String engine, int size) {
+        switch (engine) {
+            case "cells":
+                return new Simulation(size, size);
+            case "buffered":
+                return new Simulation(new BufferedEngine(size, size));
+            case "bitboard":
+                return new Simulation(new BitboardEngine(size, size));
+            case "parallel":
+                return new Simulation(new ParallelEngine(size, size));
+            case "tiled":
+                return new Simulation(new TiledEngine(size, size));
+            case "sparse":
+                return new Simulation(new SparseEngine(size, size));
+            case "compact":
+                return new Simulation(new CompactEngine(size, size));
+            case "vector":
+                return new Simulation(BitboardEngine.createVectorEngine(size, size, true));
+            case "mapped":
+                return new Simulation(new MappedEngine(size, size));
+            case "generations":
+                return new Simulation(new GenerationsEngine(size, size));
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    /**
+     * Creates a simulation filled with a random soup.
+     *
+     * @param engine the storage, see create()
+     * @param size the number of rows and columns
+     * @param density the fraction of cells that start alive
+     * @return the simulation
+     */
+    static Simulation soup(String engine, int size, double density) {
+        Simulation sim = create(engine, size);
+        fill(sim, size, soupCells(size, density));
+        return sim;
+    }
+
+    /**
+     * Lists the live cells of the random soup soup() builds, so it can be
+     * put back into a simulation without drawing it again.
+     *
+     * @param size the number of rows and columns
+     * @param density the fraction of cells that start alive
+     * @return the live cells as row * size + col, in row-major order
+     */
+    static int[] soupCells(int size, double density) {
+        IntDynamicArray cells = new IntDynamicArray();
+        Random random = new Random(SEED);
+        for (int i = 0; i < size * size; i++) {
+            if (random.nextDouble() < density) {
+                cells.add(i);
+            }
+        }
+        return cells.toArray();
+    }
+
+    /**
+     * Sets the given cells alive.
+     *
+     * @param sim the simulation, normally just reset
+     * @param size the number of columns
+     * @param cells the cells as row * size + col, see soupCells()
+     */
+    static void fill(Simulation sim, int size, int[] cells) {
+        for (int cell : cells) {
+            sim.toggleCell(cell / size, cell % size);
+        }
+    }
+
+    /**
+     * Encodes a random soup as the lines of an RLE file, 70 characters per
+     * line like the files on LifeWiki.
+     *
+     * @param size the width and height of the pattern
+     * @param density the fraction of live cells
+     * @return the lines, ready for Simulation.parseRle
+     */
+    static DynamicArray<String> rleSoup(int size, double density) {
+        Random random = new Random(SEED);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            char run = 0;
+            int length = 0;
+            for (int j = 0; j < size; j++) {
+                char c = random.nextDouble() < density ? 'o' : 'b';
+                if (c != run && length > 0) {
+                    appendRun(body, length, run);
+                    length = 0;
+                }
+                run = c;
+                length++;
+            }
+            appendRun(body, length, run);
+            body.append(i < size - 1 ? '$' : '!');
+        }
+
+        DynamicArray<String> lines = new DynamicArray<>();
+        lines.add("x = " + size + ", y = " + size + ", rule = B3/S23");
+        for (int start = 0; start < body.length(); start += 70) {
+            lines.add(body.substring(start, Math.min(body.length(), start + 70)));
+        }
+        return lines;
+    }
+
+    /**
+     * Helper that appends one run like "12o" (or "o" for a single cell).
+     *
+     * @param out where to append
+     * @param length the run length
+     * @param c the cell character
+     */
+    private static void appendRun(StringBuilder out, int length, char c) {
+        if (length > 1) {
+            out.append(length);
+        }
+        out.append(c);
+    }
+}
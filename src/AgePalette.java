@@ -0,0 +1,98 @@
+import java.awt.Color;
+
+/**
+ * Precomputed colors for the age-based coloring of the bonus GUI.
+ * Live cells go from bright green (young) to dark olive (oldest) depending
+ * on their age relative to the oldest cell; recently dead cells fade from
+ * gray to white, and the dying cells of a Generations rule go from orange
+ * to dark red. All Colors are created once, so painting a frame does not
+ * allocate.
+ *
+ * @author Your Name Here
+ */
+public final class AgePalette {
+
+    /**
+     * The number of shades live cells are mapped onto.
+     */
+    public static final int LEVELS = 256;
+
+    /**
+     * The number of generations a dead cell takes to fade out.
+     */
+    public static final int FADE_STEPS = 5;
+
+    /**
+     * Live cell shades, from age ratio 0 to 1.
+     */
+    private static final Color[] LIVE = new Color[LEVELS];
+
+    /**
+     * Dead cell shades, indexed by the fade value left (0 = white).
+     */
+    private static final Color[] FADE = new Color[FADE_STEPS + 1];
+
+    /**
+     * Dying cell shades, from just dying to about to be dead.
+     */
+    private static final Color[] DYING = new Color[LEVELS];
+
+    static {
+        for (int i = 0; i < LEVELS; i++) {
+            float ageRatio = (float) i / (LEVELS - 1);
+            int green = (int) (255 * (1.0f - ageRatio * 0.7f)); // From bright to dark green
+            int red = (int) (100 * ageRatio); // Add some red for very old cells
+            LIVE[i] = new Color(red, green, 0);
+        }
+        FADE[0] = Color.WHITE;
+        for (int fade = 1; fade <= FADE_STEPS; fade++) {
+            int grayLevel = fade * 30; // Fade from gray to white
+            FADE[fade] = new Color(grayLevel, grayLevel, grayLevel);
+        }
+        for (int i = 0; i < LEVELS; i++) {
+            float progress = (float) i / (LEVELS - 1);
+            DYING[i] = new Color(255 - (int) (115 * progress), (int) (160 * (1.0f - progress)), 0);
+        }
+    }
+
+    /**
+     * This class only has static methods.
+     */
+    private AgePalette() {
+    }
+
+    /**
+     * Gets the color of a live cell.
+     *
+     * @param age the age of the cell, at least 1
+     * @param maxAge the age of the oldest cell in the frame
+     * @return the shared color for that age
+     */
+    public static Color live(int age, int maxAge) {
+        int max = Math.max(1, maxAge);
+        int level = (int) ((long) Math.min(age, max) * (LEVELS - 1) / max);
+        return LIVE[level];
+    }
+
+    /**
+     * Gets the color of a dead cell.
+     *
+     * @param fade how many fade generations are left, 0 for none
+     * @return the shared color for that fade value
+     */
+    public static Color dead(int fade) {
+        return FADE[Math.max(0, Math.min(FADE_STEPS, fade))];
+    }
+
+    /**
+     * Gets the color of a dying cell of a Generations rule.
+     *
+     * @param step how far the cell is through dying, from 0
+     * @param steps the number of dying states of the rule
+     * @return the shared color for that step
+     */
+    public static Color dying(int step, int steps) {
+        int level = steps <= 1 ? 0 : (int) ((long) Math.min(step, steps - 1) * (LEVELS - 1) / (steps - 1));
+        return DYING[level];
+    }
+}
@@ -0,0 +1,330 @@
+import java.util.Arrays;
+
+/**
+ * Counts live cells by the generation they were born in.
+ * Engines that store birth generations instead of ages (so that cells in
+ * skipped regions age for free) use this to answer "what is the oldest live
+ * cell" in amortized O(1): the oldest birth generation only ever moves
+ * forward as cells die, except when an edit imports an older cell.
+ *
+ * The counts are kept in segments of consecutive generations, oldest
+ * first. A cell born far from every segment starts a new one instead of
+ * stretching an array over the generations in between, so the memory
+ * follows the number of distinct birth generations, not the span between
+ * the oldest and the newest. Fast-forwarding moves whole segments back
+ * with shiftBefore() rather than re-adding every cell.
+ *
+ * @author Your Name Here
+ */
+public class BirthHistogram {
+
+    /**
+     * The length of a new segment.
+     */
+    private static final int INITCAP = 64;
+
+    /**
+     * The longest a segment grows; births past it start a new one, which
+     * also keeps the lengths far from the int range.
+     */
+    private static final int MAX_SEGMENT = 1 << 20;
+
+    /**
+     * A run of consecutive birth generations.
+     */
+    private static final class Segment {
+
+        /**
+         * The birth generation stored at counts[0].
+         */
+        int base;
+
+        /**
+         * Live cell counts; counts[i] is for birth generation base + i.
+         */
+        int[] counts;
+
+        /**
+         * The number of live cells in this segment.
+         */
+        int live;
+
+        /**
+         * Constructs an empty segment.
+         *
+         * @param base the first birth generation it covers
+         * @param length the number of generations it covers
+         */
+        Segment(int base, int length) {
+            this.base = base;
+            this.counts = new int[length];
+        }
+
+        /**
+         * Gets the generation after the last one covered.
+         *
+         * @return base + counts.length, as a long so that it cannot overflow
+         */
+        long end() {
+            return (long) base + counts.length;
+        }
+    }
+
+    /**
+     * The segments in order of birth generation, never overlapping. Only
+     * the first may be empty, and only when no cell is counted.
+     */
+    private final DynamicArray<Segment> segments = new DynamicArray<>();
+
+    /**
+     * No live cell was born before this index of the first segment.
+     */
+    private int oldest;
+
+    /**
+     * The number of live cells counted.
+     */
+    private int live;
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public BirthHistogram() {
+        segments.add(new Segment(0, INITCAP));
+    }
+
+    /**
+     * Counts a cell born in the given generation.
+     *
+     * @param born the birth generation
+     */
+    public void add(int born) {
+        if (live == 0) {
+            Segment only = segments.get(0);
+            segments.removeRange(1, segments.size());
+            Arrays.fill(only.counts, 0);
+            only.base = born;
+            only.live = 0;
+            oldest = 0;
+        }
+        int s = find(born);
+        if (s < 0) {
+            // older than everything counted
+            segments.add(0, new Segment(born, room(born, 0)));
+            oldest = 0;
+            s = 0;
+        } else if (born >= segments.get(s).end()) {
+            s = extend(s, born);
+        }
+        Segment seg = segments.get(s);
+        seg.counts[born - seg.base]++;
+        seg.live++;
+        live++;
+        if (s == 0 && born - seg.base < oldest) {
+            oldest = born - seg.base;
+        }
+    }
+
+    /**
+     * Stops counting a cell born in the given generation. The cell must
+     * have been added before.
+     *
+     * @param born the birth generation
+     */
+    public void remove(int born) {
+        int s = find(born);
+        Segment seg = segments.get(s);
+        seg.counts[born - seg.base]--;
+        seg.live--;
+        live--;
+        if (seg.live == 0 && segments.size() > 1) {
+            segments.remove(s);
+            if (s == 0) {
+                oldest = 0;
+            }
+        }
+    }
+
+    /**
+     * Moves every cell born before the given generation delta generations
+     * further back, as if each was removed and added again with
+     * born - delta, in one pass over the segments.
+     *
+     * @param limit the first birth generation that is not moved
+     * @param delta the number of generations to move them by
+     */
+    public void shiftBefore(int limit, int delta) {
+        if (live == 0 || delta == 0) {
+            return;
+        }
+        for (int s = 0; s < segments.size(); s++) {
+            Segment seg = segments.get(s);
+            if (seg.base >= limit) {
+                break;
+            }
+            if (seg.end() > limit) {
+                // split at the limit, the older half moves and the rest stays
+                Segment newer = new Segment(limit, (int) (seg.end() - limit));
+                System.arraycopy(seg.counts, limit - seg.base, newer.counts, 0, newer.counts.length);
+                seg.counts = Arrays.copyOf(seg.counts, limit - seg.base);
+                for (int c : newer.counts) {
+                    newer.live += c;
+                }
+                seg.live -= newer.live;
+                if (newer.live > 0) {
+                    segments.add(s + 1, newer);
+                }
+                if (seg.live == 0) {
+                    segments.remove(s);
+                    oldest = 0;
+                    break;
+                }
+            }
+            seg.base -= delta;
+        }
+    }
+
+    /**
+     * Gets the birth generation of the oldest live cell.
+     *
+     * @return the oldest birth generation; only meaningful if size() is not 0
+     */
+    public int oldest() {
+        Segment first = segments.get(0);
+        if (live == 0) {
+            return first.base + oldest;
+        }
+        while (first.counts[oldest] == 0) {
+            oldest++;
+        }
+        return first.base + oldest;
+    }
+
+    /**
+     * Gets the number of live cells counted.
+     *
+     * @return the count
+     */
+    public int size() {
+        return live;
+    }
+
+    /**
+     * Forgets every cell.
+     */
+    public void clear() {
+        live = 0;
+        segments.removeRange(1, segments.size());
+        Arrays.fill(segments.get(0).counts, 0);
+        segments.get(0).live = 0;
+        oldest = 0;
+    }
+
+    /**
+     * Helper that finds the last segment starting at or before born,
+     * searching from the newest, where the births of a step go.
+     *
+     * @param born the birth generation
+     * @return the segment index, or -1 if born is before every segment
+     */
+    private int find(int born) {
+        int s = segments.size() - 1;
+        while (s >= 0 && segments.get(s).base > born) {
+            s--;
+        }
+        return s;
+    }
+
+    /**
+     * Helper that makes room for born after the end of segment s, either
+     * by growing it (doubling, and dropping empty generations at its
+     * start) or, when born is far away, with a new segment after it.
+     *
+     * @param s the segment born falls after
+     * @param born the birth generation, before the next segment
+     * @return the index of the segment that now covers born
+     */
+    private int extend(int s, int born) {
+        Segment seg = segments.get(s);
+        int first = 0;
+        while (first < seg.counts.length && seg.counts[first] == 0) {
+            first++;
+        }
+        long from = first < seg.counts.length ? seg.base + first : born;
+        long needed = (long) born - from + 1;
+        if (needed > Math.max(2L * seg.counts.length, INITCAP) || needed > MAX_SEGMENT) {
+            segments.add(s + 1, new Segment(born, room(born, s + 1)));
+            return s + 1;
+        }
+        long length = Math.max(needed, Math.min(2L * seg.counts.length, MAX_SEGMENT));
+        if (s + 1 < segments.size()) {
+            length = Math.min(length, segments.get(s + 1).base - from);
+        }
+        int[] moved = new int[(int) length];
+        int keep = (int) Math.min(seg.counts.length - (from - seg.base), length);
+        if (keep > 0) {
+            System.arraycopy(seg.counts, (int) (from - seg.base), moved, 0, keep);
+        }
+        if (s == 0) {
+            oldest = (int) Math.max(0, oldest - (from - seg.base));
+        }
+        seg.counts = moved;
+        seg.base = (int) from;
+        return s;
+    }
+
+    /**
+     * Helper that sizes a new segment starting at born so that it ends
+     * before the segment that will follow it.
+     *
+     * @param born the first generation of the new segment
+     * @param next the index the following segment will have
+     * @return the length
+     */
+    private int room(int born, int next) {
+        int length = INITCAP;
+        if (next < segments.size()) {
+            length = (int) Math.min(length, (long) segments.get(next).base - born);
+        }
+        return length;
+    }
+
+    /**
+     * Main method for testing the BirthHistogram.
+     *
+     * @param args command line arguments (not used)
+     */
+    public static void main(String[] args) {
+        BirthHistogram births = new BirthHistogram();
+        for (int gen = 0; gen < 1000; gen++) {
+            births.add(gen);
+            if (gen >= 10) {
+                births.remove(gen - 10);
+            }
+        }
+        if (births.size() == 10 && births.oldest() == 990) {
+            System.out.println("Yay 1");
+        }
+
+        // a fast-forward by two billion generations moves the old cells
+        // back in one step, without a bucket per skipped generation
+        births.shiftBefore(995, 2_000_000_000);
+        boolean shifted = births.oldest() == 990 - 2_000_000_000 && births.segments.size() == 2;
+        births.remove(990 - 2_000_000_000);
+        births.add(1000);
+        births.add(-1_000_000_000);
+        births.add(Integer.MAX_VALUE - 1);
+        if (shifted && births.size() == 12 && births.oldest() == 991 - 2_000_000_000
+                && births.segments.size() == 4) {
+            System.out.println("Yay 2");
+        }
+
+        for (int born : new int[] {991, 992, 993, 994}) {
+            births.remove(born - 2_000_000_000);
+        }
+        births.remove(-1_000_000_000);
+        if (births.oldest() == 995 && births.segments.size() == 2) {
+            System.out.println("Yay 3");
+        }
+    }
+}
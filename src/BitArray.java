@@ -0,0 +1,395 @@
+import java.util.Arrays;
+
+/**
+ * A DynamicArray of booleans packed 64 to a long, for alive flags and other
+ * per-cell bits that would otherwise take a Boolean reference (or a byte)
+ * each. Bit i lives in word i / 64 at position i % 64, the same layout as
+ * the rows of BitboardEngine, so the words can be handed to word-at-a-time
+ * code directly.
+ * The API has the same shape as DynamicArray, with the capacity counted in
+ * bits. Inserting and removing shift the following words by one bit each
+ * instead of moving every element, and the bulk methods work on whole words.
+ * Bits past size() are always zero.
+ *
+ * @author Your Name Here
+ */
+public class BitArray {
+
+    private static final int INITCAP = 64; // default initial capacity in bits (one word)
+    private long[] words; // underlying packed storage
+    private int currentSize; // current number of bits
+
+    /**
+     * Default constructor that creates an array with room for 64 bits.
+     */
+    public BitArray() {
+        words = new long[INITCAP / 64];
+    }
+
+    /**
+     * Constructor that creates an array with room for at least the given
+     * number of bits.
+     *
+     * @param initCapacity the initial capacity in bits
+     * @throws IllegalArgumentException if initCapacity < 1
+     */
+    public BitArray(int initCapacity) {
+        if (initCapacity < 1) {
+            throw new IllegalArgumentException("Capacity cannot be zero or negative.");
+        }
+        words = new long[wordCount(initCapacity)];
+    }
+
+    /**
+     * Reports the current number of bits.
+     *
+     * @return the number of bits currently in the array
+     */
+    public int size() {
+        return currentSize;
+    }
+
+    /**
+     * Reports the maximum number of bits before expansion is needed.
+     *
+     * @return the current capacity in bits (a multiple of 64)
+     */
+    public int capacity() {
+        return words.length * 64;
+    }
+
+    /**
+     * Changes the bit at the given index.
+     *
+     * @param index the index to set
+     * @param value the new value
+     * @return the old value at the specified index
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    public boolean set(int index, boolean value) {
+        checkIndex(index);
+        long mask = 1L << index;
+        boolean old = (words[index >>> 6] & mask) != 0;
+        if (value) {
+            words[index >>> 6] |= mask;
+        } else {
+            words[index >>> 6] &= ~mask;
+        }
+        return old;
+    }
+
+    /**
+     * Returns the bit at the given index.
+     *
+     * @param index the index to retrieve
+     * @return the bit at the specified index
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    public boolean get(int index) {
+        checkIndex(index);
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Appends a bit to the end of the list.
+     * Doubles the capacity if no space is available.
+     *
+     * @param value the bit to add
+     * @return true (as specified by Collection.add)
+     */
+    public boolean add(boolean value) {
+        if (currentSize == capacity()) {
+            grow(currentSize + 1);
+        }
+        if (value) {
+            words[currentSize >>> 6] |= 1L << currentSize;
+        }
+        currentSize++;
+        return true;
+    }
+
+    /**
+     * Inserts the given bit at the given index.
+     * The bits after it move up by one, a word at a time; doubles capacity
+     * if no space available.
+     *
+     * @param index the index at which to insert
+     * @param value the bit to insert
+     * @throws IndexOutOfBoundsException if index is invalid for insertion
+     */
+    public void add(int index, boolean value) {
+        if (index < 0 || index > currentSize) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+        }
+        if (currentSize == capacity()) {
+            grow(currentSize + 1);
+        }
+        int w = index >>> 6;
+        // whole words above the insertion point take the top bit of the one below
+        for (int k = currentSize >>> 6; k > w; k--) {
+            words[k] = (words[k] << 1) | (words[k - 1] >>> 63);
+        }
+        long below = (1L << index) - 1;
+        long word = words[w];
+        words[w] = (word & below) | ((word & ~below) << 1) | (value ? 1L << index : 0L);
+        currentSize++;
+    }
+
+    /**
+     * Removes and returns the bit at the given index.
+     * The bits after it move down by one, a word at a time.
+     * Halves capacity if number of bits falls below 1/3 of capacity.
+     *
+     * @param index the index of the bit to remove
+     * @return the bit that was removed
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    public boolean remove(int index) {
+        checkIndex(index);
+        int w = index >>> 6;
+        int last = (currentSize - 1) >>> 6;
+        long below = (1L << index) - 1;
+        long word = words[w];
+        boolean removed = (word & (1L << index)) != 0;
+        words[w] = (word & below) | ((word >>> 1) & ~below) | (w < last ? words[w + 1] << 63 : 0L);
+        for (int k = w + 1; k <= last; k++) {
+            words[k] = (words[k] >>> 1) | (k < last ? words[k + 1] << 63 : 0L);
+        }
+        currentSize--;
+        if (words.length > INITCAP / 64 && currentSize * 3 < capacity()) {
+            words = Arrays.copyOf(words, words.length / 2);
+        }
+        return removed;
+    }
+
+    /**
+     * Appends the first length bits of a packed array (bit i in word i / 64,
+     * as produced by toLongArray()), growing at most once. Each source word
+     * is shifted into place in one step, whatever the current alignment.
+     *
+     * @param bits the packed source
+     * @param length the number of bits to append
+     * @throws IndexOutOfBoundsException if bits holds fewer than length bits
+     */
+    public void addAll(long[] bits, int length) {
+        if (length < 0 || wordCount(length) > bits.length) {
+            throw new IndexOutOfBoundsException("Length " + length + " out of bounds!");
+        }
+        if (currentSize + length > capacity()) {
+            grow(currentSize + length);
+        }
+        int shift = currentSize & 63;
+        for (int i = 0, n = wordCount(length); i < n; i++) {
+            long word = bits[i];
+            int take = length - i * 64;
+            if (take < 64) {
+                word &= (1L << take) - 1;
+            }
+            int w = (currentSize >>> 6) + i;
+            words[w] |= word << shift;
+            if (shift != 0 && (word >>> (64 - shift)) != 0) {
+                words[w + 1] |= word >>> (64 - shift);
+            }
+        }
+        currentSize += length;
+    }
+
+    /**
+     * Sets every bit from index from up to (not including) to, touching
+     * each word once.
+     *
+     * @param from the first index to set
+     * @param to the index after the last one to set
+     * @param value the bit
+     * @throws IndexOutOfBoundsException if the range is invalid
+     */
+    public void fill(int from, int to, boolean value) {
+        if (from < 0 || to > currentSize || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + ".." + to + " out of bounds!");
+        }
+        if (from == to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            setBits(first, firstMask & lastMask, value);
+            return;
+        }
+        setBits(first, firstMask, value);
+        Arrays.fill(words, first + 1, last, value ? -1L : 0L);
+        setBits(last, lastMask, value);
+    }
+
+    /**
+     * Counts the bits that are set.
+     *
+     * @return the number of true bits
+     */
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0, n = wordCount(currentSize); i < n; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first set bit at or after the given index, skipping whole
+     * zero words.
+     *
+     * @param from the index to start at
+     * @return the index of the next true bit, or -1 if there is none
+     * @throws IndexOutOfBoundsException if from is negative
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Index " + from + " out of bounds!");
+        }
+        if (from >= currentSize) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        int n = wordCount(currentSize);
+        while (word == 0) {
+            if (++w == n) {
+                return -1;
+            }
+            word = words[w];
+        }
+        return w * 64 + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Removes every bit but keeps the capacity.
+     */
+    public void clear() {
+        Arrays.fill(words, 0, wordCount(currentSize), 0L);
+        currentSize = 0;
+    }
+
+    /**
+     * Copies the bits into a new packed array of just enough words.
+     *
+     * @return the packed bits
+     */
+    public long[] toLongArray() {
+        return Arrays.copyOf(words, wordCount(currentSize));
+    }
+
+    /**
+     * Helper that sets or clears the masked bits of a word.
+     *
+     * @param w the word index
+     * @param mask the bits to change
+     * @param value whether to set or clear them
+     */
+    private void setBits(int w, long mask, boolean value) {
+        if (value) {
+            words[w] |= mask;
+        } else {
+            words[w] &= ~mask;
+        }
+    }
+
+    /**
+     * Helper that reallocates the storage to at least minCapacity bits,
+     * doubling it if that is more.
+     *
+     * @param minCapacity the number of bits that must fit
+     */
+    private void grow(int minCapacity) {
+        words = Arrays.copyOf(words, Math.max(wordCount(minCapacity), words.length * 2));
+    }
+
+    /**
+     * Helper that checks an index of an existing bit.
+     *
+     * @param index the index
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= currentSize) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+        }
+    }
+
+    /**
+     * Helper that gives the number of words needed for a number of bits.
+     *
+     * @param bits the number of bits
+     * @return the number of words
+     */
+    private static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Returns a string representation of this array, one 0 or 1 per bit.
+     * This method is provided for debugging purposes.
+     *
+     * @return a string representation of the array
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder("Bit array with " + size()
+            + " bits and a capacity of " + capacity() + ": ");
+        for (int i = 0; i < size(); i++) {
+            s.append(get(i) ? '1' : '0');
+        }
+        return s.toString();
+    }
+
+    /**
+     * Main method for testing the BitArray implementation.
+     *
+     * @param args command line arguments (not used)
+     */
+    public static void main(String[] args) {
+        BitArray bits = new BitArray();
+        if (bits.size() == 0 && bits.capacity() == 64) {
+            System.out.println("Yay 1");
+        }
+
+        // every third bit set, across three words
+        boolean ok = true;
+        for (int i = 0; i < 150; i++) {
+            ok = ok && bits.add(i % 3 == 0);
+        }
+        if (ok && bits.size() == 150 && bits.capacity() == 256 && bits.get(129)
+            && !bits.get(130) && bits.cardinality() == 50) {
+            System.out.println("Yay 2");
+        }
+
+        // an insert and a remove near the front shift every later word
+        bits.add(1, true);
+        boolean shifted = bits.get(1) && bits.get(130) && !bits.get(129) && bits.get(64);
+        boolean removed = bits.remove(1) && bits.get(129) && !bits.get(130);
+        if (shifted && removed && bits.size() == 150 && bits.set(0, false)
+            && bits.nextSetBit(0) == 3 && bits.nextSetBit(148) == -1) {
+            System.out.println("Yay 3");
+        }
+
+        bits.fill(10, 140, true);
+        int count = bits.cardinality();
+        bits.fill(0, 150, false);
+        if (count == 130 + 3 + 3 && bits.cardinality() == 0) {
+            System.out.println("Yay 4");
+        }
+
+        // unaligned bulk append, then shrink back down by removing
+        bits.clear();
+        bits.add(true);
+        bits.addAll(new long[] {-1L, 0b101L}, 67);
+        long[] packed = bits.toLongArray();
+        while (bits.size() > 3) {
+            bits.remove(bits.size() - 1);
+        }
+        if (packed.length == 2 && packed[0] == -1L && packed[1] == 0b1011L
+            && bits.size() == 3 && bits.capacity() == 64) {
+            System.out.println("Yay 5");
+        }
+    }
+}
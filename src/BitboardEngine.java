@@ -0,0 +1,807 @@
+import java.util.Arrays;
+
+/**
+ * A LifeEngine that packs each grid row into a long[], one bit per cell,
+ * and evaluates the rule with bitwise adder logic so that 64 cells advance
+ * per word operation. Conway's rule has its own fused formula; any other
+ * Life-like rule goes through a branch-free table of word masks.
+ * Bit b of word w in a row is the cell in column w * 64 + b. Bits past the
+ * last column are always kept at zero.
+ *
+ * Ages are optional. When they are tracked they are updated by walking only
+ * the set bits of each word, so the cost scales with the population rather
+ * than the grid area. When they are not tracked every live cell reports age 1.
+ *
+ * @author Your Name Here
+ */
+public class BitboardEngine implements LifeEngine {
+
+    /**
+     * Stands in for the dead rows above the top edge and below the bottom edge.
+     */
+    static final long[] EMPTY_ROW = new long[0];
+
+    /**
+     * Whether createVectorized() hands out VectorEngine. Off until the
+     * vector kernel beats the scalar one.
+     */
+    static final boolean VECTOR_IS_FASTER = false;
+
+    /**
+     * The number of rows in the grid.
+     */
+    private final int rows;
+
+    /**
+     * The number of columns in the grid.
+     */
+    private final int cols;
+
+    /**
+     * The number of 64-bit words needed to hold one row.
+     */
+    private final int words;
+
+    /**
+     * Mask of the valid bits in the last word of each row.
+     */
+    private final long lastMask;
+
+    /**
+     * The rule the grid evolves by.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * The rule as word masks, see ruleMasks(Rule), or null for Conway's
+     * rule, which uses the fused formula instead.
+     */
+    private long[] ruleMasks;
+
+    /**
+     * The current generation, one long[] per row.
+     */
+    private long[][] cells;
+
+    /**
+     * Scratch rows the next generation is written into before the swap.
+     */
+    private long[][] nextCells;
+
+    /**
+     * Ages in row-major order, or null when ages are not tracked.
+     */
+    private final int[] age;
+
+    /**
+     * Per-row population of the generation being computed. Kept per row so
+     * that bands stepped on different threads never share a counter.
+     */
+    private final int[] rowPopulation;
+
+    /**
+     * Per-row age sums of the generation being computed.
+     */
+    private final long[] rowAgeSum;
+
+    /**
+     * Per-row maximum ages of the generation being computed.
+     */
+    private final int[] rowMaxAge;
+
+    /**
+     * Per-row XOR of the keys of the cells that changed in the generation
+     * being computed.
+     */
+    private final long[] rowHash;
+
+    /**
+     * The number of live cells in the current generation.
+     */
+    private long population;
+
+    /**
+     * The sum of the ages of all live cells.
+     */
+    private long ageSum;
+
+    /**
+     * The age of the oldest live cell.
+     */
+    private int maxAge;
+
+    /**
+     * True if an edit removed or lowered the oldest cell, so maxAge needs a
+     * rescan.
+     */
+    private boolean maxAgeStale;
+
+    /**
+     * The XOR of the keys of the live cells, see LifeEngine.getStateHash().
+     */
+    private long stateHash;
+
+    /**
+     * Constructs an engine that tracks cell ages.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     */
+    public BitboardEngine(int rows, int cols) {
+        this(rows, cols, true);
+    }
+
+    /**
+     * Constructs an engine with every cell dead.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @param trackAges false to skip age bookkeeping for very large grids
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    public BitboardEngine(int rows, int cols, boolean trackAges) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Grid dimensions must be positive.");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.words = (cols + 63) >>> 6;
+        this.lastMask = (cols & 63) == 0 ? -1L : (1L << (cols & 63)) - 1;
+        this.cells = new long[rows][words];
+        this.nextCells = new long[rows][words];
+        this.age = trackAges ? new int[rows * cols] : null;
+        this.rowPopulation = new int[rows];
+        this.rowAgeSum = new long[rows];
+        this.rowMaxAge = new int[rows];
+        this.rowHash = new long[rows];
+    }
+
+    /**
+     * Creates the fastest available bit-packed engine. That is the scalar
+     * BitboardEngine for now: VectorEngine measured slower than it with
+     * both AVX2 and AVX-512 (see the README), so it is only handed out here
+     * once VECTOR_IS_FASTER is set.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @param trackAges false to skip age bookkeeping for very large grids
+     * @return the fastest available bit-packed engine
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    public static BitboardEngine createVectorized(int rows, int cols, boolean trackAges) {
+        if (VECTOR_IS_FASTER) {
+            return createVectorEngine(rows, cols, trackAges);
+        }
+        return new BitboardEngine(rows, cols, trackAges);
+    }
+
+    /**
+     * Creates the fastest available bit-packed engine that tracks ages, see
+     * createVectorized(int, int, boolean).
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @return a VectorEngine or a BitboardEngine
+     */
+    public static BitboardEngine createVectorized(int rows, int cols) {
+        return createVectorized(rows, cols, true);
+    }
+
+    /**
+     * Creates the SIMD VectorEngine (src/vector) if it was compiled in, the
+     * jdk.incubator.vector module is present and the CPU has vector
+     * registers, and otherwise a plain BitboardEngine. Both give the same
+     * results; this is for measuring the vector kernel, whether or not it
+     * is faster. VectorEngine is loaded by name so that this class compiles
+     * and runs without the incubator module.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @param trackAges false to skip age bookkeeping for very large grids
+     * @return a VectorEngine, or a BitboardEngine if there is none
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    public static BitboardEngine createVectorEngine(int rows, int cols, boolean trackAges) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Grid dimensions must be positive.");
+        }
+        String name = BitboardEngine.class.getName().replace("BitboardEngine", "VectorEngine");
+        try {
+            return (BitboardEngine) Class.forName(name)
+                    .getConstructor(int.class, int.class, boolean.class)
+                    .newInstance(rows, cols, trackAges);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // not compiled in, module missing (NoClassDefFoundError), or no
+            // SIMD registers (the constructor's UnsupportedOperationException)
+            return new BitboardEngine(rows, cols, trackAges);
+        }
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Every Life-like rule is supported; the cells outside the grid stay
+     * dead even if the rule has B0. Generations rules are not, since a cell
+     * is one bit.
+     *
+     * @param rule the new rule
+     * @throws UnsupportedOperationException if the rule has dying states
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule.getStates() > 2) {
+            throw new UnsupportedOperationException(getClass().getSimpleName()
+                    + " only has two states; use GenerationsEngine for " + rule);
+        }
+        this.rule = rule;
+        this.ruleMasks = rule.isConway() ? null : ruleMasks(rule);
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Checks whether this engine keeps real ages.
+     *
+     * @return true if ages are tracked
+     */
+    public boolean isTrackingAges() {
+        return age != null;
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return ((cells[row][col >>> 6] >>> col) & 1L) != 0;
+    }
+
+    @Override
+    public int getAge(int row, int col) {
+        if (age != null) {
+            return age[row * cols + col];
+        }
+        return isAlive(row, col) ? 1 : 0;
+    }
+
+    @Override
+    public void setAlive(int row, int col) {
+        if (!isAlive(row, col)) {
+            cells[row][col >>> 6] |= 1L << col;
+            if (age != null) {
+                age[row * cols + col] = 1;
+            }
+            population++;
+            ageSum++;
+            maxAge = Math.max(maxAge, 1);
+            stateHash ^= LifeEngine.cellKey(row, col);
+        }
+    }
+
+    @Override
+    public void setDead(int row, int col) {
+        if (isAlive(row, col)) {
+            cells[row][col >>> 6] &= ~(1L << col);
+            population--;
+            if (age == null) {
+                ageSum--;
+                maxAge = population == 0 ? 0 : 1;
+            } else {
+                int old = age[row * cols + col];
+                age[row * cols + col] = 0;
+                ageSum -= old;
+                if (old == maxAge) {
+                    maxAgeStale = true;
+                }
+            }
+            stateHash ^= LifeEngine.cellKey(row, col);
+        }
+    }
+
+    /**
+     * Sets a run of cells alive a word at a time.
+     *
+     * @param row the row of the run
+     * @param col the column of the first cell
+     * @param length the number of cells
+     */
+    @Override
+    public void setAliveRun(int row, int col, int length) {
+        long[] r = cells[row];
+        int end = col + length;
+        for (int w = col >>> 6; w < words && w << 6 < end; w++) {
+            long mask = runMask(w, col, end);
+            long born = mask & ~r[w];
+            if (born == 0) {
+                continue;
+            }
+            r[w] |= born;
+            stateHash ^= LifeEngine.cellKeys(row, w << 6, born);
+            int n = Long.bitCount(born);
+            population += n;
+            ageSum += n;
+            maxAge = Math.max(maxAge, 1);
+            if (age != null) {
+                int base = row * cols + (w << 6);
+                if (born == mask) {
+                    // the usual case when loading: the whole stretch was dead
+                    int from = Math.max(col, w << 6);
+                    int to = Math.min(end, (w + 1) << 6);
+                    Arrays.fill(age, row * cols + from, row * cols + to, 1);
+                } else {
+                    while (born != 0) {
+                        age[base + Long.numberOfTrailingZeros(born)] = 1;
+                        born &= born - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the bits of word w that fall inside the columns [from, to).
+     *
+     * @param w the word index
+     * @param from the first column
+     * @param to the column after the last one
+     * @return the mask, 0 if the word is outside the range
+     */
+    static long runMask(int w, int from, int to) {
+        int lo = Math.max(from, w << 6) - (w << 6);
+        int hi = Math.min(to, (w + 1) << 6) - (w << 6);
+        if (hi <= lo) {
+            return 0L;
+        }
+        long upper = hi == 64 ? -1L : (1L << hi) - 1;
+        return upper & (-1L << lo);
+    }
+
+    @Override
+    public void setAge(int row, int col, int newAge) {
+        if (age != null && newAge >= 1 && isAlive(row, col)) {
+            int old = age[row * cols + col];
+            age[row * cols + col] = newAge;
+            ageSum += newAge - old;
+            if (newAge >= maxAge) {
+                maxAge = newAge;
+            } else if (old == maxAge) {
+                maxAgeStale = true;
+            }
+        }
+    }
+
+    /**
+     * Restores a row a word at a time. Without ages every cell gets age 1.
+     *
+     * @param row the row, which must be all dead
+     * @param bits the cells to set
+     * @param ages the ages of the set cells in column order
+     */
+    @Override
+    public void restoreRow(int row, long[] bits, int[] ages) {
+        long[] r = cells[row];
+        int base = row * cols;
+        int k = 0;
+        for (int w = 0; w < words; w++) {
+            long word = bits[w];
+            if (word == 0) {
+                continue;
+            }
+            r[w] |= word;
+            stateHash ^= LifeEngine.cellKeys(row, w << 6, word);
+            int n = Long.bitCount(word);
+            population += n;
+            if (age == null) {
+                ageSum += n;
+                maxAge = Math.max(maxAge, 1);
+                continue;
+            }
+            while (word != 0) {
+                int a = ages[k++];
+                age[base + (w << 6) + Long.numberOfTrailingZeros(word)] = a;
+                ageSum += a;
+                maxAge = Math.max(maxAge, a);
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Copies a row of ages with one array copy when ages are tracked.
+     *
+     * @param row the row to copy
+     * @param ages the destination
+     * @param offset where the first column goes in ages
+     */
+    @Override
+    public void copyAges(int row, int[] ages, int offset) {
+        if (age == null) {
+            LifeEngine.super.copyAges(row, ages, offset);
+        } else {
+            System.arraycopy(age, row * cols, ages, offset, cols);
+        }
+    }
+
+    /**
+     * Adds to the ages in one pass over the age array. Without ages every
+     * cell stays at age 1.
+     *
+     * @param minAge only cells with an age above this are changed
+     * @param delta the number of generations to add
+     */
+    @Override
+    public void addAge(int minAge, int delta) {
+        if (age == null) {
+            return;
+        }
+        for (int i = 0; i < age.length; i++) {
+            if (age[i] > minAge) {
+                age[i] += delta;
+                ageSum += delta;
+            }
+        }
+        if (maxAge > minAge) {
+            maxAge += delta;
+        }
+    }
+
+    @Override
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Changes the state hash for cells that an engine built on this one
+     * set or cleared without going through setAlive().
+     *
+     * @param keys the XOR of the keys of the cells that changed
+     */
+    void updateStateHash(long keys) {
+        stateHash ^= keys;
+    }
+
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    @Override
+    public long getAgeSum() {
+        return ageSum;
+    }
+
+    @Override
+    public int getMaxAge() {
+        if (maxAgeStale) {
+            // only after an edit removed or lowered the oldest cell
+            int max = 0;
+            for (int a : age) {
+                max = Math.max(max, a);
+            }
+            maxAge = max;
+            maxAgeStale = false;
+        }
+        return maxAge;
+    }
+
+    @Override
+    public void clear() {
+        for (long[] row : cells) {
+            Arrays.fill(row, 0L);
+        }
+        if (age != null) {
+            Arrays.fill(age, 0);
+        }
+        population = 0;
+        ageSum = 0;
+        maxAge = 0;
+        maxAgeStale = false;
+        stateHash = 0;
+    }
+
+    /**
+     * Gets the rows of the current generation. This is the live storage.
+     *
+     * @return the current rows
+     */
+    long[][] currentRows() {
+        return cells;
+    }
+
+    /**
+     * Gets the scratch rows the next generation is written into.
+     *
+     * @return the next rows
+     */
+    long[][] nextRows() {
+        return nextCells;
+    }
+
+    /**
+     * Gets the number of words per row.
+     *
+     * @return the words per row
+     */
+    int wordsPerRow() {
+        return words;
+    }
+
+    /**
+     * Advances the grid by ONE generation.
+     */
+    @Override
+    public void step() {
+        stepRows(0, rows);
+        swapBuffers();
+        totalRowStatistics();
+    }
+
+    /**
+     * Computes rows [from, to) of the next generation, including their ages
+     * and the keys of the cells that changed.
+     * Each row only reads the current generation and only writes its own
+     * row of the next one, so disjoint ranges can run on different threads.
+     *
+     * @param from the first row to compute
+     * @param to one past the last row to compute
+     */
+    void stepRows(int from, int to) {
+        for (int r = from; r < to; r++) {
+            long[] above = r > 0 ? cells[r - 1] : EMPTY_ROW;
+            long[] below = r < rows - 1 ? cells[r + 1] : EMPTY_ROW;
+            stepRow(above, cells[r], below, nextCells[r]);
+            if (age != null) {
+                updateAges(r, cells[r], nextCells[r]);
+            } else {
+                int count = 0;
+                for (long w : nextCells[r]) {
+                    count += Long.bitCount(w);
+                }
+                rowPopulation[r] = count;
+                rowAgeSum[r] = count;
+                rowMaxAge[r] = count > 0 ? 1 : 0;
+            }
+            long keys = 0;
+            for (int w = 0; w < words; w++) {
+                long diff = cells[r][w] ^ nextCells[r][w];
+                if (diff != 0) {
+                    keys ^= LifeEngine.cellKeys(r, w << 6, diff);
+                }
+            }
+            rowHash[r] = keys;
+        }
+    }
+
+    /**
+     * Adds up the per-row statistics written by stepRows(). Call this once
+     * after every row of a generation has been computed.
+     */
+    void totalRowStatistics() {
+        long newPopulation = 0;
+        long newAgeSum = 0;
+        int newMaxAge = 0;
+        long hash = stateHash;
+        for (int r = 0; r < rows; r++) {
+            newPopulation += rowPopulation[r];
+            newAgeSum += rowAgeSum[r];
+            newMaxAge = Math.max(newMaxAge, rowMaxAge[r]);
+            hash ^= rowHash[r];
+        }
+        population = newPopulation;
+        ageSum = newAgeSum;
+        maxAge = newMaxAge;
+        maxAgeStale = false;
+        stateHash = hash;
+    }
+
+    /**
+     * Makes the next generation current once every row has been computed.
+     */
+    void swapBuffers() {
+        long[][] tmp = cells;
+        cells = nextCells;
+        nextCells = tmp;
+    }
+
+    /**
+     * Computes one row of the next generation.
+     * A zero-length neighbor row stands for the dead space outside the grid.
+     *
+     * @param above the row above, or an empty array at the top edge
+     * @param mid the row being evolved
+     * @param below the row below, or an empty array at the bottom edge
+     * @param out where the next generation of mid is written
+     */
+    void stepRow(long[] above, long[] mid, long[] below, long[] out) {
+        for (int w = 0; w < words; w++) {
+            out[w] = nextWord(above, mid, below, w);
+        }
+    }
+
+    /**
+     * Computes one word of the next generation.
+     *
+     * @param above the row above, or an empty array at the top edge
+     * @param mid the row the word belongs to
+     * @param below the row below, or an empty array at the bottom edge
+     * @param w the word index
+     * @return the next state of the 64 cells in mid[w]
+     */
+    long nextWord(long[] above, long[] mid, long[] below, int w) {
+        long a = word(above, w);
+        long m = mid[w];
+        long b = word(below, w);
+
+        // neighbors to the west are one column lower, so shift up and pull
+        // in the top bit of the previous word; east is the mirror image
+        long aw = (a << 1) | (word(above, w - 1) >>> 63);
+        long ae = (a >>> 1) | (word(above, w + 1) << 63);
+        long mw = (m << 1) | (word(mid, w - 1) >>> 63);
+        long me = (m >>> 1) | (word(mid, w + 1) << 63);
+        long bw = (b << 1) | (word(below, w - 1) >>> 63);
+        long be = (b >>> 1) | (word(below, w + 1) << 63);
+
+        long next = ruleMasks == null ? rule(aw, a, ae, mw, m, me, bw, b, be)
+                : rule(ruleMasks, aw, a, ae, mw, m, me, bw, b, be);
+        return next & (w == words - 1 ? lastMask : -1L);
+    }
+
+    /**
+     * Applies B3/S23 to 64 cells at once.
+     * The eight neighbor masks are summed with full adders into the three low
+     * bits of the neighbor count (8 wraps to 0, which is dead either way).
+     * The arguments are the west, center and east masks of the row above (a),
+     * the row itself (m) and the row below (b).
+     *
+     * @return the next state of the 64 cells in m
+     */
+    static long rule(long aw, long a, long ae, long mw, long m, long me,
+                     long bw, long b, long be) {
+        // column sums of the rows above and below, and the two side cells
+        long aSum = aw ^ a ^ ae;
+        long aCarry = (aw & a) | (ae & (aw ^ a));
+        long bSum = bw ^ b ^ be;
+        long bCarry = (bw & b) | (be & (bw ^ b));
+        long mSum = mw ^ me;
+        long mCarry = mw & me;
+
+        // ones bit
+        long ones = aSum ^ bSum ^ mSum;
+        long onesCarry = (aSum & bSum) | (mSum & (aSum ^ bSum));
+
+        // twos bit from the four weight-2 carries
+        long t = aCarry ^ bCarry ^ mCarry;
+        long tCarry = (aCarry & bCarry) | (mCarry & (aCarry ^ bCarry));
+        long twos = t ^ onesCarry;
+        long fours = tCarry ^ (t & onesCarry);
+
+        // exactly 3, or exactly 2 and already alive
+        return twos & ~fours & (ones | m);
+    }
+
+    /**
+     * Compiles a rule into word masks for rule(long[], ...): entry n is all
+     * ones if a dead cell with n neighbors is born, entry 9 + n is all ones
+     * if a live cell with n neighbors survives, and every other entry is 0.
+     *
+     * @param rule the rule
+     * @return the 18 masks
+     */
+    static long[] ruleMasks(Rule rule) {
+        long[] masks = new long[18];
+        int table = rule.getTransitions();
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = -((table >>> i) & 1L);
+        }
+        return masks;
+    }
+
+    /**
+     * Applies any Life-like rule to 64 cells at once. The neighbors are
+     * summed like in rule(...) but up to the full count of 8, each count is
+     * turned into a mask of the cells that have it, and the masks are
+     * ANDed with the rule's word masks. There are no branches, so the cost
+     * is the same for every rule.
+     *
+     * @param masks the rule, from ruleMasks(Rule)
+     * @return the next state of the 64 cells in m
+     */
+    static long rule(long[] masks, long aw, long a, long ae, long mw, long m, long me,
+                     long bw, long b, long be) {
+        long aSum = aw ^ a ^ ae;
+        long aCarry = (aw & a) | (ae & (aw ^ a));
+        long bSum = bw ^ b ^ be;
+        long bCarry = (bw & b) | (be & (bw ^ b));
+        long mSum = mw ^ me;
+        long mCarry = mw & me;
+
+        long ones = aSum ^ bSum ^ mSum;
+        long onesCarry = (aSum & bSum) | (mSum & (aSum ^ bSum));
+
+        long t = aCarry ^ bCarry ^ mCarry;
+        long tCarry = (aCarry & bCarry) | (mCarry & (aCarry ^ bCarry));
+        long twos = t ^ onesCarry;
+        long foursCarry = t & onesCarry;
+        long fours = tCarry ^ foursCarry;
+        long eights = tCarry & foursCarry;
+
+        // one mask per count: the low two bits, then 0-3 or 4-7 (8 has neither)
+        long low0 = ~ones & ~twos;
+        long low1 = ones & ~twos;
+        long low2 = ~ones & twos;
+        long low3 = ones & twos;
+        long under4 = ~fours & ~eights;
+        long n0 = low0 & under4;
+        long n1 = low1 & under4;
+        long n2 = low2 & under4;
+        long n3 = low3 & under4;
+        long n4 = low0 & fours;
+        long n5 = low1 & fours;
+        long n6 = low2 & fours;
+        long n7 = low3 & fours;
+
+        long born = (n0 & masks[0]) | (n1 & masks[1]) | (n2 & masks[2]) | (n3 & masks[3])
+                | (n4 & masks[4]) | (n5 & masks[5]) | (n6 & masks[6]) | (n7 & masks[7])
+                | (eights & masks[8]);
+        long kept = (n0 & masks[9]) | (n1 & masks[10]) | (n2 & masks[11]) | (n3 & masks[12])
+                | (n4 & masks[13]) | (n5 & masks[14]) | (n6 & masks[15]) | (n7 & masks[16])
+                | (eights & masks[17]);
+        return (born & ~m) | (kept & m);
+    }
+
+    /**
+     * Helper that reads a word, treating words outside the row as empty.
+     *
+     * @param row the row to read from
+     * @param w the word index
+     * @return the word, or 0 if w is out of range
+     */
+    private static long word(long[] row, int w) {
+        return w >= 0 && w < row.length ? row[w] : 0L;
+    }
+
+    /**
+     * Updates the ages and statistics of one row by visiting only the bits
+     * that are set in the old or new generation.
+     *
+     * @param r the row index
+     * @param before the row in the current generation
+     * @param after the row in the next generation
+     */
+    private void updateAges(int r, long[] before, long[] after) {
+        int base = r * cols;
+        int count = 0;
+        long sum = 0;
+        int max = 0;
+        for (int w = 0; w < words; w++) {
+            long live = before[w] | after[w];
+            while (live != 0) {
+                int bit = Long.numberOfTrailingZeros(live);
+                live &= live - 1;
+                int index = base + (w << 6) + bit;
+                if (((after[w] >>> bit) & 1L) == 0) {
+                    age[index] = 0;
+                    continue;
+                } else if (((before[w] >>> bit) & 1L) == 0) {
+                    age[index] = 1;
+                } else {
+                    age[index]++;
+                }
+                count++;
+                sum += age[index];
+                max = Math.max(max, age[index]);
+            }
+        }
+        rowPopulation[r] = count;
+        rowAgeSum[r] = sum;
+        rowMaxAge[r] = max;
+    }
+}
@@ -0,0 +1,376 @@
+import java.util.Arrays;
+
+/**
+ * A LifeEngine that keeps the grid in two preallocated primitive buffers
+ * and swaps them every generation.
+ * A cell is alive when its age is greater than zero, so a single int per
+ * cell holds both the state and the age. Once constructed, step() does not
+ * allocate anything.
+ *
+ * Each buffer has a one-cell halo around the grid. The halo is refreshed
+ * once per generation (dead for a bounded grid, a copy of the opposite edge
+ * for a torus), so the neighbor count in the inner loop never has to check
+ * bounds.
+ *
+ * @author Your Name Here
+ */
+public class BufferedEngine implements LifeEngine {
+
+    /**
+     * The number of rows in the grid.
+     */
+    private final int rows;
+
+    /**
+     * The number of columns in the grid.
+     */
+    private final int cols;
+
+    /**
+     * The distance between two rows in the buffers (cols plus the halo).
+     */
+    private final int stride;
+
+    /**
+     * Ages of the current generation in row-major order with a halo (0 = dead).
+     */
+    private int[] age;
+
+    /**
+     * Scratch buffer the next generation is written into before the swap.
+     */
+    private int[] nextAge;
+
+    /**
+     * How the edges behave.
+     */
+    private Topology topology = Topology.BOUNDED;
+
+    /**
+     * The transition table of the rule, see Rule.getTransitions().
+     */
+    private int transitions = Rule.CONWAY.getTransitions();
+
+    /**
+     * The rule the transitions come from.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * The number of live cells, updated by step() and the edit methods.
+     */
+    private long population;
+
+    /**
+     * The sum of the ages of all live cells.
+     */
+    private long ageSum;
+
+    /**
+     * The age of the oldest live cell.
+     */
+    private int maxAge;
+
+    /**
+     * True if an edit removed or lowered the oldest cell, so maxAge needs a
+     * rescan.
+     */
+    private boolean maxAgeStale;
+
+    /**
+     * The XOR of the keys of the live cells, see LifeEngine.getStateHash().
+     */
+    private long stateHash;
+
+    /**
+     * Constructs an engine with every cell dead.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    public BufferedEngine(int rows, int cols) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Grid dimensions must be positive.");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = cols + 2;
+        this.age = new int[(rows + 2) * stride];
+        this.nextAge = new int[(rows + 2) * stride];
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Both bounded grids and tori are supported.
+     *
+     * @param topology the new topology
+     */
+    @Override
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * Every Life-like rule is supported; the cells outside a bounded grid
+     * stay dead even if the rule has B0. Generations rules are not, since a
+     * cell is only dead or alive here.
+     *
+     * @param rule the new rule
+     * @throws UnsupportedOperationException if the rule has dying states
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule.getStates() > 2) {
+            throw new UnsupportedOperationException(getClass().getSimpleName()
+                    + " only has two states; use GenerationsEngine for " + rule);
+        }
+        this.rule = rule;
+        this.transitions = rule.getTransitions();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return age[index(row, col)] > 0;
+    }
+
+    @Override
+    public int getAge(int row, int col) {
+        return age[index(row, col)];
+    }
+
+    @Override
+    public void setAlive(int row, int col) {
+        int index = index(row, col);
+        if (age[index] == 0) {
+            age[index] = 1;
+            population++;
+            ageSum++;
+            maxAge = Math.max(maxAge, 1);
+            stateHash ^= LifeEngine.cellKey(row, col);
+        }
+    }
+
+    @Override
+    public void setDead(int row, int col) {
+        int index = index(row, col);
+        int old = age[index];
+        if (old > 0) {
+            age[index] = 0;
+            population--;
+            ageSum -= old;
+            if (old == maxAge) {
+                maxAgeStale = true;
+            }
+            stateHash ^= LifeEngine.cellKey(row, col);
+        }
+    }
+
+    @Override
+    public void setAge(int row, int col, int newAge) {
+        int index = index(row, col);
+        int old = age[index];
+        if (old > 0 && newAge >= 1) {
+            age[index] = newAge;
+            ageSum += newAge - old;
+            if (newAge >= maxAge) {
+                maxAge = newAge;
+            } else if (old == maxAge) {
+                maxAgeStale = true;
+            }
+        }
+    }
+
+    /**
+     * Copies a row of ages straight out of the padded buffer.
+     *
+     * @param row the row to copy
+     * @param ages the destination
+     * @param offset where the first column goes in ages
+     */
+    @Override
+    public void copyAges(int row, int[] ages, int offset) {
+        System.arraycopy(age, index(row, 0), ages, offset, cols);
+    }
+
+    /**
+     * Adds to the ages in one pass over the buffer.
+     *
+     * @param minAge only cells with an age above this are changed
+     * @param delta the number of generations to add
+     */
+    @Override
+    public void addAge(int minAge, int delta) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = index(i, 0), end = j + cols; j < end; j++) {
+                if (age[j] > minAge) {
+                    age[j] += delta;
+                    ageSum += delta;
+                }
+            }
+        }
+        if (maxAge > minAge) {
+            maxAge += delta;
+        }
+    }
+
+    @Override
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    @Override
+    public long getAgeSum() {
+        return ageSum;
+    }
+
+    @Override
+    public int getMaxAge() {
+        if (maxAgeStale) {
+            // only after an edit removed or lowered the oldest cell
+            int max = 0;
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    max = Math.max(max, age[index(i, j)]);
+                }
+            }
+            maxAge = max;
+            maxAgeStale = false;
+        }
+        return maxAge;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(age, 0);
+        population = 0;
+        ageSum = 0;
+        maxAge = 0;
+        maxAgeStale = false;
+        stateHash = 0;
+    }
+
+    /**
+     * Advances the grid by ONE generation.
+     * Every grid cell of the next buffer is written, so it never has to be
+     * cleared, and the statistics are totalled in the same pass. The inner
+     * loop reads all eight neighbors without a branch; (-a) >>> 31 is 1 for
+     * a live cell (age > 0) and 0 for a dead one. The next state is looked
+     * up in the rule's transition table, so any rule costs the same; only
+     * the state of the cell is branched on, which predicts well since most
+     * cells are dead. The state hash is updated for the cells that are born
+     * or die.
+     */
+    @Override
+    public void step() {
+        refreshHalo();
+        int[] cur = age;
+        int[] next = nextAge;
+        long newPopulation = 0;
+        long newAgeSum = 0;
+        int newMaxAge = 0;
+        long hash = stateHash;
+        int table = transitions;
+        int survival = table >>> 9;
+
+        for (int i = 1; i <= rows; i++) {
+            int mid = i * stride;
+            int up = mid - stride;
+            int down = mid + stride;
+
+            for (int j = 1; j <= cols; j++) {
+                int count = ((-cur[up + j - 1]) >>> 31) + ((-cur[up + j]) >>> 31)
+                        + ((-cur[up + j + 1]) >>> 31) + ((-cur[mid + j - 1]) >>> 31)
+                        + ((-cur[mid + j + 1]) >>> 31) + ((-cur[down + j - 1]) >>> 31)
+                        + ((-cur[down + j]) >>> 31) + ((-cur[down + j + 1]) >>> 31);
+
+                int a = cur[mid + j];
+                int n;
+                if (a > 0) {
+                    // survives if the count is in the survival half of the table
+                    n = ((survival >>> count) & 1) != 0 ? a + 1 : 0;
+                } else {
+                    // born if the count is in the birth half
+                    n = (table >>> count) & 1;
+                }
+                next[mid + j] = n;
+
+                // statistics come for free while every cell is visited anyway
+                if (n > 0) {
+                    newPopulation++;
+                    newAgeSum += n;
+                    newMaxAge = Math.max(newMaxAge, n);
+                }
+                if ((n > 0) != (a > 0)) {
+                    hash ^= LifeEngine.cellKey(i - 1, j - 1);
+                }
+            }
+        }
+
+        age = next;
+        nextAge = cur;
+        population = newPopulation;
+        ageSum = newAgeSum;
+        maxAge = newMaxAge;
+        maxAgeStale = false;
+        stateHash = hash;
+    }
+
+    /**
+     * Helper that fills the halo of the current buffer for this generation:
+     * all dead for a bounded grid, or the opposite edges for a torus.
+     */
+    private void refreshHalo() {
+        int[] buf = age;
+        int lastRow = rows * stride;
+        int haloBottom = (rows + 1) * stride;
+        if (topology == Topology.TORUS) {
+            // rows first (grid columns only), then whole columns so the
+            // corners pick up the diagonally opposite cells
+            System.arraycopy(buf, lastRow + 1, buf, 1, cols);
+            System.arraycopy(buf, stride + 1, buf, haloBottom + 1, cols);
+            for (int r = 0; r < rows + 2; r++) {
+                int start = r * stride;
+                buf[start] = buf[start + cols];
+                buf[start + cols + 1] = buf[start + 1];
+            }
+        } else {
+            Arrays.fill(buf, 0, stride, 0);
+            Arrays.fill(buf, haloBottom, haloBottom + stride, 0);
+            for (int r = 1; r <= rows; r++) {
+                buf[r * stride] = 0;
+                buf[r * stride + cols + 1] = 0;
+            }
+        }
+    }
+
+    /**
+     * Helper that maps a grid cell to its position in the padded buffers.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the buffer index
+     */
+    private int index(int row, int col) {
+        return (row + 1) * stride + col + 1;
+    }
+}
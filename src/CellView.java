@@ -0,0 +1,86 @@
+/**
+ * A Cell that holds no state of its own but reads and writes one cell of a
+ * LifeEngine, so code written against the grid of Cells keeps working on
+ * any engine. Simulation.getGrid() hands these out when it runs on an
+ * engine, so edits made through them reach the engine.
+ *
+ * The only difference from a plain Cell is that a dead cell has no age:
+ * setAge() on a dead view does nothing, and getAge() reports 0.
+ *
+ * @author Your Name Here
+ */
+public class CellView extends Cell {
+
+    /**
+     * The engine the cell lives in.
+     */
+    private final LifeEngine engine;
+
+    /**
+     * The row of the cell.
+     */
+    private final int row;
+
+    /**
+     * The column of the cell.
+     */
+    private final int col;
+
+    /**
+     * Constructs a view of one cell.
+     *
+     * @param engine the engine the cell lives in
+     * @param row the row of the cell
+     * @param col the column of the cell
+     */
+    public CellView(LifeEngine engine, int row, int col) {
+        super(false);
+        this.engine = engine;
+        this.row = row;
+        this.col = col;
+    }
+
+    /**
+     * Builds a grid of views of every cell of an engine, laid out like the
+     * grid of Cells of a Simulation.
+     *
+     * @param engine the engine to view
+     * @return rows of CellViews
+     */
+    public static DynamicArray<DynamicArray<Cell>> gridOf(LifeEngine engine) {
+        DynamicArray<DynamicArray<Cell>> grid = new DynamicArray<>(engine.getRows());
+        for (int i = 0; i < engine.getRows(); i++) {
+            DynamicArray<Cell> cells = new DynamicArray<>(engine.getCols());
+            for (int j = 0; j < engine.getCols(); j++) {
+                cells.add(new CellView(engine, i, j));
+            }
+            grid.add(cells);
+        }
+        return grid;
+    }
+
+    @Override
+    public boolean isAlive() {
+        return engine.isAlive(row, col);
+    }
+
+    @Override
+    public void setAlive() {
+        engine.setAlive(row, col);
+    }
+
+    @Override
+    public int getAge() {
+        return engine.getAge(row, col);
+    }
+
+    @Override
+    public void setAge(int age) {
+        engine.setAge(row, col, age);
+    }
+
+    @Override
+    public void reset() {
+        engine.setDead(row, col);
+    }
+}
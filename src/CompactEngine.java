@@ -0,0 +1,473 @@
+import java.util.Arrays;
+
+/**
+ * A BitboardEngine that keeps ages in a short per cell, for grids where the
+ * memory per cell matters more than anything else.
+ * The grid is stored as flat parallel arrays: the alive bits (one long per
+ * 64 cells, double-buffered by BitboardEngine) and a short[] of ages in
+ * row-major order. That is about 2.25 bytes per cell, against roughly 28
+ * for a Cell object and the reference to it in the grid of Cells, and both
+ * arrays are scanned in order.
+ *
+ * Ages saturate: a cell that lives to SATURATED generations keeps that value
+ * in the short[], and the generation it was born in goes into a small side
+ * table instead. Cells that old are rare, so the table stays tiny, and its
+ * entries need no update while the cell lives on.
+ *
+ * getGrid() on a Simulation running this engine returns CellViews, so code
+ * written against Cells keeps working, and edits made through them reach
+ * the engine.
+ *
+ * @author Your Name Here
+ */
+public class CompactEngine extends BitboardEngine {
+
+    /**
+     * The stored age of every cell that is this old or older; the real age
+     * comes from the side table.
+     */
+    public static final short SATURATED = Short.MAX_VALUE;
+
+    /**
+     * The number of rows in the grid.
+     */
+    private final int rows;
+
+    /**
+     * The number of columns in the grid.
+     */
+    private final int cols;
+
+    /**
+     * Ages in row-major order (0 = dead), saturating at SATURATED.
+     */
+    private final short[] age;
+
+    /**
+     * The birth generation of every live cell whose age is SATURATED.
+     */
+    private final Overflow overflow = new Overflow();
+
+    /**
+     * The number of times step() has run, the clock birth generations are
+     * measured on.
+     */
+    private int tick;
+
+    /**
+     * The number of live cells.
+     */
+    private long population;
+
+    /**
+     * The sum of the real ages of all live cells.
+     */
+    private long ageSum;
+
+    /**
+     * The real age of the oldest live cell.
+     */
+    private int maxAge;
+
+    /**
+     * True if an edit removed or lowered the oldest cell, so maxAge needs a
+     * rescan.
+     */
+    private boolean maxAgeStale;
+
+    /**
+     * Constructs an engine with every cell dead.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    public CompactEngine(int rows, int cols) {
+        super(rows, cols, false);
+        this.rows = rows;
+        this.cols = cols;
+        this.age = new short[rows * cols];
+    }
+
+    @Override
+    public boolean isTrackingAges() {
+        return true;
+    }
+
+    @Override
+    public int getAge(int row, int col) {
+        return isAlive(row, col) ? realAge(row * cols + col) : 0;
+    }
+
+    @Override
+    public void setAlive(int row, int col) {
+        if (!isAlive(row, col)) {
+            super.setAlive(row, col);
+            age[row * cols + col] = 1;
+            population++;
+            ageSum++;
+            maxAge = Math.max(maxAge, 1);
+        }
+    }
+
+    @Override
+    public void setDead(int row, int col) {
+        if (!isAlive(row, col)) {
+            return;
+        }
+        int index = row * cols + col;
+        int old = realAge(index);
+        super.setDead(row, col);
+        store(index, 0);
+        population--;
+        ageSum -= old;
+        if (old == maxAge) {
+            maxAgeStale = true;
+        }
+    }
+
+    /**
+     * Sets a run of cells alive one cell at a time, since each one needs
+     * its age set as well.
+     *
+     * @param row the row of the run
+     * @param col the column of the first cell
+     * @param length the number of cells
+     */
+    @Override
+    public void setAliveRun(int row, int col, int length) {
+        for (int j = Math.max(0, col), end = Math.min(cols, col + length); j < end; j++) {
+            setAlive(row, j);
+        }
+    }
+
+    /**
+     * Restores a row by visiting its set bits.
+     *
+     * @param row the row, which must be all dead
+     * @param bits the cells to set
+     * @param ages the ages of the set cells in column order
+     */
+    @Override
+    public void restoreRow(int row, long[] bits, int[] ages) {
+        int k = 0;
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                int col = (w << 6) + Long.numberOfTrailingZeros(word);
+                setAlive(row, col);
+                setAge(row, col, ages[k++]);
+            }
+        }
+    }
+
+    @Override
+    public void setAge(int row, int col, int newAge) {
+        if (newAge < 1 || !isAlive(row, col)) {
+            return;
+        }
+        int index = row * cols + col;
+        int old = realAge(index);
+        store(index, newAge);
+        ageSum += newAge - old;
+        if (newAge >= maxAge) {
+            maxAge = newAge;
+        } else if (old == maxAge) {
+            maxAgeStale = true;
+        }
+    }
+
+    @Override
+    public void copyAges(int row, int[] ages, int offset) {
+        int base = row * cols;
+        for (int j = 0; j < cols; j++) {
+            int a = age[base + j];
+            ages[offset + j] = a == SATURATED ? realAge(base + j) : a;
+        }
+    }
+
+    /**
+     * Adds to the ages in one pass over the short[]; cells that pass
+     * SATURATED move to the side table.
+     *
+     * @param minAge only cells with an age above this are changed
+     * @param delta the number of generations to add
+     */
+    @Override
+    public void addAge(int minAge, int delta) {
+        for (int i = 0; i < age.length; i++) {
+            if (age[i] != 0) {
+                int a = realAge(i);
+                if (a > minAge) {
+                    store(i, a + delta);
+                    ageSum += delta;
+                }
+            }
+        }
+        if (maxAge > minAge) {
+            maxAge += delta;
+        }
+    }
+
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    @Override
+    public long getAgeSum() {
+        return ageSum;
+    }
+
+    @Override
+    public int getMaxAge() {
+        if (maxAgeStale) {
+            // only after an edit removed or lowered the oldest cell
+            int max = 0;
+            for (int i = 0; i < age.length; i++) {
+                if (age[i] != 0) {
+                    max = Math.max(max, realAge(i));
+                }
+            }
+            maxAge = max;
+            maxAgeStale = false;
+        }
+        return maxAge;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(age, (short) 0);
+        overflow.clear();
+        population = 0;
+        ageSum = 0;
+        maxAge = 0;
+        maxAgeStale = false;
+    }
+
+    /**
+     * Advances the grid by ONE generation. The bits are computed by
+     * BitboardEngine; the ages are then updated by visiting only the bits
+     * set in the old or new generation, so the short[] is only touched
+     * where there is life.
+     */
+    @Override
+    public void step() {
+        long[][] before = currentRows();
+        long[][] after = nextRows();
+        stepRows(0, rows);
+        int newTick = tick + 1;
+        long newPopulation = 0;
+        long newAgeSum = 0;
+        int newMaxAge = 0;
+        for (int r = 0; r < rows; r++) {
+            long[] b = before[r];
+            long[] a = after[r];
+            int base = r * cols;
+            for (int w = 0; w < b.length; w++) {
+                for (long live = b[w] | a[w]; live != 0; live &= live - 1) {
+                    int bit = Long.numberOfTrailingZeros(live);
+                    int index = base + (w << 6) + bit;
+                    if (((a[w] >>> bit) & 1L) == 0) {
+                        if (age[index] == SATURATED) {
+                            overflow.remove(index);
+                        }
+                        age[index] = 0;
+                        continue;
+                    }
+                    int n;
+                    int old = ((b[w] >>> bit) & 1L) == 0 ? 0 : age[index];
+                    if (old == SATURATED) {
+                        n = newTick - overflow.get(index) + 1;
+                    } else {
+                        n = old + 1;
+                        if (n == SATURATED) {
+                            overflow.put(index, newTick - n + 1);
+                        }
+                        age[index] = (short) n;
+                    }
+                    newPopulation++;
+                    newAgeSum += n;
+                    newMaxAge = Math.max(newMaxAge, n);
+                }
+            }
+        }
+        swapBuffers();
+        totalRowStatistics();
+        tick = newTick;
+        population = newPopulation;
+        ageSum = newAgeSum;
+        maxAge = newMaxAge;
+        maxAgeStale = false;
+    }
+
+    /**
+     * Builds a grid of Cells that read and write this engine, for
+     * Simulation.getGrid(). The views hold no state, so the grid never has
+     * to be refreshed after a step.
+     *
+     * @return rows of CellViews
+     */
+    public DynamicArray<DynamicArray<Cell>> cellViews() {
+        return CellView.gridOf(this);
+    }
+
+    /**
+     * Helper that reads the real age of a live cell.
+     *
+     * @param index the row-major index of the cell
+     * @return the age, looked up in the side table if it is saturated
+     */
+    private int realAge(int index) {
+        int a = age[index];
+        return a == SATURATED ? tick - overflow.get(index) + 1 : a;
+    }
+
+    /**
+     * Helper that stores an age, moving the cell into or out of the side
+     * table as needed.
+     *
+     * @param index the row-major index of the cell
+     * @param newAge the new age, 0 for a dead cell
+     */
+    private void store(int index, int newAge) {
+        if (newAge >= SATURATED) {
+            age[index] = SATURATED;
+            overflow.put(index, tick - newAge + 1);
+            return;
+        }
+        if (age[index] == SATURATED) {
+            overflow.remove(index);
+        }
+        age[index] = (short) newAge;
+    }
+
+    /**
+     * An open-addressing map from cell index to birth generation, with
+     * linear probing and backward-shift deletion, so nothing is boxed.
+     */
+    private static final class Overflow {
+
+        /**
+         * Cell index + 1 per slot, 0 for an empty slot.
+         */
+        private int[] keys = new int[16];
+
+        /**
+         * Birth generation per slot.
+         */
+        private int[] values = new int[16];
+
+        /**
+         * The number of entries.
+         */
+        private int size;
+
+        /**
+         * Gets the birth generation of a cell, which must be in the table.
+         *
+         * @param index the cell index
+         * @return the birth generation
+         */
+        int get(int index) {
+            return values[find(index + 1)];
+        }
+
+        /**
+         * Adds or replaces the birth generation of a cell.
+         *
+         * @param index the cell index
+         * @param born the birth generation
+         */
+        void put(int index, int born) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            int slot = find(index + 1);
+            if (keys[slot] == 0) {
+                keys[slot] = index + 1;
+                size++;
+            }
+            values[slot] = born;
+        }
+
+        /**
+         * Removes a cell if it is in the table. The entries after it in the
+         * probe sequence are moved back, so lookups never need tombstones.
+         *
+         * @param index the cell index
+         */
+        void remove(int index) {
+            int slot = find(index + 1);
+            if (keys[slot] == 0) {
+                return;
+            }
+            int mask = keys.length - 1;
+            int hole = slot;
+            for (int s = (hole + 1) & mask; keys[s] != 0; s = (s + 1) & mask) {
+                int home = hash(keys[s]) & mask;
+                // move the entry back if the hole lies on its probe path
+                if (((s - home) & mask) >= ((s - hole) & mask)) {
+                    keys[hole] = keys[s];
+                    values[hole] = values[s];
+                    hole = s;
+                }
+            }
+            keys[hole] = 0;
+            size--;
+        }
+
+        /**
+         * Removes every entry.
+         */
+        void clear() {
+            Arrays.fill(keys, 0);
+            size = 0;
+        }
+
+        /**
+         * Helper that finds the slot of a key, or the empty slot it would go in.
+         *
+         * @param key the cell index + 1
+         * @return the slot
+         */
+        private int find(int key) {
+            int mask = keys.length - 1;
+            int s = hash(key) & mask;
+            while (keys[s] != 0 && keys[s] != key) {
+                s = (s + 1) & mask;
+            }
+            return s;
+        }
+
+        /**
+         * Helper that moves every entry into tables of the given size.
+         *
+         * @param capacity the new number of slots, a power of two
+         */
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = new int[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int s = find(oldKeys[i]);
+                    keys[s] = oldKeys[i];
+                    values[s] = oldValues[i];
+                }
+            }
+        }
+
+        /**
+         * Helper that spreads the bits of a key.
+         *
+         * @param key the key
+         * @return the hash
+         */
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
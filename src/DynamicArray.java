@@ -1,5 +1,7 @@
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 /**
  * A dynamic array implementation that can grow and shrink as needed.
@@ -96,15 +98,10 @@ public class DynamicArray<T> implements Iterable<T> {
      * @param value the value to add
      * @return true (as specified by Collection.add)
      */
-    @SuppressWarnings("unchecked")
     public boolean add(T value) {
         if (currentSize >= storage.length) {
             // Double the capacity
-            T[] newStorage = (T[]) new Object[storage.length * 2];
-            for (int i = 0; i < currentSize; i++) {
-                newStorage[i] = storage[i];
-            }
-            storage = newStorage;
+            resize(storage.length * 2);
         }
         storage[currentSize] = value;
         currentSize++;
@@ -119,7 +116,6 @@ public class DynamicArray<T> implements Iterable<T> {
      * @param value the value to insert
      * @throws IndexOutOfBoundsException if index is invalid for insertion
      */
-    @SuppressWarnings("unchecked")
     public void add(int index, T value) {
         if (index < 0 || index > currentSize) {
             throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
@@ -127,17 +123,11 @@ public class DynamicArray<T> implements Iterable<T> {
 
         if (currentSize >= storage.length) {
             // Double the capacity
-            T[] newStorage = (T[]) new Object[storage.length * 2];
-            for (int i = 0; i < currentSize; i++) {
-                newStorage[i] = storage[i];
-            }
-            storage = newStorage;
+            resize(storage.length * 2);
         }
 
         // Shift elements to the right
-        for (int i = currentSize; i > index; i--) {
-            storage[i] = storage[i - 1];
-        }
+        System.arraycopy(storage, index, storage, index + 1, currentSize - index);
 
         storage[index] = value;
         currentSize++;
@@ -152,7 +142,6 @@ public class DynamicArray<T> implements Iterable<T> {
      * @return the element that was removed
      * @throws IndexOutOfBoundsException if index is invalid
      */
-    @SuppressWarnings("unchecked")
     public T remove(int index) {
         if (index < 0 || index >= currentSize) {
             throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
@@ -161,25 +150,122 @@ public class DynamicArray<T> implements Iterable<T> {
         T removedElement = storage[index];
 
         // Shift elements to the left
-        for (int i = index; i < currentSize - 1; i++) {
-            storage[i] = storage[i + 1];
-        }
+        System.arraycopy(storage, index + 1, storage, index, currentSize - index - 1);
 
         currentSize--;
         storage[currentSize] = null; // Help GC
 
         // Shrink if needed (below 1/3 capacity)
-        if (storage.length > INITCAP && currentSize < storage.length / 3) {
-            T[] newStorage = (T[]) new Object[storage.length / 2];
-            for (int i = 0; i < currentSize; i++) {
-                newStorage[i] = storage[i];
-            }
-            storage = newStorage;
-        }
+        shrink();
 
         return removedElement;
     }
 
+    /**
+     * Grows the capacity to at least minCapacity in one step, so a known
+     * number of adds does not go through the doublings one by one.
+     * Does nothing if the capacity is already large enough.
+     *
+     * @param minCapacity the number of elements that must fit
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > storage.length) {
+            resize(Math.max(minCapacity, storage.length * 2));
+        }
+    }
+
+    /**
+     * Appends every element of another dynamic array in one copy.
+     *
+     * @param other the elements to append (may be this array)
+     * @return true if anything was added
+     */
+    public boolean addAll(DynamicArray<? extends T> other) {
+        int count = other.currentSize;
+        ensureCapacity(currentSize + count);
+        System.arraycopy(other.storage, 0, storage, currentSize, count);
+        currentSize += count;
+        return count > 0;
+    }
+
+    /**
+     * Appends n elements made by the supplier, growing at most once.
+     * For example fill(cols, () -&gt; new Cell(false)) builds a row of dead
+     * cells.
+     *
+     * @param n the number of elements to append
+     * @param supplier called once per new element, in order
+     * @throws IllegalArgumentException if n is negative
+     */
+    public void fill(int n, Supplier<? extends T> supplier) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Count cannot be negative.");
+        }
+        ensureCapacity(currentSize + n);
+        for (int i = 0; i < n; i++) {
+            storage[currentSize++] = supplier.get();
+        }
+    }
+
+    /**
+     * Removes the elements from index from up to (not including) to in one
+     * shift. The capacity then shrinks as remove() would have left it, but
+     * with a single reallocation.
+     *
+     * @param from the index of the first element to remove
+     * @param to the index after the last element to remove
+     * @throws IndexOutOfBoundsException if the range is invalid
+     */
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > currentSize || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + ".." + to + " out of bounds!");
+        }
+        System.arraycopy(storage, to, storage, from, currentSize - to);
+        int newSize = currentSize - (to - from);
+        Arrays.fill(storage, newSize, currentSize, null); // Help GC
+        currentSize = newSize;
+        shrink();
+    }
+
+    /**
+     * Shrinks the capacity to the number of elements (at least 1), for an
+     * array that will not grow again.
+     */
+    public void trimToSize() {
+        if (storage.length > Math.max(currentSize, 1)) {
+            resize(Math.max(currentSize, 1));
+        }
+    }
+
+    /**
+     * Helper that halves the capacity while fewer than 1/3 of it is used.
+     * The result is between 1/3 and 2/3 full, so the array has to gain or
+     * lose a third of its capacity before it reallocates again: a remove
+     * right after a shrink, or an add right after a doubling, never
+     * resizes back. A range removal shrinks straight to the final size.
+     */
+    private void shrink() {
+        int capacity = storage.length;
+        while (capacity > INITCAP && currentSize * 3 < capacity) {
+            capacity /= 2;
+        }
+        if (capacity != storage.length) {
+            resize(capacity);
+        }
+    }
+
+    /**
+     * Helper that moves the elements into new storage of the given capacity.
+     *
+     * @param newCapacity the new capacity, at least size()
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int newCapacity) {
+        T[] newStorage = (T[]) new Object[newCapacity];
+        System.arraycopy(storage, 0, newStorage, 0, currentSize);
+        storage = newStorage;
+    }
+
     /**
      * Returns an iterator over the elements in this dynamic array.
      * 
@@ -247,6 +333,18 @@ public class DynamicArray<T> implements Iterable<T> {
             System.out.println("Yay 4");
         }
 
+        // bulk operations: one allocation each, and a mass removal shrinks once
+        DynamicArray<Integer> big = new DynamicArray<>();
+        big.fill(100, () -> 7);
+        int grown = big.capacity();
+        big.addAll(ida);
+        big.removeRange(0, 95);
+        boolean shrunk = big.size() == 7 && big.capacity() == 12 && big.get(5) == 5;
+        big.trimToSize();
+        if (grown == 100 && shrunk && big.capacity() == 7 && big.get(6) == 10) {
+            System.out.println("Yay 5");
+        }
+
         System.out.print("Printing values: ");
         for (Integer i : ida) {
             System.out.print(i);
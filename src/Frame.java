@@ -0,0 +1,178 @@
+/**
+ * An immutable picture of one generation, published by a SimulationRunner
+ * for the GUI to draw.
+ * A frame owns a private copy of the cell ages, so the simulation thread
+ * can keep evolving while the event dispatch thread paints it. When the
+ * simulation has more than two states (dying or trail states, see
+ * GenerationsEngine) the frame copies the cell states as well.
+ *
+ * @author Your Name Here
+ */
+public final class Frame {
+
+    /**
+     * The number of rows in the frame.
+     */
+    private final int rows;
+
+    /**
+     * The number of columns in the frame.
+     */
+    private final int cols;
+
+    /**
+     * Cell ages in row-major order, 0 for dead cells. Never changed after
+     * construction.
+     */
+    private final int[] ages;
+
+    /**
+     * Cell states in row-major order, or null if every cell is dead or
+     * alive, which the ages already tell. Never changed after construction.
+     */
+    private final byte[] states;
+
+    /**
+     * The number of states a cell can be in.
+     */
+    private final int stateCount;
+
+    /**
+     * The statistics of the generation.
+     */
+    private final FrameStats stats;
+
+    /**
+     * Constructs a frame of a two-state simulation. The ages array is kept,
+     * not copied, so the caller must not change it afterwards.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param ages the cell ages in row-major order, 0 for dead cells
+     * @param stats the statistics of the generation
+     * @throws IllegalArgumentException if ages does not hold rows * cols cells
+     */
+    public Frame(int rows, int cols, int[] ages, FrameStats stats) {
+        this(rows, cols, ages, null, 2, stats);
+    }
+
+    /**
+     * Constructs a frame. The arrays are kept, not copied, so the caller
+     * must not change them afterwards.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param ages the cell ages in row-major order, 0 for dead cells
+     * @param states the cell states in row-major order, or null for a
+     *               two-state simulation
+     * @param stateCount the number of states a cell can be in
+     * @param stats the statistics of the generation
+     * @throws IllegalArgumentException if ages or states does not hold
+     *         rows * cols cells
+     */
+    public Frame(int rows, int cols, int[] ages, byte[] states, int stateCount, FrameStats stats) {
+        if (ages.length != rows * cols || (states != null && states.length != rows * cols)) {
+            throw new IllegalArgumentException("Expected " + rows * cols
+                    + " cells but got " + ages.length);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.ages = ages;
+        this.states = states;
+        this.stateCount = states != null ? stateCount : 2;
+        this.stats = stats;
+    }
+
+    /**
+     * Takes a frame of the current generation of a simulation. Must be
+     * called on the thread that owns the simulation.
+     *
+     * @param sim the simulation to read
+     * @return the frame
+     */
+    public static Frame of(Simulation sim) {
+        int rows = sim.getRows();
+        int cols = sim.getCols();
+        int[] ages = new int[rows * cols];
+        sim.copyAges(ages);
+        byte[] states = null;
+        if (sim.getStates() > 2) {
+            states = new byte[rows * cols];
+            sim.copyStates(states);
+        }
+        return new Frame(rows, cols, ages, states, sim.getStates(), FrameStats.of(sim));
+    }
+
+    /**
+     * Gets the number of rows in the frame.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns in the frame.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Checks if the cell at row/col is alive.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return true if the cell is alive
+     */
+    public boolean isAlive(int row, int col) {
+        return ages[row * cols + col] > 0;
+    }
+
+    /**
+     * Gets the age of the cell at row/col, 0 if it is dead.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the age of the cell
+     */
+    public int getAge(int row, int col) {
+        return ages[row * cols + col];
+    }
+
+    /**
+     * Gets the state of the cell at row/col, see LifeEngine.getState().
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the state, 0 to getStates() - 1
+     */
+    public int getState(int row, int col) {
+        int cell = row * cols + col;
+        if (states == null) {
+            return ages[cell] > 0 ? 1 : 0;
+        }
+        return states[cell] & 0xFF;
+    }
+
+    /**
+     * Gets the number of states a cell can be in.
+     *
+     * @return 2 unless the simulation has dying or trail states
+     */
+    public int getStates() {
+        return stateCount;
+    }
+
+    /**
+     * Gets the statistics of the generation.
+     *
+     * @return the statistics
+     */
+    public FrameStats getStats() {
+        return stats;
+    }
+}
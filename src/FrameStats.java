@@ -0,0 +1,109 @@
+/**
+ * An immutable snapshot of the simulation statistics for one generation.
+ * The GUI takes one snapshot after each change and hands it to everything
+ * that draws or displays the frame, instead of asking the Simulation again
+ * for every cell.
+ *
+ * @author Your Name Here
+ */
+public final class FrameStats {
+
+    /**
+     * The generation the snapshot was taken at.
+     */
+    private final int generation;
+
+    /**
+     * The number of live cells.
+     */
+    private final int population;
+
+    /**
+     * The average age of the live cells.
+     */
+    private final double averageAge;
+
+    /**
+     * The age of the oldest live cell.
+     */
+    private final int maxAge;
+
+    /**
+     * The period of the cycle the simulation is in, 0 if none.
+     */
+    private final int period;
+
+    /**
+     * Constructs a snapshot from already computed values.
+     *
+     * @param generation the generation number
+     * @param population the number of live cells
+     * @param averageAge the average age of the live cells
+     * @param maxAge the age of the oldest live cell
+     * @param period the period of the detected cycle, 0 if none
+     */
+    public FrameStats(int generation, int population, double averageAge, int maxAge, int period) {
+        this.generation = generation;
+        this.population = population;
+        this.averageAge = averageAge;
+        this.maxAge = maxAge;
+        this.period = period;
+    }
+
+    /**
+     * Takes a snapshot of a simulation. The statistics getters are O(1), so
+     * this is cheap.
+     *
+     * @param sim the simulation to read
+     * @return the snapshot
+     */
+    public static FrameStats of(Simulation sim) {
+        return new FrameStats(sim.getGenerations(), sim.getAliveCells(),
+                sim.getAverageAge(), sim.getMaxAge(), sim.getPeriod());
+    }
+
+    /**
+     * Gets the generation the snapshot was taken at.
+     *
+     * @return the generation number
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the number of live cells.
+     *
+     * @return the population
+     */
+    public int getPopulation() {
+        return population;
+    }
+
+    /**
+     * Gets the average age of the live cells.
+     *
+     * @return the average age, 0 if there are none
+     */
+    public double getAverageAge() {
+        return averageAge;
+    }
+
+    /**
+     * Gets the age of the oldest live cell.
+     *
+     * @return the maximum age, 0 if there are none
+     */
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Gets the period of the cycle the simulation had settled into.
+     *
+     * @return 1 for a still life, 2 or more for an oscillator, 0 if none
+     */
+    public int getPeriod() {
+        return period;
+    }
+}
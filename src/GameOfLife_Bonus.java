@@ -3,11 +3,10 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.HashMap;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 
 /**
  * The GameOfLife_Bonus class is the main GUI application for Conway's Game of Life.
@@ -15,19 +14,28 @@ import java.io.IOException;
  * rendering the grid based on the state of the Simulation.
  *
  * BONUS FEATURE: Cells are colored based on their age - newer cells are brighter,
- * older cells are darker, and recently dead cells fade out over time.
+ * older cells are darker, and recently dead cells fade out over time. The
+ * grid runs on a GenerationsEngine with a trail, so the fade is simply the
+ * state of the cell, and Generations rules loaded from RLE show their dying
+ * cells too.
  */
 public class GameOfLife_Bonus extends JFrame {
 
     /**
-     * The Simulation instance that handles the grid logic and evolution rules.
+     * Runs the Simulation (grid logic and evolution rules) on its own thread
+     * and hands back frames to draw.
      */
-    private Simulation simulation;
+    private SimulationRunner runner;
 
     /**
-     * A Timer object to control the periodic evolution of the simulation.
+     * The frame currently on screen, taken from the runner on the EDT.
      */
-    private Timer timer;
+    private Frame frame;
+
+    /**
+     * Keeps the rendered grid as an image and redraws only changed cells.
+     */
+    private final GridRenderer renderer = new GridRenderer();
 
     /**
      * The main JPanel that serves as the container for all UI components.
@@ -124,6 +132,16 @@ public class GameOfLife_Bonus extends JFrame {
      */
     private JButton size175Button;
 
+    /**
+     * A check box to make the grid wrap around at its edges (torus).
+     */
+    private JCheckBox wrapEdgesBox;
+
+    /**
+     * A check box to pause the simulation once the grid stops changing.
+     */
+    private JCheckBox stopWhenStaticBox;
+
     /**
      * The size of each cell in pixels, used for rendering the grid.
      */
@@ -139,11 +157,6 @@ public class GameOfLife_Bonus extends JFrame {
      */
     private int gridCols;
 
-    /**
-     * BONUS FEATURE: HashMap to track recently dead cells for fade effect.
-     */
-    private HashMap<String, Integer> deadCellFadeMap;
-
     /**
      * Constructs the GameOfLife_Bonus application, initializing the GUI and linking
      * to the Simulation logic.
@@ -154,25 +167,20 @@ public class GameOfLife_Bonus extends JFrame {
         mainPanel = new JPanel(new BorderLayout());
         mainPanel.setBorder(BorderFactory.createLineBorder(Color.BLACK, 7));
 
-        // Initialize bonus feature
-        deadCellFadeMap = new HashMap<>();
-
         initializeTitle();
         initializeControls();
         initializeStatsPanel();
         initializeGridPanel();
         combinePanels();
-        initializeTimer();
+
+        // default grid size is 50x50
+        initializeRunner(newSimulation(50));
 
         // Add the main panel to the frame
         add(mainPanel);
         pack();
         setVisible(true);
-        gridPanel.repaint();
-
-        // default grid size is 50x50
-        this.simulation = new Simulation(50, 50);
-        updateStatistics();
+        showLatestFrame();
     }
 
     /**
@@ -201,9 +209,11 @@ public class GameOfLife_Bonus extends JFrame {
         size50Button = new JButton("50x50");
         size100Button = new JButton("100x100");
         size175Button = new JButton("175x175");
+        wrapEdgesBox = new JCheckBox("Wrap Edges");
+        stopWhenStaticBox = new JCheckBox("Stop When Static", false);
 
-        startButton.addActionListener(e -> timer.start());
-        pauseButton.addActionListener(e -> timer.stop());
+        startButton.addActionListener(e -> runner.start());
+        pauseButton.addActionListener(e -> runner.pause());
         resetButton.addActionListener(e -> resetGrid());
         stepButton.addActionListener(e -> stepGeneration());
         loadRleButton.addActionListener(e -> loadRleFile());
@@ -211,6 +221,11 @@ public class GameOfLife_Bonus extends JFrame {
         size50Button.addActionListener(e -> setGridAndCellSize(50, 10));
         size100Button.addActionListener(e -> setGridAndCellSize(100, 5));
         size175Button.addActionListener(e -> setGridAndCellSize(175, 3));
+        stopWhenStaticBox.addActionListener(e -> runner.setAutoIdle(stopWhenStaticBox.isSelected()));
+        wrapEdgesBox.addActionListener(e -> {
+            Topology topology = selectedTopology();
+            runner.edit(sim -> sim.setTopology(topology));
+        });
 
         speedSlider = new JSlider(JSlider.HORIZONTAL, 10, 600, 30);
         speedSlider.setPreferredSize(new Dimension(50, 40));
@@ -218,7 +233,7 @@ public class GameOfLife_Bonus extends JFrame {
         speedSlider.setMinorTickSpacing(50);
         speedSlider.setPaintTicks(true);
         speedSlider.setToolTipText("Adjust Simulation Speed");
-        speedSlider.addChangeListener(e -> timer.setDelay(speedSlider.getValue()));
+        speedSlider.addChangeListener(e -> runner.setDelay(speedSlider.getValue()));
 
         controlPanel.add(startButton);
         controlPanel.add(Box.createVerticalStrut(10));
@@ -240,6 +255,10 @@ public class GameOfLife_Bonus extends JFrame {
         controlPanel.add(Box.createVerticalStrut(10));
         controlPanel.add(size175Button);
         controlPanel.add(Box.createVerticalStrut(10));
+        controlPanel.add(wrapEdgesBox);
+        controlPanel.add(Box.createVerticalStrut(10));
+        controlPanel.add(stopWhenStaticBox);
+        controlPanel.add(Box.createVerticalStrut(10));
         controlPanel.add(new JLabel("Speed (Fast <-> Slow):"));
         controlPanel.add(Box.createVerticalStrut(10));
         controlPanel.add(speedSlider);
@@ -249,7 +268,8 @@ public class GameOfLife_Bonus extends JFrame {
         JLabel colorLegend = new JLabel("<html><b>Color Legend:</b><br/>" +
                 "Bright Green = Young cells<br/>" +
                 "Dark Green = Old cells<br/>" +
-                "Gray = Recently dead cells</html>");
+                "Gray = Recently dead cells<br/>" +
+                "Orange = Dying cells (Generations rules)</html>");
         colorLegend.setFont(new Font("Arial", Font.PLAIN, 10));
         controlPanel.add(colorLegend);
     }
@@ -299,8 +319,7 @@ public class GameOfLife_Bonus extends JFrame {
             public void mousePressed(MouseEvent evt) {
                 int col = evt.getX() / cellSize;
                 int row = evt.getY() / cellSize;
-                simulation.toggleCell(row, col);
-                gridPanel.repaint();
+                runner.edit(sim -> sim.toggleCell(row, col));
             }
         });
 
@@ -308,8 +327,7 @@ public class GameOfLife_Bonus extends JFrame {
             public void mouseDragged(MouseEvent evt) {
                 int col = evt.getX() / cellSize;
                 int row = evt.getY() / cellSize;
-                simulation.toggleCell(row, col);
-                gridPanel.repaint();
+                runner.edit(sim -> sim.toggleCell(row, col));
             }
         });
 
@@ -317,125 +335,113 @@ public class GameOfLife_Bonus extends JFrame {
     }
 
     /**
-     * Initializes the timer for automatic evolution of the simulation.
+     * Initializes the runner for automatic evolution of the simulation.
+     * Each published frame is shown on the EDT; the runner does not publish
+     * another one until this has taken it. If the simulation fails, the
+     * runner pauses and the error is shown on the EDT as well.
+     *
+     * @param simulation the simulation to run
+     */
+    private void initializeRunner(Simulation simulation) {
+        runner = new SimulationRunner(simulation, 100,
+                () -> SwingUtilities.invokeLater(this::showLatestFrame),
+                e -> SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                        "The simulation was paused: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)));
+        runner.setAutoIdle(stopWhenStaticBox.isSelected());
+    }
+
+    /**
+     * BONUS FEATURE: Creates a simulation whose dead cells keep fading for
+     * AgePalette.FADE_STEPS generations, as trail states of the engine.
+     *
+     * @param size the number of rows and columns
+     * @return the simulation
      */
-    private void initializeTimer() {
-        timer = new Timer(100, e -> {
-            simulation.evolve();
-            updateDeadCellFadeMap(); // BONUS: Update fade map
-            updateStatistics();
-            gridPanel.repaint();
-        });
+    private static Simulation newSimulation(int size) {
+        GenerationsEngine engine = new GenerationsEngine(size, size);
+        engine.setTrail(AgePalette.FADE_STEPS);
+        return new Simulation(engine);
     }
 
     /**
-     * BONUS FEATURE: Updates the fade map for recently dead cells.
+     * Takes the latest frame from the runner, updates the labels and repaints.
      */
-    private void updateDeadCellFadeMap() {
-        // Decrease fade values for existing dead cells
-        deadCellFadeMap.entrySet().removeIf(entry -> {
-            entry.setValue(entry.getValue() - 1);
-            return entry.getValue() <= 0;
-        });
+    private void showLatestFrame() {
+        frame = runner.takeFrame();
+        updateStatistics();
+        Rectangle dirty = renderer.update(frame, cellSize, this::getCellColor);
+        if (dirty != null) {
+            gridPanel.repaint(dirty);
+        }
     }
 
     /**
      * BONUS FEATURE: Gets color based on cell age and state.
+     * Colors come from the precomputed AgePalette, relative to the oldest
+     * cell of the frame snapshot. The states above 1 are the dying states
+     * of the rule, if any, followed by the FADE_STEPS trail states, so the
+     * fade left is the distance from the last state.
      *
-     * @param cell the cell to get color for
+     * @param frame the frame being drawn
      * @param row the row of the cell
      * @param col the column of the cell
-     * @return the color to use for this cell
+     * @return the color to use for this cell as an RGB int
      */
-    private Color getCellColor(Cell cell, int row, int col) {
-        if (cell.isAlive()) {
-            int age = cell.getAge();
-            int maxAge = Math.max(1, simulation.getMaxAge());
-
+    private int getCellColor(Frame frame, int row, int col) {
+        int state = frame.getState(row, col);
+        if (state == 1) {
             // Color based on age - newer cells are brighter green, older cells are darker
-            float ageRatio = (float) age / maxAge;
-            int green = (int) (255 * (1.0f - ageRatio * 0.7f)); // From bright to dark green
-            int red = (int) (100 * ageRatio); // Add some red for very old cells
-
-            return new Color(red, green, 0);
-        } else {
-            // Check if this cell was recently alive (fade effect)
-            String cellKey = row + "," + col;
-            Integer fadeValue = deadCellFadeMap.get(cellKey);
-            if (fadeValue != null && fadeValue > 0) {
-                int grayLevel = fadeValue * 30; // Fade from gray to white
-                return new Color(grayLevel, grayLevel, grayLevel);
+            int age = frame.getAge(row, col);
+            return AgePalette.live(age, frame.getStats().getMaxAge()).getRGB();
+        } else if (state > 1) {
+            int fadeValue = frame.getStates() - state;
+            if (fadeValue <= AgePalette.FADE_STEPS) {
+                // recently dead (fade effect)
+                return AgePalette.dead(fadeValue).getRGB();
             }
-            return Color.WHITE; // Default dead cell color
+            // still dying under a Generations rule
+            int dyingStates = frame.getStates() - AgePalette.FADE_STEPS - 2;
+            return AgePalette.dying(state - 2, dyingStates).getRGB();
         }
+        return Color.WHITE.getRGB(); // Default dead cell color
     }
 
     /**
      * Draws the grid and cells on the grid panel.
-     * BONUS: Uses age-based coloring for cells.
+     * BONUS: Uses age-based coloring for cells, rendered into an image by
+     * the renderer, so this only copies the part inside the clip.
      *
      * @param g the Graphics object used for rendering
      */
     private void drawGrid(Graphics g) {
-        DynamicArray<DynamicArray<Cell>> grid = simulation.getGrid();
-
-        // Track cells that just died for fade effect
-        for (int row = 0; row < simulation.getRows(); row++) {
-            for (int col = 0; col < simulation.getCols(); col++) {
-                Cell cell = grid.get(row).get(col);
-                String cellKey = row + "," + col;
-
-                if (!cell.isAlive() && cell.getAge() > 0) {
-                    // Cell just died, add to fade map
-                    if (!deadCellFadeMap.containsKey(cellKey)) {
-                        deadCellFadeMap.put(cellKey, 5); // Fade for 5 generations
-                    }
-                } else if (cell.isAlive()) {
-                    // Remove from fade map if cell is alive
-                    deadCellFadeMap.remove(cellKey);
-                }
-
-                // Set cell color based on state and age
-                Color cellColor = getCellColor(cell, row, col);
-                g.setColor(cellColor);
-                g.fillRect(col * cellSize, row * cellSize, cellSize, cellSize);
-
-                // Draw grid lines
-                g.setColor(Color.LIGHT_GRAY);
-                g.drawRect(col * cellSize, row * cellSize, cellSize, cellSize);
-            }
-        }
+        renderer.paint(g);
     }
 
     /**
      * Resets the simulation grid to its initial state.
      */
     private void resetGrid() {
-        timer.stop();
-        simulation.reset();
-        deadCellFadeMap.clear(); // BONUS: Clear fade map
-        updateStatistics();
-        gridPanel.repaint();
+        runner.pause();
+        runner.edit(Simulation::reset); // BONUS: clears the fade trail too
     }
 
     /**
      * Advances the simulation by one generation.
      */
     private void stepGeneration() {
-        simulation.evolve();
-        updateDeadCellFadeMap(); // BONUS: Update fade map
-        updateStatistics();
-        gridPanel.repaint();
+        runner.step();
     }
 
     /**
-     * Fetches statistics from Simulation and updates the GUI.
+     * Fetches statistics from the current frame and updates the GUI.
      */
     private void updateStatistics() {
-        averageAgeLabel.setText(String.format("Average Age: %.2f", simulation.getAverageAge()));
-        aliveCellsLabel.setText("Alive Cells: " + simulation.getAliveCells());
-        maxAgeLabel.setText("Max Age: " + simulation.getMaxAge());
-        generationLabel.setText("Generations: " + simulation.getGenerations());
+        FrameStats stats = frame.getStats();
+        averageAgeLabel.setText(String.format("Average Age: %.2f", stats.getAverageAge()));
+        aliveCellsLabel.setText("Alive Cells: " + stats.getPopulation());
+        maxAgeLabel.setText("Max Age: " + stats.getMaxAge());
+        generationLabel.setText("Generations: " + stats.getGeneration()
+                + (stats.getPeriod() > 0 ? " (period " + stats.getPeriod() + ")" : ""));
     }
 
     /**
@@ -445,51 +451,51 @@ public class GameOfLife_Bonus extends JFrame {
      * @param newCellSize the new size of the cell in pixels
      */
     private void setGridAndCellSize(int newSize, int newCellSize) {
-        // Stop the simulation timer if running
-        timer.stop();
+        // Stop the simulation if running
+        runner.pause();
 
         // Create a new Simulation object with the new size
-        simulation = new Simulation(newSize, newSize);
+        Simulation simulation = newSimulation(newSize);
+        simulation.setTopology(selectedTopology());
+        runner.setSimulation(simulation);
         this.cellSize = newCellSize;
-        deadCellFadeMap.clear(); // BONUS: Clear fade map
 
-        // Adjust gridPanel dimensions
+        // the runner publishes a frame of the new grid, which repaints it
         gridPanel.repaint();
+    }
 
-        // Update gridRows and gridCols for consistency
-        simulation.setRows(newSize);
-        simulation.setCols(newSize);
-
-        // Reset statistics and repaint
-        updateStatistics();
-        gridPanel.repaint();
+    /**
+     * Gets the topology chosen with the wrap edges check box.
+     *
+     * @return TORUS if the box is checked, BOUNDED otherwise
+     */
+    private Topology selectedTopology() {
+        return wrapEdgesBox.isSelected() ? Topology.TORUS : Topology.BOUNDED;
     }
 
     /**
      * File handler triggered by Load RLE button.
-     * Passes array of lines to parseRLE in Simulation class.
+     * Streams the file into the Simulation with loadRle, or with
+     * loadMacrocell for .mc files.
      */
     private void loadRleFile() {
         JFileChooser fileChooser = new JFileChooser();
         int result = fileChooser.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
             File file = fileChooser.getSelectedFile();
-            try {
-                DynamicArray<String> lines = new DynamicArray<>();
-                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        if (!line.startsWith("#")) { // Ignore comments
-                            lines.add(line);
-                        }
+            // the file is streamed straight into the grid on the simulation thread
+            runner.edit(sim -> {
+                try (Reader reader = new FileReader(file)) {
+                    if (file.getName().endsWith(".mc")) {
+                        sim.loadMacrocell(reader);
+                    } else {
+                        sim.loadRle(reader);
                     }
+                } catch (IOException | IllegalArgumentException | UnsupportedOperationException e) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                            "Failed to load pattern file.", "Error", JOptionPane.ERROR_MESSAGE));
                 }
-                simulation.parseRle(lines);
-                deadCellFadeMap.clear(); // BONUS: Clear fade map when loading new pattern
-
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "Failed to load RLE file.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            });
         }
         gridPanel.repaint();
     }
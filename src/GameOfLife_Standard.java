@@ -4,10 +4,10 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.HashMap;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 
 /**
  * The GameOfLife_Standard class is the main GUI application for Conway's Game of Life.
@@ -17,14 +17,20 @@ import java.io.IOException;
 public class GameOfLife_Standard extends JFrame {
 
     /**
-     * The Simulation instance that handles the grid logic and evolution rules.
+     * Runs the Simulation (grid logic and evolution rules) on its own thread
+     * and hands back frames to draw.
      */
-    private Simulation simulation;
+    private SimulationRunner runner;
 
     /**
-     * A Timer object to control the periodic evolution of the simulation.
+     * The frame currently on screen, taken from the runner on the EDT.
      */
-    private Timer timer;
+    private Frame frame;
+
+    /**
+     * Keeps the rendered grid as an image and redraws only changed cells.
+     */
+    private final GridRenderer renderer = new GridRenderer();
 
     /**
      * The main JPanel that serves as the container for all UI components.
@@ -121,6 +127,16 @@ public class GameOfLife_Standard extends JFrame {
      */
     private JButton size175Button;
 
+    /**
+     * A check box to make the grid wrap around at its edges (torus).
+     */
+    private JCheckBox wrapEdgesBox;
+
+    /**
+     * A check box to pause the simulation once the grid stops changing.
+     */
+    private JCheckBox stopWhenStaticBox;
+
     /**
      * The size of each cell in pixels, used for rendering the grid.
      */
@@ -150,22 +166,20 @@ public class GameOfLife_Standard extends JFrame {
         initializeControls();
         initializeStatsPanel();
 
-        // Initialize simulation first, then grid panel
-        this.simulation = new Simulation(50, 50);
+        // Initialize grid size first, then grid panel and simulation
         this.gridRows = 50;
         this.gridCols = 50;
 
         initializeGridPanel();
         combinePanels();
-        initializeTimer();
+        initializeRunner(new Simulation(50, 50));
 
         // Add the main panel to the frame
         add(mainPanel);
         pack();
         setLocationRelativeTo(null); // Center the window
         setVisible(true);
-        updateStatistics();
-        gridPanel.repaint();
+        showLatestFrame();
     }
 
     /**
@@ -194,9 +208,11 @@ public class GameOfLife_Standard extends JFrame {
         size50Button = new JButton("50x50");
         size100Button = new JButton("100x100");
         size175Button = new JButton("175x175");
+        wrapEdgesBox = new JCheckBox("Wrap Edges");
+        stopWhenStaticBox = new JCheckBox("Stop When Static", false);
 
-        startButton.addActionListener(e -> timer.start());
-        pauseButton.addActionListener(e -> timer.stop());
+        startButton.addActionListener(e -> runner.start());
+        pauseButton.addActionListener(e -> runner.pause());
         resetButton.addActionListener(e -> resetGrid());
         stepButton.addActionListener(e -> stepGeneration());
         loadRleButton.addActionListener(e -> loadRleFile());
@@ -204,6 +220,11 @@ public class GameOfLife_Standard extends JFrame {
         size50Button.addActionListener(e -> setGridAndCellSize(50, 10));
         size100Button.addActionListener(e -> setGridAndCellSize(100, 5));
         size175Button.addActionListener(e -> setGridAndCellSize(175, 3));
+        stopWhenStaticBox.addActionListener(e -> runner.setAutoIdle(stopWhenStaticBox.isSelected()));
+        wrapEdgesBox.addActionListener(e -> {
+            Topology topology = selectedTopology();
+            runner.edit(sim -> sim.setTopology(topology));
+        });
 
         speedSlider = new JSlider(JSlider.HORIZONTAL, 10, 600, 100);
         speedSlider.setPreferredSize(new Dimension(50, 40));
@@ -211,7 +232,7 @@ public class GameOfLife_Standard extends JFrame {
         speedSlider.setMinorTickSpacing(50);
         speedSlider.setPaintTicks(true);
         speedSlider.setToolTipText("Adjust Simulation Speed");
-        speedSlider.addChangeListener(e -> timer.setDelay(speedSlider.getValue()));
+        speedSlider.addChangeListener(e -> runner.setDelay(speedSlider.getValue()));
 
         controlPanel.add(startButton);
         controlPanel.add(Box.createVerticalStrut(10));
@@ -233,6 +254,10 @@ public class GameOfLife_Standard extends JFrame {
         controlPanel.add(Box.createVerticalStrut(10));
         controlPanel.add(size175Button);
         controlPanel.add(Box.createVerticalStrut(10));
+        controlPanel.add(wrapEdgesBox);
+        controlPanel.add(Box.createVerticalStrut(10));
+        controlPanel.add(stopWhenStaticBox);
+        controlPanel.add(Box.createVerticalStrut(10));
         controlPanel.add(new JLabel("Speed (Fast <-> Slow):"));
         controlPanel.add(Box.createVerticalStrut(10));
         controlPanel.add(speedSlider);
@@ -289,9 +314,7 @@ public class GameOfLife_Standard extends JFrame {
                 int col = evt.getX() / cellSize;
                 int row = evt.getY() / cellSize;
                 if (row >= 0 && row < gridRows && col >= 0 && col < gridCols) {
-                    simulation.toggleCell(row, col);
-                    updateStatistics();
-                    gridPanel.repaint();
+                    runner.edit(sim -> sim.toggleCell(row, col));
                 }
             }
         });
@@ -301,9 +324,7 @@ public class GameOfLife_Standard extends JFrame {
                 int col = evt.getX() / cellSize;
                 int row = evt.getY() / cellSize;
                 if (row >= 0 && row < gridRows && col >= 0 && col < gridCols) {
-                    simulation.toggleCell(row, col);
-                    updateStatistics();
-                    gridPanel.repaint();
+                    runner.edit(sim -> sim.toggleCell(row, col));
                 }
             }
         });
@@ -312,77 +333,82 @@ public class GameOfLife_Standard extends JFrame {
     }
 
     /**
-     * Initializes the timer for automatic evolution of the simulation.
+     * Initializes the runner for automatic evolution of the simulation.
+     * Each published frame is shown on the EDT; the runner does not publish
+     * another one until this has taken it. If the simulation fails, the
+     * runner pauses and the error is shown on the EDT as well.
+     *
+     * @param simulation the simulation to run
+     */
+    private void initializeRunner(Simulation simulation) {
+        runner = new SimulationRunner(simulation, 100,
+                () -> SwingUtilities.invokeLater(this::showLatestFrame),
+                e -> SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                        "The simulation was paused: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)));
+        runner.setAutoIdle(stopWhenStaticBox.isSelected());
+    }
+
+    /**
+     * Takes the latest frame from the runner, updates the labels and repaints.
      */
-    private void initializeTimer() {
-        timer = new Timer(100, e -> {
-            simulation.evolve();
-            updateStatistics();
-            gridPanel.repaint();
-        });
+    private void showLatestFrame() {
+        frame = runner.takeFrame();
+        updateStatistics();
+        Rectangle dirty = renderer.update(frame, cellSize, this::getCellColor);
+        if (dirty != null) {
+            gridPanel.repaint(dirty);
+        }
+    }
+
+    /**
+     * Gets the color of a cell: black if alive, white if dead.
+     *
+     * @param frame the frame being drawn
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the color as an RGB int
+     */
+    private int getCellColor(Frame frame, int row, int col) {
+        return frame.isAlive(row, col) ? Color.BLACK.getRGB() : Color.WHITE.getRGB();
     }
 
     /**
-     * Draws the grid and cells on the grid panel.
+     * Draws the grid and cells on the grid panel. The cells were already
+     * rendered into an image by the renderer, so this only copies the part
+     * inside the clip.
      *
      * @param g the Graphics object used for rendering
      */
     private void drawGrid(Graphics g) {
-        if (simulation == null) return;
-
-        DynamicArray<DynamicArray<Cell>> grid = simulation.getGrid();
-
-        // Draw cells
-        for (int row = 0; row < simulation.getRows(); row++) {
-            for (int col = 0; col < simulation.getCols(); col++) {
-                Cell cell = grid.get(row).get(col);
-
-                int x = col * cellSize;
-                int y = row * cellSize;
-
-                if (cell.isAlive()) {
-                    g.setColor(Color.BLACK);
-                    g.fillRect(x, y, cellSize, cellSize);
-                } else {
-                    g.setColor(Color.WHITE);
-                    g.fillRect(x, y, cellSize, cellSize);
-                }
-
-                // Draw grid lines
-                g.setColor(Color.LIGHT_GRAY);
-                g.drawRect(x, y, cellSize, cellSize);
-            }
-        }
+        renderer.paint(g);
     }
 
     /**
      * Resets the simulation grid to its initial state.
      */
     private void resetGrid() {
-        timer.stop();
-        simulation.reset();
-        updateStatistics();
-        gridPanel.repaint();
+        runner.pause();
+        runner.edit(Simulation::reset);
     }
 
     /**
      * Advances the simulation by one generation.
      */
     private void stepGeneration() {
-        simulation.evolve();
-        updateStatistics();
-        gridPanel.repaint();
+        runner.step();
     }
 
     /**
-     * Fetches statistics from Simulation and updates the GUI.
+     * Fetches statistics from the current frame and updates the GUI.
      */
     private void updateStatistics() {
-        if (simulation != null) {
-            averageAgeLabel.setText(String.format("Average Age: %.2f", simulation.getAverageAge()));
-            aliveCellsLabel.setText("Alive Cells: " + simulation.getAliveCells());
-            maxAgeLabel.setText("Max Age: " + simulation.getMaxAge());
-            generationLabel.setText("Generations: " + simulation.getGenerations());
+        if (frame != null) {
+            FrameStats stats = frame.getStats();
+            averageAgeLabel.setText(String.format("Average Age: %.2f", stats.getAverageAge()));
+            aliveCellsLabel.setText("Alive Cells: " + stats.getPopulation());
+            maxAgeLabel.setText("Max Age: " + stats.getMaxAge());
+            generationLabel.setText("Generations: " + stats.getGeneration()
+                    + (stats.getPeriod() > 0 ? " (period " + stats.getPeriod() + ")" : ""));
         }
     }
 
@@ -393,11 +419,13 @@ public class GameOfLife_Standard extends JFrame {
      * @param newCellSize the new size of the cell in pixels
      */
     private void setGridAndCellSize(int newSize, int newCellSize) {
-        // Stop the simulation timer if running
-        timer.stop();
+        // Stop the simulation if running
+        runner.pause();
 
         // Create a new Simulation object with the new size
-        simulation = new Simulation(newSize, newSize);
+        Simulation simulation = new Simulation(newSize, newSize);
+        simulation.setTopology(selectedTopology());
+        runner.setSimulation(simulation);
         this.cellSize = newCellSize;
         this.gridRows = newSize;
         this.gridCols = newSize;
@@ -407,8 +435,7 @@ public class GameOfLife_Standard extends JFrame {
         int panelHeight = gridRows * cellSize;
         gridPanel.setPreferredSize(new Dimension(panelWidth, panelHeight));
 
-        // Reset statistics and repaint
-        updateStatistics();
+        // the runner publishes a frame of the new grid, which repaints it
         gridPanel.revalidate();
         gridPanel.repaint();
 
@@ -417,9 +444,19 @@ public class GameOfLife_Standard extends JFrame {
         setLocationRelativeTo(null); // Re-center the window
     }
 
+    /**
+     * Gets the topology chosen with the wrap edges check box.
+     *
+     * @return TORUS if the box is checked, BOUNDED otherwise
+     */
+    private Topology selectedTopology() {
+        return wrapEdgesBox.isSelected() ? Topology.TORUS : Topology.BOUNDED;
+    }
+
     /**
      * File handler triggered by Load RLE button.
-     * Passes array of lines to parseRLE in Simulation class.
+     * Streams the file into the Simulation with loadRle, or with
+     * loadMacrocell for .mc files.
      */
     private void loadRleFile() {
         JFileChooser fileChooser = new JFileChooser();
@@ -427,23 +464,19 @@ public class GameOfLife_Standard extends JFrame {
         int result = fileChooser.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
             File file = fileChooser.getSelectedFile();
-            try {
-                DynamicArray<String> lines = new DynamicArray<>();
-                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        if (!line.startsWith("#")) { // Ignore comments
-                            lines.add(line);
-                        }
+            // the file is streamed straight into the grid on the simulation thread
+            runner.edit(sim -> {
+                try (Reader reader = new FileReader(file)) {
+                    if (file.getName().endsWith(".mc")) {
+                        sim.loadMacrocell(reader);
+                    } else {
+                        sim.loadRle(reader);
                     }
+                } catch (IOException | IllegalArgumentException | UnsupportedOperationException e) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                            "Failed to load pattern file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
                 }
-                simulation.parseRle(lines);
-                updateStatistics();
-                gridPanel.repaint();
-
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "Failed to load RLE file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            });
         }
     }
 
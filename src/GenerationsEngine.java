@@ -0,0 +1,554 @@
+import java.util.Arrays;
+
+/**
+ * A LifeEngine for rules with more than two states, such as the
+ * Generations rules of Rule (Brian's Brain, Star Wars). Every cell is one
+ * byte holding its state, in two preallocated buffers that are swapped
+ * every generation like the ages of BufferedEngine. The next state is
+ * looked up in a table built from the rule, indexed by the state and the
+ * number of live cells around it, so a rule with dying states costs the
+ * same as Conway's. The ages of the live cells are kept in an int array
+ * next to the states, which step() updates in place since no neighbor
+ * reads them.
+ *
+ * The engine can also leave a trail: once a cell is dead it goes through
+ * a few extra states that behave exactly like a dead cell, so recently dead
+ * cells can be colored straight from their state (see GameOfLife_Bonus).
+ *
+ * @author Your Name Here
+ */
+public class GenerationsEngine implements LifeEngine {
+
+    /**
+     * Multiplied by a dying state to get its hash factor.
+     */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The number of rows in the grid.
+     */
+    private final int rows;
+
+    /**
+     * The number of columns in the grid.
+     */
+    private final int cols;
+
+    /**
+     * The distance between two rows in the buffers (cols plus the halo).
+     */
+    private final int stride;
+
+    /**
+     * States of the current generation in row-major order with a halo,
+     * read as unsigned bytes.
+     */
+    private byte[] state;
+
+    /**
+     * Scratch buffer the next generation is written into before the swap.
+     */
+    private byte[] nextState;
+
+    /**
+     * Ages of the live cells, laid out like the states (0 = not alive).
+     */
+    private final int[] age;
+
+    /**
+     * How the edges behave.
+     */
+    private Topology topology = Topology.BOUNDED;
+
+    /**
+     * The rule the grid evolves by.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * The number of trail states after the states of the rule.
+     */
+    private int trail;
+
+    /**
+     * The next state of every state and neighborhood: entry (s << 4) + n,
+     * where n counts the live cells of the 3x3 block, the cell included.
+     */
+    private byte[] table;
+
+    /**
+     * What each state adds to the state hash: the cell key times this.
+     * 1 for alive, a distinct odd number for each dying state, 0 for dead
+     * and trail states, so that the hash of a two-state rule is the same
+     * as on every other engine.
+     */
+    private long[] hashFactors;
+
+    /**
+     * The number of live cells, updated by step() and the edit methods.
+     */
+    private long population;
+
+    /**
+     * The sum of the ages of all live cells.
+     */
+    private long ageSum;
+
+    /**
+     * The age of the oldest live cell.
+     */
+    private int maxAge;
+
+    /**
+     * True if an edit lowered the oldest cell, so maxAge needs a rescan.
+     */
+    private boolean maxAgeStale;
+
+    /**
+     * The XOR of the keys of the live and dying cells, see getStateHash().
+     */
+    private long stateHash;
+
+    /**
+     * Constructs an engine with every cell dead, running Conway's rule
+     * without a trail.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    public GenerationsEngine(int rows, int cols) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Grid dimensions must be positive.");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = cols + 2;
+        this.state = new byte[(rows + 2) * stride];
+        this.nextState = new byte[(rows + 2) * stride];
+        this.age = new int[(rows + 2) * stride];
+        buildTable();
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Both bounded grids and tori are supported.
+     *
+     * @param topology the new topology
+     */
+    @Override
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * Every rule is supported, Life-like or Generations. Cells in a dying
+     * or trail state are dead afterwards, since the states of the old rule
+     * mean nothing in the new one; live cells keep their ages.
+     *
+     * @param rule the new rule
+     * @throws UnsupportedOperationException if the rule and the trail do
+     *         not fit in Rule.MAX_STATES states
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule.getStates() + trail > Rule.MAX_STATES) {
+            throw new UnsupportedOperationException(rule + " has no room for a trail of " + trail);
+        }
+        killOtherStates();
+        this.rule = rule;
+        buildTable();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Sets the number of trail states a cell goes through once it is dead.
+     * Trail states count as dead for every rule (they are born from like a
+     * dead cell), so the evolution does not change. Cells in a dying or
+     * trail state are dead afterwards.
+     *
+     * @param steps the length of the trail, 0 for none
+     * @throws IllegalArgumentException if steps is negative or the trail
+     *         does not fit after the states of the rule
+     */
+    public void setTrail(int steps) {
+        if (steps < 0 || rule.getStates() + steps > Rule.MAX_STATES) {
+            throw new IllegalArgumentException("A trail of " + steps + " does not fit after "
+                    + rule.getStates() + " states.");
+        }
+        killOtherStates();
+        trail = steps;
+        buildTable();
+    }
+
+    /**
+     * Gets the number of trail states.
+     *
+     * @return the length of the trail
+     */
+    public int getTrail() {
+        return trail;
+    }
+
+    /**
+     * Gets the number of states: those of the rule, then the trail.
+     *
+     * @return rule.getStates() + getTrail()
+     */
+    @Override
+    public int getStates() {
+        return rule.getStates() + trail;
+    }
+
+    @Override
+    public int getState(int row, int col) {
+        return state[index(row, col)] & 0xFF;
+    }
+
+    /**
+     * Puts a cell into any state; a live cell that is moved to another
+     * state dies.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param newState the new state
+     * @throws UnsupportedOperationException if newState is not below getStates()
+     */
+    @Override
+    public void setState(int row, int col, int newState) {
+        if (newState < 0 || newState >= getStates()) {
+            throw new UnsupportedOperationException(rule + " with a trail of " + trail
+                    + " has no state " + newState);
+        }
+        if (newState == 1) {
+            setAlive(row, col);
+            return;
+        }
+        int index = index(row, col);
+        int old = state[index] & 0xFF;
+        if (old == 1) {
+            population--;
+            ageSum -= age[index];
+            if (age[index] == maxAge) {
+                maxAgeStale = true;
+            }
+            age[index] = 0;
+        }
+        long key = LifeEngine.cellKey(row, col);
+        stateHash ^= key * hashFactors[old] ^ key * hashFactors[newState];
+        state[index] = (byte) newState;
+    }
+
+    /**
+     * Copies a row of states straight out of the padded buffer.
+     *
+     * @param row the row to copy
+     * @param states the destination
+     * @param offset where the first column goes in states
+     */
+    @Override
+    public void copyStates(int row, byte[] states, int offset) {
+        System.arraycopy(state, index(row, 0), states, offset, cols);
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return state[index(row, col)] == 1;
+    }
+
+    @Override
+    public int getAge(int row, int col) {
+        return age[index(row, col)];
+    }
+
+    @Override
+    public void setAlive(int row, int col) {
+        int index = index(row, col);
+        int old = state[index] & 0xFF;
+        if (old != 1) {
+            state[index] = 1;
+            age[index] = 1;
+            population++;
+            ageSum++;
+            maxAge = Math.max(maxAge, 1);
+            long key = LifeEngine.cellKey(row, col);
+            stateHash ^= key * hashFactors[old] ^ key;
+        }
+    }
+
+    @Override
+    public void setDead(int row, int col) {
+        setState(row, col, 0);
+    }
+
+    @Override
+    public void setAge(int row, int col, int newAge) {
+        int index = index(row, col);
+        int old = age[index];
+        if (old > 0 && newAge >= 1) {
+            age[index] = newAge;
+            ageSum += newAge - old;
+            if (newAge >= maxAge) {
+                maxAge = newAge;
+            } else if (old == maxAge) {
+                maxAgeStale = true;
+            }
+        }
+    }
+
+    /**
+     * Copies a row of ages straight out of the padded buffer.
+     *
+     * @param row the row to copy
+     * @param ages the destination
+     * @param offset where the first column goes in ages
+     */
+    @Override
+    public void copyAges(int row, int[] ages, int offset) {
+        System.arraycopy(age, index(row, 0), ages, offset, cols);
+    }
+
+    /**
+     * Adds to the ages in one pass over the buffer.
+     *
+     * @param minAge only cells with an age above this are changed
+     * @param delta the number of generations to add
+     */
+    @Override
+    public void addAge(int minAge, int delta) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = index(i, 0), end = j + cols; j < end; j++) {
+                if (age[j] > minAge) {
+                    age[j] += delta;
+                    ageSum += delta;
+                }
+            }
+        }
+        if (maxAge > minAge) {
+            maxAge += delta;
+        }
+    }
+
+    /**
+     * Gets the hash of the live cells, with the dying cells mixed in since
+     * the next generation depends on them too. Trail states are left out,
+     * so for a two-state rule this is the same as on every other engine.
+     *
+     * @return the hash, 0 if no cell is alive or dying
+     */
+    @Override
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    @Override
+    public long getAgeSum() {
+        return ageSum;
+    }
+
+    @Override
+    public int getMaxAge() {
+        if (maxAgeStale) {
+            // only after an edit removed or lowered the oldest cell
+            int max = 0;
+            for (int i = 0; i < rows; i++) {
+                for (int j = index(i, 0), end = j + cols; j < end; j++) {
+                    max = Math.max(max, age[j]);
+                }
+            }
+            maxAge = max;
+            maxAgeStale = false;
+        }
+        return maxAge;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(state, (byte) 0);
+        Arrays.fill(age, 0);
+        population = 0;
+        ageSum = 0;
+        maxAge = 0;
+        maxAgeStale = false;
+        stateHash = 0;
+    }
+
+    /**
+     * Advances the grid by ONE generation.
+     * The live cells of each column of three are added once and then
+     * reused by the three cells they border, so every cell reads three new
+     * states instead of eight; the sum of a 3x3 block and the state of its
+     * center give the next state in one table lookup, whatever the rule.
+     * Statistics and the state hash are totalled in the same pass.
+     */
+    @Override
+    public void step() {
+        refreshHalo();
+        byte[] cur = state;
+        byte[] next = nextState;
+        int[] ages = age;
+        byte[] lookup = table;
+        long[] factors = hashFactors;
+        long newPopulation = 0;
+        long newAgeSum = 0;
+        int newMaxAge = 0;
+        long hash = stateHash;
+
+        for (int i = 1; i <= rows; i++) {
+            int mid = i * stride;
+            int up = mid - stride;
+            int down = mid + stride;
+            int left = live(cur[up]) + live(cur[mid]) + live(cur[down]);
+            int center = live(cur[up + 1]) + live(cur[mid + 1]) + live(cur[down + 1]);
+
+            for (int j = 1; j <= cols; j++) {
+                int right = live(cur[up + j + 1]) + live(cur[mid + j + 1]) + live(cur[down + j + 1]);
+                int s = cur[mid + j] & 0xFF;
+                int n = lookup[(s << 4) + left + center + right] & 0xFF;
+                left = center;
+                center = right;
+                next[mid + j] = (byte) n;
+
+                if (n == 1) {
+                    int a = s == 1 ? ages[mid + j] + 1 : 1;
+                    ages[mid + j] = a;
+                    newPopulation++;
+                    newAgeSum += a;
+                    newMaxAge = Math.max(newMaxAge, a);
+                } else if (s == 1) {
+                    ages[mid + j] = 0;
+                }
+                if (n != s && factors[n] != factors[s]) {
+                    long key = LifeEngine.cellKey(i - 1, j - 1);
+                    hash ^= key * factors[s] ^ key * factors[n];
+                }
+            }
+        }
+
+        state = next;
+        nextState = cur;
+        population = newPopulation;
+        ageSum = newAgeSum;
+        maxAge = newMaxAge;
+        maxAgeStale = false;
+        stateHash = hash;
+    }
+
+    /**
+     * Helper that checks a state for being alive without a branch.
+     *
+     * @param s a state byte
+     * @return 1 if s is 1, else 0
+     */
+    private static int live(byte s) {
+        return (((s & 0xFF) ^ 1) - 1) >>> 31;
+    }
+
+    /**
+     * Helper that builds the transition table and the hash factors for the
+     * rule and the trail. A live or dying cell that the rule kills enters
+     * the trail; a trail cell is born like a dead one, or moves on.
+     */
+    private void buildTable() {
+        int ruleStates = rule.getStates();
+        int states = ruleStates + trail;
+        table = new byte[states << 4];
+        hashFactors = new long[states];
+        for (int s = 0; s < states; s++) {
+            for (int n = 0; n <= 8; n++) {
+                int next;
+                if (s < ruleStates) {
+                    next = rule.nextState(s, n);
+                    if (next == 0 && s > 0 && trail > 0) {
+                        next = ruleStates;
+                    }
+                } else if (rule.nextState(0, n) == 1) {
+                    next = 1;
+                } else {
+                    next = s + 1 < states ? s + 1 : 0;
+                }
+                // a live cell counts itself in the 3x3 sum
+                table[(s << 4) + n + (s == 1 ? 1 : 0)] = (byte) next;
+            }
+            if (s == 1) {
+                hashFactors[s] = 1;
+            } else if (s > 1 && s < ruleStates) {
+                hashFactors[s] = (s * GOLDEN) | 1;
+            }
+        }
+    }
+
+    /**
+     * Helper that kills every cell in a dying or trail state, before the
+     * states change meaning.
+     */
+    private void killOtherStates() {
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int index = index(i, j);
+                int s = state[index] & 0xFF;
+                if (s > 1) {
+                    stateHash ^= LifeEngine.cellKey(i, j) * hashFactors[s];
+                    state[index] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper that fills the halo of the current buffer for this generation:
+     * all dead for a bounded grid, or the opposite edges for a torus.
+     */
+    private void refreshHalo() {
+        byte[] buf = state;
+        int lastRow = rows * stride;
+        int haloBottom = (rows + 1) * stride;
+        if (topology == Topology.TORUS) {
+            // rows first (grid columns only), then whole columns so the
+            // corners pick up the diagonally opposite cells
+            System.arraycopy(buf, lastRow + 1, buf, 1, cols);
+            System.arraycopy(buf, stride + 1, buf, haloBottom + 1, cols);
+            for (int r = 0; r < rows + 2; r++) {
+                int start = r * stride;
+                buf[start] = buf[start + cols];
+                buf[start + cols + 1] = buf[start + 1];
+            }
+        } else {
+            Arrays.fill(buf, 0, stride, (byte) 0);
+            Arrays.fill(buf, haloBottom, haloBottom + stride, (byte) 0);
+            for (int r = 1; r <= rows; r++) {
+                buf[r * stride] = 0;
+                buf[r * stride + cols + 1] = 0;
+            }
+        }
+    }
+
+    /**
+     * Helper that maps a grid cell to its position in the padded buffers.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the buffer index
+     */
+    private int index(int row, int col) {
+        return (row + 1) * stride + col + 1;
+    }
+}
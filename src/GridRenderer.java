@@ -0,0 +1,169 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Draws frames into an int[]-backed image instead of issuing a fillRect and
+ * a drawRect per cell on every repaint.
+ * update() writes the pixels of the cells whose color changed since the
+ * last frame and reports the rectangle they cover, which the GUI passes to
+ * repaint(). paint() is then a single image copy clipped to that rectangle,
+ * with the grid lines drawn from a second image built once per grid size.
+ *
+ * @author Your Name Here
+ */
+public class GridRenderer {
+
+    /**
+     * Gives the color of one cell of a frame.
+     */
+    public interface CellColors {
+
+        /**
+         * Gets the color of the cell at row/col.
+         *
+         * @param frame the frame being drawn
+         * @param row the row of the cell
+         * @param col the column of the cell
+         * @return the color as 0xAARRGGBB (see Color.getRGB())
+         */
+        int rgb(Frame frame, int row, int col);
+    }
+
+    /**
+     * The color of the grid lines.
+     */
+    private static final int LINE_RGB = Color.LIGHT_GRAY.getRGB();
+
+    /**
+     * The number of rows the images were built for.
+     */
+    private int rows;
+
+    /**
+     * The number of columns the images were built for.
+     */
+    private int cols;
+
+    /**
+     * The size of each cell in pixels.
+     */
+    private int cellSize;
+
+    /**
+     * The cell colors, one cellSize x cellSize block per cell.
+     */
+    private BufferedImage cells;
+
+    /**
+     * The pixels of the cells image, written directly.
+     */
+    private int[] pixels;
+
+    /**
+     * The grid lines on a transparent background, drawn over the cells.
+     */
+    private BufferedImage lines;
+
+    /**
+     * The color each cell currently has in the image (0 = not drawn yet,
+     * which no opaque color matches).
+     */
+    private int[] shown;
+
+    /**
+     * Draws the cells of a frame whose color changed since the last update.
+     * The images are rebuilt if the grid or cell size changed.
+     *
+     * @param frame the frame to draw
+     * @param cellSize the size of each cell in pixels
+     * @param colors gives the color of each cell
+     * @return the area that has to be repainted, or null if nothing changed
+     * @throws IllegalArgumentException if cellSize is less than 1
+     */
+    public Rectangle update(Frame frame, int cellSize, CellColors colors) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("Cell size must be positive.");
+        }
+        if (cells == null || frame.getRows() != rows || frame.getCols() != cols
+                || cellSize != this.cellSize) {
+            resize(frame.getRows(), frame.getCols(), cellSize);
+        }
+
+        int width = cols * cellSize;
+        int minRow = rows;
+        int maxRow = -1;
+        int minCol = cols;
+        int maxCol = -1;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int rgb = colors.rgb(frame, row, col);
+                int cell = row * cols + col;
+                if (shown[cell] == rgb) {
+                    continue;
+                }
+                shown[cell] = rgb;
+                int start = row * cellSize * width + col * cellSize;
+                for (int y = 0; y < cellSize; y++) {
+                    Arrays.fill(pixels, start + y * width, start + y * width + cellSize, rgb);
+                }
+                minRow = Math.min(minRow, row);
+                maxRow = row;
+                minCol = Math.min(minCol, col);
+                maxCol = Math.max(maxCol, col);
+            }
+        }
+        if (maxRow < 0) {
+            return null;
+        }
+        // one extra pixel for the grid line on the right and bottom edge
+        return new Rectangle(minCol * cellSize, minRow * cellSize,
+                (maxCol - minCol + 1) * cellSize + 1, (maxRow - minRow + 1) * cellSize + 1);
+    }
+
+    /**
+     * Draws the cells and the grid lines. Only the clip area of g is copied.
+     *
+     * @param g the Graphics object used for rendering
+     */
+    public void paint(Graphics g) {
+        if (cells != null) {
+            g.drawImage(cells, 0, 0, null);
+            g.drawImage(lines, 0, 0, null);
+        }
+    }
+
+    /**
+     * Helper that allocates the images for a new grid or cell size and
+     * draws the grid lines once.
+     *
+     * @param newRows the number of rows
+     * @param newCols the number of columns
+     * @param newCellSize the size of each cell in pixels
+     */
+    private void resize(int newRows, int newCols, int newCellSize) {
+        rows = newRows;
+        cols = newCols;
+        cellSize = newCellSize;
+        cells = new BufferedImage(cols * cellSize, rows * cellSize, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) cells.getRaster().getDataBuffer()).getData();
+        shown = new int[rows * cols];
+
+        // lines at every cell boundary, including the far edges
+        int width = cols * cellSize + 1;
+        int height = rows * cellSize + 1;
+        lines = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] linePixels = ((DataBufferInt) lines.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < height; y += cellSize) {
+            Arrays.fill(linePixels, y * width, (y + 1) * width, LINE_RGB);
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x += cellSize) {
+                linePixels[y * width + x] = LINE_RGB;
+            }
+        }
+    }
+}
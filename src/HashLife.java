@@ -0,0 +1,794 @@
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Gosper's HashLife algorithm for jumping a pattern forward by huge numbers
+ * of generations.
+ * The world is an unbounded plane stored as a quadtree. Identical subtrees
+ * are shared (hash-consed), and the future of every node is memoized, so
+ * regular patterns like guns and methuselah debris can be advanced by 2^k
+ * generations at a time.
+ *
+ * Cells are addressed by (row, col) with the origin at the center of the
+ * universe; negative coordinates are allowed. Ages are not tracked.
+ *
+ * The node cache is bounded: when it grows past the limit between steps,
+ * every node that is not reachable from the current pattern is dropped and
+ * all memoized results are forgotten.
+ *
+ * @author Your Name Here
+ */
+public class HashLife {
+
+    /**
+     * The default soft limit on the number of cached nodes.
+     */
+    public static final int DEFAULT_MAX_NODES = 4_000_000;
+
+    /**
+     * The largest level the universe may grow to (2^62 cells on a side).
+     */
+    static final int MAX_LEVEL = 62;
+
+    /**
+     * A square block of 2^level x 2^level cells.
+     * Level 0 nodes are single cells; every other node has four children one
+     * level lower. Nodes are immutable and unique, so two nodes with the same
+     * contents are always the same object.
+     */
+    static final class Node {
+
+        /**
+         * The four quadrants, null for level 0.
+         */
+        final Node nw, ne, sw, se;
+
+        /**
+         * log2 of the side length.
+         */
+        final int level;
+
+        /**
+         * The number of live cells inside this node.
+         */
+        final long population;
+
+        /**
+         * Structural hash, used by the node table.
+         */
+        final int hash;
+
+        /**
+         * Memoized center advanced by the full 2^(level-2) generations.
+         */
+        Node result;
+
+        /**
+         * Memoized center advanced by 2^stepLog generations for smaller steps.
+         */
+        Node stepResult;
+
+        /**
+         * The step stepResult was computed for, or -1.
+         */
+        int stepLog = -1;
+
+        /**
+         * The next node in the same bucket of the node table.
+         */
+        Node next;
+
+        /**
+         * Constructs a single cell.
+         *
+         * @param alive whether the cell is alive
+         */
+        Node(boolean alive) {
+            this.nw = this.ne = this.sw = this.se = null;
+            this.level = 0;
+            this.population = alive ? 1 : 0;
+            this.hash = alive ? 1 : 0;
+        }
+
+        /**
+         * Constructs an inner node. Use HashLife.join() instead so the node
+         * is shared.
+         */
+        Node(Node nw, Node ne, Node sw, Node se, int hash) {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.level = nw.level + 1;
+            this.population = nw.population + ne.population + sw.population + se.population;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * The dead cell.
+     */
+    final Node dead = new Node(false);
+
+    /**
+     * The live cell.
+     */
+    final Node alive = new Node(true);
+
+    /**
+     * The node table that makes every node unique.
+     */
+    private Node[] table = new Node[1 << 16];
+
+    /**
+     * The number of nodes in the table.
+     */
+    private int nodeCount;
+
+    /**
+     * The soft limit on nodeCount before a collection is run.
+     */
+    private final int maxNodes;
+
+    /**
+     * Cached empty node per level.
+     */
+    private final Node[] empty = new Node[MAX_LEVEL + 1];
+
+    /**
+     * The current pattern. Its center is cell (0, 0).
+     */
+    private Node root;
+
+    /**
+     * The number of generations the pattern has been advanced.
+     */
+    private long generations;
+
+    /**
+     * Constructs an empty universe with the default cache limit.
+     */
+    public HashLife() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Constructs an empty universe.
+     *
+     * @param maxNodes the soft limit on cached nodes before collecting
+     * @throws IllegalArgumentException if maxNodes is less than 1
+     */
+    public HashLife(int maxNodes) {
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("Node limit must be positive.");
+        }
+        this.maxNodes = maxNodes;
+        empty[0] = dead;
+        root = emptyNode(3);
+    }
+
+    /**
+     * Copies the live cells of a simulation into a new universe. Grid cell
+     * (row, col) becomes (row - rows / 2, col - cols / 2), so the grid
+     * center lands on the origin.
+     *
+     * @param sim the simulation to copy
+     * @return the new universe
+     */
+    public static HashLife fromSimulation(Simulation sim) {
+        HashLife life = new HashLife();
+        int rows = sim.getRows();
+        int cols = sim.getCols();
+        // read row by row so an engine does not have to fill the grid of Cells
+        int[] ages = new int[cols];
+        for (int i = 0; i < rows; i++) {
+            sim.copyAges(i, ages);
+            for (int j = 0; j < cols; j++) {
+                if (ages[j] > 0) {
+                    life.setCell(i - rows / 2, j - cols / 2, true);
+                }
+            }
+        }
+        return life;
+    }
+
+    /**
+     * Writes the part of the universe that falls inside the simulation grid
+     * back into it, using the same placement as fromSimulation(). The
+     * simulation is reset first; cells outside the grid are dropped.
+     * Only the live nodes that overlap the grid are visited, so the cost
+     * depends on what is inside the grid, not on the size of the universe.
+     *
+     * @param sim the simulation to write into
+     */
+    public void copyInto(Simulation sim) {
+        sim.reset();
+        long half = 1L << (root.level - 1);
+        // grid cell (i, j) is cell (i - rows / 2, j - cols / 2) of the universe
+        copyInto(sim, root, sim.getRows() / 2 - half, sim.getCols() / 2 - half);
+    }
+
+    /**
+     * Helper that copies the live cells of a node that fall inside the grid.
+     *
+     * @param sim the simulation to write into
+     * @param n the node
+     * @param top the grid row of the top edge of the node
+     * @param left the grid column of the left edge of the node
+     */
+    private void copyInto(Simulation sim, Node n, long top, long left) {
+        long size = 1L << n.level;
+        if (n.population == 0 || top >= sim.getRows() || left >= sim.getCols()
+                || top + size <= 0 || left + size <= 0) {
+            return;
+        }
+        if (n.level == 0) {
+            sim.toggleCell((int) top, (int) left);
+            return;
+        }
+        long half = size >>> 1;
+        copyInto(sim, n.nw, top, left);
+        copyInto(sim, n.ne, top, left + half);
+        copyInto(sim, n.sw, top + half, left);
+        copyInto(sim, n.se, top + half, left + half);
+    }
+
+    /**
+     * Gets the smallest rectangle that holds every live cell, found by
+     * walking each distinct node once.
+     *
+     * @return the top row, left column, bottom row and right column
+     *         (inclusive, relative to the origin), or null if the universe
+     *         is empty
+     */
+    public long[] getBounds() {
+        if (root.population == 0) {
+            return null;
+        }
+        long origin = -(1L << (root.level - 1));
+        long[] bounds = new long[4];
+        for (int side = 0; side < 4; side++) {
+            bounds[side] = origin + edge(root, side, new IdentityHashMap<>());
+        }
+        return bounds;
+    }
+
+    /**
+     * Helper that finds the outermost live cell of a node on one side.
+     *
+     * @param n a node with live cells
+     * @param side 0 for the top row, 1 for the left column, 2 for the
+     *             bottom row, 3 for the right column
+     * @param memo results for nodes already visited
+     * @return the row or column, counted from the top left of the node
+     */
+    private long edge(Node n, int side, Map<Node, Long> memo) {
+        if (n.level == 0) {
+            return 0;
+        }
+        Long known = memo.get(n);
+        if (known != null) {
+            return known;
+        }
+        long half = 1L << (n.level - 1);
+        // the two quadrants on that side first, then the other two
+        Node a = side == 0 || side == 1 ? n.nw : n.se;
+        Node b = side == 0 || side == 3 ? n.ne : n.sw;
+        Node c = side == 0 || side == 3 ? n.sw : n.ne;
+        Node d = side == 0 || side == 1 ? n.se : n.nw;
+        boolean low = side < 2;
+        long result;
+        if (a.population != 0 || b.population != 0) {
+            result = outer(edgeOf(a, side, memo), edgeOf(b, side, memo), low) + (low ? 0 : half);
+        } else {
+            result = outer(edgeOf(c, side, memo), edgeOf(d, side, memo), low) + (low ? half : 0);
+        }
+        memo.put(n, result);
+        return result;
+    }
+
+    /**
+     * Helper for edge() that skips empty quadrants.
+     *
+     * @return the edge of the quadrant, or -1 if it is empty
+     */
+    private long edgeOf(Node n, int side, Map<Node, Long> memo) {
+        return n.population == 0 ? -1 : edge(n, side, memo);
+    }
+
+    /**
+     * Helper for edge() that picks the outer of two edges, ignoring -1.
+     *
+     * @return the smaller one for the top and left, the larger otherwise
+     */
+    private static long outer(long x, long y, boolean low) {
+        if (x < 0 || y < 0) {
+            return Math.max(x, y);
+        }
+        return low ? Math.min(x, y) : Math.max(x, y);
+    }
+
+    /**
+     * Gets the root node of the universe, centered on the origin.
+     *
+     * @return the root
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Replaces the whole pattern, for example with one read from a file.
+     * The node must have been built by this universe (join()) and is
+     * placed with its center on the origin.
+     *
+     * @param node the new root, at least level 1
+     * @param gens the generation count of the new pattern
+     */
+    void setRoot(Node node, long gens) {
+        while (node.level < 3) {
+            node = expand(node);
+        }
+        root = node;
+        generations = gens;
+    }
+
+    /**
+     * Gets the number of live cells. This is O(1).
+     *
+     * @return the population of the universe
+     */
+    public long getPopulation() {
+        return root.population;
+    }
+
+    /**
+     * Gets the number of generations the pattern has been advanced.
+     *
+     * @return the generation count
+     */
+    public long getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Gets the number of nodes currently in the cache.
+     *
+     * @return the node count
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Checks if the cell at row/col is alive.
+     *
+     * @param row the row, relative to the origin
+     * @param col the column, relative to the origin
+     * @return true if the cell is alive
+     */
+    public boolean getCell(long row, long col) {
+        long half = 1L << (root.level - 1);
+        if (row < -half || row >= half || col < -half || col >= half) {
+            return false;
+        }
+        Node n = root;
+        while (n.level > 1) {
+            // move to the child and make the coordinates relative to its center
+            long quarter = 1L << (n.level - 2);
+            if (row < 0) {
+                n = col < 0 ? n.nw : n.ne;
+                row += quarter;
+            } else {
+                n = col < 0 ? n.sw : n.se;
+                row -= quarter;
+            }
+            col += col < 0 ? quarter : -quarter;
+        }
+        // the four cells of a level 1 node sit at -1 and 0 on each axis
+        Node cell = row < 0 ? (col < 0 ? n.nw : n.ne) : (col < 0 ? n.sw : n.se);
+        return cell == alive;
+    }
+
+    /**
+     * Sets the cell at row/col, growing the universe if needed.
+     *
+     * @param row the row, relative to the origin
+     * @param col the column, relative to the origin
+     * @param state true for alive, false for dead
+     */
+    public void setCell(long row, long col, boolean state) {
+        while (true) {
+            long half = 1L << (root.level - 1);
+            if (row >= -half && row < half && col >= -half && col < half) {
+                break;
+            }
+            root = expand(root);
+        }
+        root = setCell(root, row, col, state);
+    }
+
+    /**
+     * Helper that rebuilds the path from a node down to one cell.
+     * Coordinates are relative to the center of the node.
+     */
+    private Node setCell(Node n, long row, long col, boolean state) {
+        if (n.level == 0) {
+            return state ? alive : dead;
+        }
+        if (n.level == 1) {
+            // the four cells sit at -1 and 0 on each axis
+            Node nw = n.nw, ne = n.ne, sw = n.sw, se = n.se;
+            Node cell = state ? alive : dead;
+            if (row < 0) {
+                if (col < 0) nw = cell; else ne = cell;
+            } else {
+                if (col < 0) sw = cell; else se = cell;
+            }
+            return join(nw, ne, sw, se);
+        }
+        long quarter = 1L << (n.level - 2);
+        if (row < 0) {
+            if (col < 0) {
+                return join(setCell(n.nw, row + quarter, col + quarter, state), n.ne, n.sw, n.se);
+            }
+            return join(n.nw, setCell(n.ne, row + quarter, col - quarter, state), n.sw, n.se);
+        }
+        if (col < 0) {
+            return join(n.nw, n.ne, setCell(n.sw, row - quarter, col + quarter, state), n.se);
+        }
+        return join(n.nw, n.ne, n.sw, setCell(n.se, row - quarter, col - quarter, state));
+    }
+
+    /**
+     * Advances the pattern by the given number of generations, one power of
+     * two at a time.
+     *
+     * @param gens the number of generations, zero or more
+     * @throws IllegalArgumentException if gens is negative
+     */
+    public void evolve(long gens) {
+        if (gens < 0) {
+            throw new IllegalArgumentException("Cannot evolve backwards.");
+        }
+        for (int k = 0; gens != 0; k++, gens >>>= 1) {
+            if ((gens & 1) != 0) {
+                stepPow2(k);
+            }
+        }
+    }
+
+    /**
+     * Advances the pattern by exactly 2^k generations.
+     *
+     * @param k log2 of the number of generations
+     * @throws IllegalArgumentException if k is negative or too large
+     */
+    public void stepPow2(int k) {
+        if (k < 0 || k > MAX_LEVEL - 3) {
+            throw new IllegalArgumentException("Step 2^" + k + " is out of range.");
+        }
+        collectIfNeeded();
+
+        // the pattern must sit in the middle quarter and the universe must
+        // be big enough that nothing can reach the edge of the result
+        while (root.level < k + 3 || center(center(root)).population != root.population) {
+            root = expand(root);
+        }
+        root = successor(root, k);
+        generations += 1L << k;
+    }
+
+    /**
+     * Helper that computes the center of a node advanced 2^j generations.
+     * The node is at level n >= 2 and j is at most n - 2; the result is one
+     * level smaller.
+     */
+    private Node successor(Node m, int j) {
+        if (m.population == 0) {
+            return m.nw;
+        }
+        if (m.level == 2) {
+            if (m.result == null) {
+                m.result = slowStep(m);
+            }
+            return m.result;
+        }
+        boolean full = j == m.level - 2;
+        if (full && m.result != null) {
+            return m.result;
+        }
+        if (!full && m.stepLog == j) {
+            return m.stepResult;
+        }
+
+        // nine overlapping subsquares one level down
+        Node n00 = m.nw;
+        Node n01 = join(m.nw.ne, m.ne.nw, m.nw.se, m.ne.sw);
+        Node n02 = m.ne;
+        Node n10 = join(m.nw.sw, m.nw.se, m.sw.nw, m.sw.ne);
+        Node n11 = center(m);
+        Node n12 = join(m.ne.sw, m.ne.se, m.se.nw, m.se.ne);
+        Node n20 = m.sw;
+        Node n21 = join(m.sw.ne, m.se.nw, m.sw.se, m.se.sw);
+        Node n22 = m.se;
+
+        Node result;
+        if (full) {
+            // two half steps of 2^(n-3) each
+            int half = j - 1;
+            Node r00 = successor(n00, half), r01 = successor(n01, half), r02 = successor(n02, half);
+            Node r10 = successor(n10, half), r11 = successor(n11, half), r12 = successor(n12, half);
+            Node r20 = successor(n20, half), r21 = successor(n21, half), r22 = successor(n22, half);
+            result = join(
+                    successor(join(r00, r01, r10, r11), half),
+                    successor(join(r01, r02, r11, r12), half),
+                    successor(join(r10, r11, r20, r21), half),
+                    successor(join(r11, r12, r21, r22), half));
+            m.result = result;
+        } else {
+            // one step of 2^j, then just take the centers
+            Node r00 = successor(n00, j), r01 = successor(n01, j), r02 = successor(n02, j);
+            Node r10 = successor(n10, j), r11 = successor(n11, j), r12 = successor(n12, j);
+            Node r20 = successor(n20, j), r21 = successor(n21, j), r22 = successor(n22, j);
+            result = join(
+                    center(join(r00, r01, r10, r11)),
+                    center(join(r01, r02, r11, r12)),
+                    center(join(r10, r11, r20, r21)),
+                    center(join(r11, r12, r21, r22)));
+            m.stepResult = result;
+            m.stepLog = j;
+        }
+        return result;
+    }
+
+    /**
+     * Helper that advances the center 2x2 of a 4x4 node by one generation
+     * by counting neighbors directly.
+     */
+    private Node slowStep(Node m) {
+        boolean[][] c = new boolean[4][4];
+        Node[] quads = {m.nw, m.ne, m.sw, m.se};
+        for (int q = 0; q < 4; q++) {
+            int r0 = (q / 2) * 2;
+            int c0 = (q % 2) * 2;
+            c[r0][c0] = quads[q].nw == alive;
+            c[r0][c0 + 1] = quads[q].ne == alive;
+            c[r0 + 1][c0] = quads[q].sw == alive;
+            c[r0 + 1][c0 + 1] = quads[q].se == alive;
+        }
+        Node[] out = new Node[4];
+        for (int q = 0; q < 4; q++) {
+            int r = 1 + q / 2;
+            int col = 1 + q % 2;
+            int count = 0;
+            for (int i = -1; i <= 1; i++) {
+                for (int k = -1; k <= 1; k++) {
+                    if ((i != 0 || k != 0) && c[r + i][col + k]) {
+                        count++;
+                    }
+                }
+            }
+            out[q] = (count == 3 || (count == 2 && c[r][col])) ? alive : dead;
+        }
+        return join(out[0], out[1], out[2], out[3]);
+    }
+
+    /**
+     * Helper that returns the center quarter of a node (level >= 2) without
+     * advancing it.
+     */
+    private Node center(Node m) {
+        return join(m.nw.se, m.ne.sw, m.sw.ne, m.se.nw);
+    }
+
+    /**
+     * Helper that wraps a node in a border of empty space, keeping its
+     * center at the origin.
+     */
+    private Node expand(Node m) {
+        if (m.level >= MAX_LEVEL) {
+            throw new IllegalStateException("Universe cannot grow past level " + MAX_LEVEL);
+        }
+        Node e = emptyNode(m.level - 1);
+        return join(
+                join(e, e, e, m.nw),
+                join(e, e, m.ne, e),
+                join(e, m.sw, e, e),
+                join(m.se, e, e, e));
+    }
+
+    /**
+     * Gets the empty node of the given level.
+     *
+     * @param level the level
+     * @return the shared empty node
+     */
+    Node emptyNode(int level) {
+        if (empty[level] == null) {
+            Node e = emptyNode(level - 1);
+            empty[level] = join(e, e, e, e);
+        }
+        return empty[level];
+    }
+
+    /**
+     * Returns the unique node with the given quadrants, creating it if it
+     * does not exist yet.
+     *
+     * @param nw the north-west quadrant
+     * @param ne the north-east quadrant
+     * @param sw the south-west quadrant
+     * @param se the south-east quadrant
+     * @return the shared node
+     */
+    Node join(Node nw, Node ne, Node sw, Node se) {
+        int h = nw.hash * 31 + ne.hash;
+        h = h * 31 + sw.hash;
+        h = h * 31 + se.hash;
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+
+        int bucket = h & (table.length - 1);
+        for (Node n = table[bucket]; n != null; n = n.next) {
+            if (n.hash == h && n.nw == nw && n.ne == ne && n.sw == sw && n.se == se) {
+                return n;
+            }
+        }
+        Node n = new Node(nw, ne, sw, se, h);
+        n.next = table[bucket];
+        table[bucket] = n;
+        nodeCount++;
+        if (nodeCount > table.length - (table.length >>> 2)) {
+            resizeTable(table.length * 2);
+        }
+        return n;
+    }
+
+    /**
+     * Helper that rehashes every node into a table of the given size.
+     */
+    private void resizeTable(int size) {
+        Node[] old = table;
+        table = new Node[size];
+        for (Node head : old) {
+            Node n = head;
+            while (n != null) {
+                Node following = n.next;
+                int bucket = n.hash & (size - 1);
+                n.next = table[bucket];
+                table[bucket] = n;
+                n = following;
+            }
+        }
+    }
+
+    /**
+     * Drops every node that is not part of the current pattern when the
+     * cache is over its limit. Memoized results are forgotten, since they
+     * may point at nodes that are no longer in the table.
+     */
+    private void collectIfNeeded() {
+        if (nodeCount <= maxNodes) {
+            return;
+        }
+        Node[] old = table;
+        table = new Node[old.length];
+        nodeCount = 0;
+        for (Node head : old) {
+            for (Node n = head; n != null; n = n.next) {
+                n.result = null;
+                n.stepResult = null;
+                n.stepLog = -1;
+            }
+        }
+        for (int i = 1; i < empty.length; i++) {
+            if (empty[i] != null) {
+                reinsert(empty[i]);
+            }
+        }
+        reinsert(root);
+    }
+
+    /**
+     * Helper that puts a node and everything below it back into the table.
+     */
+    private void reinsert(Node n) {
+        if (n.level == 0) {
+            return;
+        }
+        int bucket = n.hash & (table.length - 1);
+        for (Node other = table[bucket]; other != null; other = other.next) {
+            if (other == n) {
+                return;
+            }
+        }
+        reinsert(n.nw);
+        reinsert(n.ne);
+        reinsert(n.sw);
+        reinsert(n.se);
+        n.next = table[bucket];
+        table[bucket] = n;
+        nodeCount++;
+    }
+
+    /**
+     * Main method for testing the HashLife implementation.
+     *
+     * @param args command line arguments (not used)
+     */
+    public static void main(String[] args) {
+        // a glider moves one cell diagonally every 4 generations
+        HashLife life = new HashLife();
+        int[][] glider = {{0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}};
+        for (int[] p : glider) {
+            life.setCell(p[0], p[1], true);
+        }
+        life.evolve(4 * 1000);
+        boolean moved = life.getPopulation() == 5;
+        for (int[] p : glider) {
+            moved = moved && life.getCell(p[0] + 1000, p[1] + 1000);
+        }
+        if (moved && life.getGenerations() == 4000) {
+            System.out.println("Yay 1");
+        }
+
+        // odd step sizes must agree with the grid for a pattern that stays inside it
+        Simulation sim = new Simulation(120, 120);
+        java.util.Random random = new java.util.Random(310);
+        for (int i = 50; i < 70; i++) {
+            for (int j = 50; j < 70; j++) {
+                if (random.nextBoolean()) {
+                    sim.toggleCell(i, j);
+                }
+            }
+        }
+        HashLife soup = HashLife.fromSimulation(sim);
+        for (int i = 0; i < 37; i++) {
+            sim.evolve();
+        }
+        soup.evolve(37);
+        Simulation copy = new Simulation(120, 120);
+        soup.copyInto(copy);
+        boolean same = soup.getPopulation() == sim.getAliveCells();
+        for (int i = 0; i < 120; i++) {
+            for (int j = 0; j < 120; j++) {
+                same = same && sim.getGrid().get(i).get(j).isAlive()
+                        == copy.getGrid().get(i).get(j).isAlive();
+            }
+        }
+        if (same) {
+            System.out.println("Yay 2");
+        }
+
+        // a tiny cache forces collections without changing the answer
+        HashLife small = new HashLife(64);
+        for (int[] p : glider) {
+            small.setCell(p[0], p[1], true);
+        }
+        for (int i = 0; i < 10; i++) {
+            small.stepPow2(3);
+        }
+        if (small.getPopulation() == 5 && small.getCell(20, 21)) {
+            System.out.println("Yay 3");
+        }
+
+        // a Macrocell round trip keeps the cells and the generation count
+        try {
+            java.io.StringWriter saved = new java.io.StringWriter();
+            Macrocell.write(life, saved);
+            HashLife loaded = Macrocell.read(new java.io.StringReader(saved.toString()));
+            boolean kept = loaded.getPopulation() == 5 && loaded.getGenerations() == 4000;
+            for (int[] p : glider) {
+                kept = kept && loaded.getCell(p[0] + 1000, p[1] + 1000);
+            }
+            long[] bounds = loaded.getBounds();
+            if (kept && bounds[0] == 1000 && bounds[1] == 1000 && bounds[2] == 1002 && bounds[3] == 1002) {
+                System.out.println("Yay 4");
+            }
+        } catch (java.io.IOException e) {
+            // no Yay
+        }
+    }
+}
@@ -0,0 +1,504 @@
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Command-line runner for servers without a display.
+ * Streams an RLE or Macrocell (.mc) pattern, or a snapshot saved by an
+ * earlier run, into a Simulation, runs it for a number of generations or
+ * until it settles, and prints the population, the age statistics and the
+ * throughput. Only Simulation, the engines, java.io and java.nio are used,
+ * so no AWT or Swing class is ever loaded.
+ *
+ * Usage:
+ * <pre>
+ * java -cp out HeadlessRunner pattern.rle|pattern.mc [options]
+ * java -cp out HeadlessRunner --resume run.snap [options]
+ * java -cp out HeadlessRunner --map world.map [options]
+ *   -n, --generations N   run N generations (default 1000); a run cannot
+ *                         pass generation Simulation.MAX_GENERATIONS
+ *   -s, --until-stable    run until the grid repeats (any period up to
+ *                         Simulation.MAX_PERIOD), at most --generations
+ *   -f, --fast-forward    once the grid repeats, skip the whole periods
+ *                         left instead of computing them
+ *   --size N              use an N x N grid
+ *   --rows R, --cols C    grid size (default: the pattern plus a margin)
+ *   --engine NAME         cells, buffered, bitboard, parallel, tiled, sparse,
+ *                         compact, vector, mapped or generations (default bitboard,
+ *                         buffered with --torus, or generations for a rule
+ *                         with dying states);
+ *                         vector is bitboard unless src/vector is compiled
+ *                         in and run with --add-modules jdk.incubator.vector
+ *   --torus               wrap around at the edges (only the cells, buffered
+ *                         and generations engines can)
+ *   --rule RULE           a Life-like rule such as B36/S23, or a Generations
+ *                         rule such as B2/S/C3 (default: the rule in the RLE
+ *                         header, or B3/S23)
+ *   --resume FILE         continue from a snapshot instead of a pattern; the
+ *                         grid size, topology and generation come from it
+ *   --save FILE           write a snapshot when the run is done, or the live
+ *                         cells as a Macrocell file if FILE ends with .mc
+ *   --map FILE            run on the mapped engine in a memory-mapped FILE:
+ *                         with a pattern the file is created, alone it
+ *                         continues the world in the file from where it
+ *                         stopped (ages are not kept)
+ * </pre>
+ *
+ * @author Your Name Here
+ */
+public class HeadlessRunner {
+
+    /**
+     * Empty cells added on every side of the pattern when no size is given.
+     */
+    private static final int MARGIN = 64;
+
+    /**
+     * The RLE or Macrocell file to load.
+     */
+    private String patternFile;
+
+    /**
+     * The number of generations to run, or the limit for untilStable.
+     */
+    private long generations = 1000;
+
+    /**
+     * True to stop as soon as the grid repeats.
+     */
+    private boolean untilStable;
+
+    /**
+     * True to skip whole periods once the grid repeats.
+     */
+    private boolean fastForward;
+
+    /**
+     * The number of grid rows, or 0 to size the grid from the pattern.
+     */
+    private int rows;
+
+    /**
+     * The number of grid columns, or 0 to size the grid from the pattern.
+     */
+    private int cols;
+
+    /**
+     * The storage to run on, or null to choose one from the rule.
+     */
+    private String engineName;
+
+    /**
+     * How the edges behave.
+     */
+    private Topology topology = Topology.BOUNDED;
+
+    /**
+     * The rule given on the command line, or null to keep the loaded one.
+     */
+    private Rule rule;
+
+    /**
+     * The snapshot to continue from, or null to load patternFile.
+     */
+    private String resumeFile;
+
+    /**
+     * Where to save a snapshot after the run, or null.
+     */
+    private String saveFile;
+
+    /**
+     * The memory-mapped world to run in, or null.
+     */
+    private String mapFile;
+
+    /**
+     * The engine in mapFile, closed when the run is done.
+     */
+    private MappedEngine mapped;
+
+    /**
+     * Runs the command line and exits with 0 on success, 1 if the pattern
+     * could not be read and 2 for bad arguments or a malformed header.
+     *
+     * @param args the command-line arguments, see the class comment
+     */
+    public static void main(String[] args) {
+        HeadlessRunner runner = new HeadlessRunner();
+        try {
+            runner.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: java HeadlessRunner (pattern.rle | --resume FILE | --map FILE) [-n N]"
+                    + " [--until-stable] [--fast-forward] [--size N | --rows R --cols C] [--engine NAME]"
+                    + " [--torus] [--rule RULE] [--save FILE] [--map FILE]");
+            System.exit(2);
+        }
+        try {
+            runner.run();
+        } catch (IOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            // unknown engine, a malformed header, a broken snapshot or a
+            // rule the engine or file format cannot handle
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Helper that reads the options into the fields.
+     *
+     * @param args the command-line arguments
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-n":
+                case "--generations":
+                    generations = parseNumber(arg, value(args, ++i, arg));
+                    break;
+                case "-s":
+                case "--until-stable":
+                    untilStable = true;
+                    break;
+                case "-f":
+                case "--fast-forward":
+                    fastForward = true;
+                    break;
+                case "--size":
+                    rows = parseSize(arg, value(args, ++i, arg));
+                    cols = rows;
+                    break;
+                case "--rows":
+                    rows = parseSize(arg, value(args, ++i, arg));
+                    break;
+                case "--cols":
+                    cols = parseSize(arg, value(args, ++i, arg));
+                    break;
+                case "--engine":
+                    engineName = value(args, ++i, arg);
+                    break;
+                case "--torus":
+                    topology = Topology.TORUS;
+                    break;
+                case "--rule":
+                    rule = Rule.parse(value(args, ++i, arg));
+                    break;
+                case "--resume":
+                    resumeFile = value(args, ++i, arg);
+                    break;
+                case "--save":
+                    saveFile = value(args, ++i, arg);
+                    break;
+                case "--map":
+                    mapFile = value(args, ++i, arg);
+                    break;
+                default:
+                    if (arg.startsWith("-") || patternFile != null) {
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                    }
+                    patternFile = arg;
+            }
+        }
+        if (patternFile != null && resumeFile != null
+                || patternFile == null && resumeFile == null && mapFile == null) {
+            throw new IllegalArgumentException("Give either an RLE file, --resume or --map.");
+        }
+        if (mapFile != null) {
+            if (engineName != null && !engineName.equals("mapped")) {
+                throw new IllegalArgumentException("--map runs on the mapped engine, not " + engineName);
+            }
+            engineName = "mapped";
+        }
+        if (generations > Simulation.MAX_GENERATIONS) {
+            throw new IllegalArgumentException("--generations can be at most " + Simulation.MAX_GENERATIONS);
+        }
+        if ((rows == 0) != (cols == 0)) {
+            throw new IllegalArgumentException("Give both --rows and --cols, or --size.");
+        }
+    }
+
+    /**
+     * Helper that gets the value following an option.
+     *
+     * @param args the command-line arguments
+     * @param i the index of the value
+     * @param option the option, for the error message
+     * @return the value
+     * @throws IllegalArgumentException if the value is missing
+     */
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(option + " needs a value.");
+        }
+        return args[i];
+    }
+
+    /**
+     * Helper that parses a positive number option.
+     *
+     * @param option the option, for the error message
+     * @param text the value
+     * @return the number
+     * @throws IllegalArgumentException if the value is not a positive number
+     */
+    private static long parseNumber(String option, String text) {
+        try {
+            long n = Long.parseLong(text);
+            if (n > 0) {
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " needs a positive number, got " + text);
+    }
+
+    /**
+     * Helper that parses a grid dimension option, which has to fit an int.
+     *
+     * @param option the option, for the error message
+     * @param text the value
+     * @return the dimension
+     * @throws IllegalArgumentException if the value is not a positive number
+     *                                  or is above Integer.MAX_VALUE
+     */
+    private static int parseSize(String option, String text) {
+        long n = parseNumber(option, text);
+        if (n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(option + " can be at most " + Integer.MAX_VALUE
+                    + ", got " + text);
+        }
+        return (int) n;
+    }
+
+    /**
+     * Loads the pattern or snapshot, runs it and prints the report.
+     *
+     * @throws IOException if a file cannot be read or written
+     */
+    private void run() throws IOException {
+        try {
+            runSimulation();
+        } finally {
+            if (mapped != null) {
+                mapped.close();
+            }
+        }
+    }
+
+    /**
+     * Helper that does the work of run(), which closes the mapped world
+     * however this ends.
+     *
+     * @throws IOException if a file cannot be read or written
+     */
+    private void runSimulation() throws IOException {
+        Simulation sim;
+        String source;
+        if (patternFile == null && resumeFile == null) {
+            // no load step: the world in the file is the state
+            mapped = MappedEngine.open(Paths.get(mapFile));
+            rows = mapped.getRows();
+            cols = mapped.getCols();
+            sim = new Simulation(mapped);
+            sim.setTopology(topology);
+            source = mapFile + " (generation " + mapped.getGeneration() + ")";
+        } else if (resumeFile != null) {
+            try (FileChannel channel = FileChannel.open(Paths.get(resumeFile))) {
+                Snapshot snapshot = new Snapshot(channel);
+                snapshot.readHeader();
+                if (rows == 0) {
+                    rows = snapshot.getRows();
+                    cols = snapshot.getCols();
+                }
+                if (snapshot.getTopology() == Topology.TORUS) {
+                    // so that the default engine is one that can wrap
+                    topology = Topology.TORUS;
+                }
+                sim = createSimulation(null);
+                sim.loadSnapshot(snapshot);
+                topology = sim.getTopology();
+                source = resumeFile + " (generation " + sim.getGenerations() + ")";
+            }
+        } else if (patternFile.endsWith(".mc")) {
+            HashLife life;
+            try (Reader reader = new FileReader(patternFile)) {
+                life = Macrocell.read(reader);
+            }
+            if (rows == 0) {
+                long[] bounds = life.getBounds();
+                // the root center goes to the grid center, so size the grid
+                // to reach the farthest live cell on either side
+                rows = gridSize(bounds == null ? 0 : Math.max(-bounds[0], bounds[2] + 1));
+                cols = gridSize(bounds == null ? 0 : Math.max(-bounds[1], bounds[3] + 1));
+            }
+            sim = createSimulation(null);
+            sim.setTopology(topology);
+            life.copyInto(sim);
+            source = patternFile + " (macrocell, population " + life.getPopulation() + ")";
+        } else {
+            try (Reader reader = new FileReader(patternFile)) {
+                // the header sizes the grid before the body is streamed into it
+                RleDecoder decoder = new RleDecoder(reader);
+                decoder.readHeader();
+                if (rows == 0) {
+                    rows = decoder.getHeight() + 2 * MARGIN;
+                    cols = decoder.getWidth() + 2 * MARGIN;
+                }
+                sim = createSimulation(decoder.getRule());
+                sim.setTopology(topology);
+                sim.loadRle(decoder);
+                source = patternFile + " (" + decoder.getWidth() + "x" + decoder.getHeight() + ")";
+            }
+        }
+
+        if (rule != null) {
+            sim.setRule(rule);
+        }
+        if (generations > Simulation.MAX_GENERATIONS - sim.getGenerations()) {
+            throw new IllegalArgumentException("Generation " + sim.getGenerations() + " + " + generations
+                    + " would pass generation " + Simulation.MAX_GENERATIONS);
+        }
+
+        int period = 0;
+        long done = 0;
+        long skipped = 0;
+        long start = System.nanoTime();
+        while (done < generations) {
+            sim.evolve();
+            done++;
+            period = sim.getPeriod();
+            if (period > 0 && untilStable) {
+                break;
+            }
+            if (period > 0 && fastForward) {
+                long n = sim.fastForward(generations - done);
+                skipped += n;
+                done += n;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("pattern:      %s%n", source);
+        // "vector" quietly falls back to the scalar bitboard; say which one ran
+        String engineLabel = engineName.equals("vector")
+                ? "vector engine (" + sim.getEngine().getClass().getSimpleName() + ")"
+                : engineName + " engine";
+        System.out.printf("grid:         %dx%d, %s, %s, %s%n", rows, cols, engineLabel,
+                topology.toString().toLowerCase(), sim.getRule());
+        System.out.printf("generations:  %d%n", done);
+        if (untilStable) {
+            System.out.println(period > 0
+                    ? "stable:       period " + period + " from generation " + (done - period)
+                    : "stable:       no, still changing");
+        }
+        if (fastForward) {
+            System.out.printf("skipped:      %d (period %d)%n", skipped, period);
+        }
+        System.out.printf("population:   %d%n", sim.getAliveCells());
+        System.out.printf("average age:  %.2f%n", sim.getAverageAge());
+        System.out.printf("max age:      %d%n", sim.getMaxAge());
+        double seconds = elapsed / 1e9;
+        // skipped generations were not computed, so they do not count here
+        System.out.printf("elapsed:      %.3f s (%.1f generations/s)%n", seconds,
+                seconds > 0 ? (done - skipped) / seconds : 0.0);
+
+        if (mapped != null && mapped.isMapped()) {
+            System.out.printf("map file:     %s (generation %d)%n", mapFile, mapped.getGeneration());
+        }
+
+        if (saveFile != null) {
+            long saveStart = System.nanoTime();
+            if (saveFile.endsWith(".mc")) {
+                try (Writer writer = new BufferedWriter(new FileWriter(saveFile))) {
+                    sim.saveMacrocell(writer);
+                }
+            } else {
+                try (FileChannel channel = FileChannel.open(Paths.get(saveFile), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    sim.saveSnapshot(channel);
+                }
+            }
+            System.out.printf("saved:        %s (generation %d, %.3f s)%n", saveFile,
+                    sim.getGenerations(), (System.nanoTime() - saveStart) / 1e9);
+        }
+    }
+
+    /**
+     * Helper that sizes the grid for a Macrocell pattern.
+     *
+     * @param reach the farthest live cell from the center, in cells
+     * @return the number of rows or columns
+     * @throws IllegalArgumentException if the pattern is too large for a grid
+     */
+    private static int gridSize(long reach) {
+        long size = 2 * (reach + MARGIN);
+        if (size > 1 << 20) {
+            throw new IllegalArgumentException("The pattern spans " + size
+                    + " cells; give --size to load part of it.");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Helper that builds the simulation on the chosen engine. If none was
+     * chosen, rules with dying states get the generations engine, a torus
+     * the buffered engine (the bit-packed engines are bounded) and all
+     * others the bitboard.
+     *
+     * @param headerRule the rule of the pattern file, or null
+     * @return the simulation
+     * @throws IllegalArgumentException if the engine name is unknown
+     * @throws IOException if the mapped world cannot be created
+     */
+    private Simulation createSimulation(String headerRule) throws IOException {
+        if (engineName == null) {
+            // the header rule is applied while loading, even if --rule replaces it after
+            int states = rule != null ? rule.getStates() : 2;
+            if (headerRule != null) {
+                states = Math.max(states, Rule.parse(headerRule).getStates());
+            }
+            engineName = states > 2 ? "generations" : topology == Topology.TORUS ? "buffered" : "bitboard";
+        }
+        switch (engineName) {
+            case "cells":
+                return new Simulation(rows, cols);
+            case "buffered":
+                return new Simulation(new BufferedEngine(rows, cols));
+            case "bitboard":
+                return new Simulation(new BitboardEngine(rows, cols));
+            case "parallel":
+                return new Simulation(new ParallelEngine(rows, cols));
+            case "tiled":
+                return new Simulation(new TiledEngine(rows, cols));
+            case "sparse":
+                return new Simulation(new SparseEngine(rows, cols));
+            case "compact":
+                return new Simulation(new CompactEngine(rows, cols));
+            case "vector":
+                return new Simulation(BitboardEngine.createVectorEngine(rows, cols, true));
+            case "mapped":
+                if (mapFile == null) {
+                    return new Simulation(new MappedEngine(rows, cols));
+                }
+                mapped = MappedEngine.create(Paths.get(mapFile), rows, cols);
+                return new Simulation(mapped);
+            case "generations":
+                return new Simulation(new GenerationsEngine(rows, cols));
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + engineName);
+        }
+    }
+}
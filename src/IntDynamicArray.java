@@ -0,0 +1,334 @@
+import java.util.Arrays;
+
+/**
+ * A DynamicArray of primitive ints, for ages, cell indices and other integer
+ * lists that would otherwise be boxed one Integer at a time.
+ * The API has the same shape as DynamicArray (same growth and shrink rules),
+ * plus bulk methods that copy and fill whole ranges with System.arraycopy
+ * and Arrays.fill instead of element by element.
+ *
+ * @author Your Name Here
+ */
+public class IntDynamicArray {
+
+    private static final int INITCAP = 2; // default initial capacity
+    private int[] storage; // underlying array
+    private int currentSize; // current number of elements
+
+    /**
+     * Default constructor that creates an array with initial capacity of 2.
+     */
+    public IntDynamicArray() {
+        storage = new int[INITCAP];
+    }
+
+    /**
+     * Constructor that creates an array with specified initial capacity.
+     *
+     * @param initCapacity the initial capacity of the storage array
+     * @throws IllegalArgumentException if initCapacity < 1
+     */
+    public IntDynamicArray(int initCapacity) {
+        if (initCapacity < 1) {
+            throw new IllegalArgumentException("Capacity cannot be zero or negative.");
+        }
+        storage = new int[initCapacity];
+    }
+
+    /**
+     * Reports the current number of elements.
+     *
+     * @return the number of elements currently in the array
+     */
+    public int size() {
+        return currentSize;
+    }
+
+    /**
+     * Reports the maximum number of elements before expansion is needed.
+     *
+     * @return the current capacity of the storage array
+     */
+    public int capacity() {
+        return storage.length;
+    }
+
+    /**
+     * Changes the item at the given index to be the given value.
+     *
+     * @param index the index to set
+     * @param value the new value
+     * @return the old value at the specified index
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    public int set(int index, int value) {
+        checkIndex(index);
+        int oldValue = storage[index];
+        storage[index] = value;
+        return oldValue;
+    }
+
+    /**
+     * Returns the item at the given index.
+     *
+     * @param index the index to retrieve
+     * @return the element at the specified index
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    public int get(int index) {
+        checkIndex(index);
+        return storage[index];
+    }
+
+    /**
+     * Appends an element to the end of the list.
+     * Doubles the capacity if no space is available.
+     *
+     * @param value the value to add
+     * @return true (as specified by Collection.add)
+     */
+    public boolean add(int value) {
+        if (currentSize == storage.length) {
+            grow(currentSize + 1);
+        }
+        storage[currentSize++] = value;
+        return true;
+    }
+
+    /**
+     * Inserts the given value at the given index.
+     * Shifts elements if needed, doubles capacity if no space available.
+     *
+     * @param index the index at which to insert
+     * @param value the value to insert
+     * @throws IndexOutOfBoundsException if index is invalid for insertion
+     */
+    public void add(int index, int value) {
+        if (index < 0 || index > currentSize) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+        }
+        if (currentSize == storage.length) {
+            grow(currentSize + 1);
+        }
+        System.arraycopy(storage, index, storage, index + 1, currentSize - index);
+        storage[index] = value;
+        currentSize++;
+    }
+
+    /**
+     * Removes and returns the element at the given index.
+     * Shifts elements to remove the gap.
+     * Halves capacity if number of elements falls below 1/3 of capacity.
+     *
+     * @param index the index of the element to remove
+     * @return the element that was removed
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    public int remove(int index) {
+        checkIndex(index);
+        int removedElement = storage[index];
+        System.arraycopy(storage, index + 1, storage, index, currentSize - index - 1);
+        currentSize--;
+        shrink();
+        return removedElement;
+    }
+
+    /**
+     * Grows the capacity to at least minCapacity in one step.
+     * Does nothing if the capacity is already large enough.
+     *
+     * @param minCapacity the number of elements that must fit
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > storage.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Appends a range of an int array in one copy, growing at most once.
+     *
+     * @param values the source
+     * @param offset the index of the first value to add
+     * @param length the number of values
+     * @throws IndexOutOfBoundsException if the range is outside values
+     */
+    public void addAll(int[] values, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > values.length - length) {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " out of bounds!");
+        }
+        ensureCapacity(currentSize + length);
+        System.arraycopy(values, offset, storage, currentSize, length);
+        currentSize += length;
+    }
+
+    /**
+     * Copies a range of elements into an int array.
+     *
+     * @param index the index of the first element to copy
+     * @param dest the destination
+     * @param destOffset where the first element goes in dest
+     * @param length the number of elements
+     * @throws IndexOutOfBoundsException if the range is outside this array or dest
+     */
+    public void copyTo(int index, int[] dest, int destOffset, int length) {
+        if (index < 0 || length < 0 || index > currentSize - length) {
+            throw new IndexOutOfBoundsException("Range " + index + "+" + length + " out of bounds!");
+        }
+        System.arraycopy(storage, index, dest, destOffset, length);
+    }
+
+    /**
+     * Sets every element from index from up to (not including) to.
+     *
+     * @param from the first index to set
+     * @param to the index after the last one to set
+     * @param value the value
+     * @throws IndexOutOfBoundsException if the range is invalid
+     */
+    public void fill(int from, int to, int value) {
+        if (from < 0 || to > currentSize || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + ".." + to + " out of bounds!");
+        }
+        Arrays.fill(storage, from, to, value);
+    }
+
+    /**
+     * Removes the elements from index from up to (not including) to in one
+     * shift, then shrinks with a single reallocation if needed.
+     *
+     * @param from the index of the first element to remove
+     * @param to the index after the last element to remove
+     * @throws IndexOutOfBoundsException if the range is invalid
+     */
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > currentSize || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + ".." + to + " out of bounds!");
+        }
+        System.arraycopy(storage, to, storage, from, currentSize - to);
+        currentSize -= to - from;
+        shrink();
+    }
+
+    /**
+     * Shrinks the capacity to the number of elements (at least 1).
+     */
+    public void trimToSize() {
+        if (storage.length > Math.max(currentSize, 1)) {
+            storage = Arrays.copyOf(storage, Math.max(currentSize, 1));
+        }
+    }
+
+    /**
+     * Removes every element but keeps the capacity, so a scratch list can
+     * be refilled without allocating.
+     */
+    public void clear() {
+        currentSize = 0;
+    }
+
+    /**
+     * Copies the elements into a new array of exactly size() ints.
+     *
+     * @return the elements
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(storage, currentSize);
+    }
+
+    /**
+     * Helper that reallocates the storage to at least minCapacity elements,
+     * doubling it if that is more.
+     *
+     * @param minCapacity the number of elements that must fit
+     */
+    private void grow(int minCapacity) {
+        storage = Arrays.copyOf(storage, Math.max(minCapacity, storage.length * 2));
+    }
+
+    /**
+     * Helper that halves the capacity while fewer than 1/3 of it is used,
+     * with the same hysteresis as DynamicArray.
+     */
+    private void shrink() {
+        int capacity = storage.length;
+        while (capacity > INITCAP && currentSize * 3 < capacity) {
+            capacity /= 2;
+        }
+        if (capacity != storage.length) {
+            storage = Arrays.copyOf(storage, capacity);
+        }
+    }
+
+    /**
+     * Helper that checks an index of an existing element.
+     *
+     * @param index the index
+     * @throws IndexOutOfBoundsException if index is invalid
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= currentSize) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+        }
+    }
+
+    /**
+     * Returns a string representation of this array.
+     * This method is provided for debugging purposes.
+     *
+     * @return a string representation of the array
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder("Int dynamic array with " + size()
+            + " items and a capacity of " + capacity() + ":");
+        for (int i = 0; i < size(); i++) {
+            s.append("\n [" + i + "]: " + storage[i]);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Main method for testing the IntDynamicArray implementation.
+     *
+     * @param args command line arguments (not used)
+     */
+    public static void main(String[] args) {
+        IntDynamicArray ida = new IntDynamicArray();
+        if (ida.size() == 0 && ida.capacity() == 2) {
+            System.out.println("Yay 1");
+        }
+
+        boolean ok = true;
+        for (int i = 0; i < 3; i++) {
+            ok = ok && ida.add(i * 5);
+        }
+        if (ok && ida.size() == 3 && ida.get(2) == 10 && ida.capacity() == 4) {
+            System.out.println("Yay 2");
+        }
+
+        ida.add(1, -10);
+        ida.add(4, 100);
+        if (ida.set(1, -20) == -10 && ida.get(2) == 5 && ida.size() == 5
+            && ida.capacity() == 8) {
+            System.out.println("Yay 3");
+        }
+
+        if (ida.remove(0) == 0 && ida.remove(0) == -20 && ida.remove(2) == 100
+            && ida.size() == 2 && ida.capacity() == 4) {
+            System.out.println("Yay 4");
+        }
+
+        // bulk: one growth for the whole range, then copy and fill
+        ida.addAll(new int[] {1, 2, 3, 4, 5, 6, 7}, 2, 5);
+        ida.fill(0, 2, 9);
+        int[] out = new int[3];
+        ida.copyTo(4, out, 0, 3);
+        boolean bulk = ida.size() == 7 && ida.capacity() == 8 && Arrays.equals(out, new int[] {5, 6, 7})
+            && Arrays.equals(ida.toArray(), new int[] {9, 9, 3, 4, 5, 6, 7});
+        ida.removeRange(1, 6);
+        ida.trimToSize();
+        if (bulk && ida.size() == 2 && ida.capacity() == 2 && ida.get(1) == 7) {
+            System.out.println("Yay 5");
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/**
+ * A storage and evolution strategy that a Simulation can delegate to
+ * instead of its grid of Cell objects.
+ * Implementations own the cell state for a fixed rows x cols grid and
+ * advance it one generation at a time using a Life-like Rule, Conway's
+ * unless setRule() was called.
+ * Most engines only have the states dead and alive; GenerationsEngine also
+ * runs rules with dying states, which the get/setState methods expose.
+ *
+ * @author Your Name Here
+ */
+public interface LifeEngine {
+
+    /**
+     * Gets the number of rows this engine was built for.
+     *
+     * @return the number of rows
+     */
+    int getRows();
+
+    /**
+     * Gets the number of columns this engine was built for.
+     *
+     * @return the number of columns
+     */
+    int getCols();
+
+    /**
+     * Checks whether the engine is limited to its rows x cols grid.
+     * Unbounded engines treat rows x cols as a viewport and accept cells
+     * outside it.
+     *
+     * @return true if cells outside the grid do not exist
+     */
+    default boolean isBounded() {
+        return true;
+    }
+
+    /**
+     * Changes how the edges of the grid behave. Engines that only support a
+     * bounded grid keep the default, which rejects anything else.
+     *
+     * @param topology the new topology
+     * @throws UnsupportedOperationException if the engine cannot run it
+     */
+    default void setTopology(Topology topology) {
+        if (topology != Topology.BOUNDED) {
+            throw new UnsupportedOperationException(getClass().getSimpleName()
+                    + " does not support the " + topology + " topology.");
+        }
+    }
+
+    /**
+     * Changes the rule the next generations are computed with. Engines
+     * that only run Conway's rule keep the default, which rejects anything
+     * else.
+     *
+     * @param rule the new rule
+     * @throws UnsupportedOperationException if the engine cannot run it
+     */
+    default void setRule(Rule rule) {
+        if (!rule.isConway()) {
+            throw new UnsupportedOperationException(getClass().getSimpleName()
+                    + " does not support the rule " + rule);
+        }
+    }
+
+    /**
+     * Gets the rule the grid evolves by. Engines that only run Conway's
+     * rule keep the default.
+     *
+     * @return the rule
+     */
+    default Rule getRule() {
+        return Rule.CONWAY;
+    }
+
+    /**
+     * Gets the number of states a cell can be in.
+     *
+     * @return 2 (dead and alive) unless the engine has more
+     */
+    default int getStates() {
+        return 2;
+    }
+
+    /**
+     * Gets the state of the cell at row/col: 0 for dead, 1 for alive, and
+     * above that the engine's other states, such as the dying states of a
+     * Generations rule.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the state, 0 to getStates() - 1
+     */
+    default int getState(int row, int col) {
+        return isAlive(row, col) ? 1 : 0;
+    }
+
+    /**
+     * Puts a dead cell into the given state, as when a multi-state pattern
+     * is loaded. State 1 is the same as setAlive(). Engines with only two
+     * states keep the default, which rejects anything above 1.
+     *
+     * @param row the row of the cell, which must be dead (as after clear())
+     * @param col the column of the cell
+     * @param state the new state
+     * @throws UnsupportedOperationException if the engine has no such state
+     */
+    default void setState(int row, int col, int state) {
+        if (state == 1) {
+            setAlive(row, col);
+        } else if (state != 0) {
+            throw new UnsupportedOperationException(getClass().getSimpleName()
+                    + " has no state " + state);
+        }
+    }
+
+    /**
+     * Copies the states of one row, as getState() would give them.
+     * Engines that keep states in a flat array override this with a single
+     * array copy.
+     *
+     * @param row the row to copy
+     * @param states the destination
+     * @param offset where the first column goes in states
+     */
+    default void copyStates(int row, byte[] states, int offset) {
+        for (int j = 0; j < getCols(); j++) {
+            states[offset + j] = (byte) getState(row, j);
+        }
+    }
+
+    /**
+     * Checks if the cell at row/col is alive in the current generation.
+     * You may assume row and col are inside the grid.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return true if the cell is alive, false otherwise
+     */
+    boolean isAlive(int row, int col);
+
+    /**
+     * Gets the age of the cell at row/col. Dead cells have age 0.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the age of the cell
+     */
+    int getAge(int row, int col);
+
+    /**
+     * Sets the cell at row/col to alive with age 1.
+     * Does nothing if the cell is already alive (same as Cell.setAlive()).
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     */
+    void setAlive(int row, int col);
+
+    /**
+     * Kills the cell at row/col, or clears a dying state back to dead.
+     * Does nothing if the cell is already dead (same as Cell.reset()).
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     */
+    void setDead(int row, int col);
+
+    /**
+     * Sets length cells of one row alive, starting at row/col, as if
+     * setAlive() was called for each. Engines with packed rows override
+     * this to fill whole words at once.
+     *
+     * @param row the row of the run
+     * @param col the column of the first cell
+     * @param length the number of cells; the run must stay inside the grid
+     *               unless the engine is unbounded
+     */
+    default void setAliveRun(int row, int col, int length) {
+        for (int j = col; j < col + length; j++) {
+            setAlive(row, j);
+        }
+    }
+
+    /**
+     * Sets the age of an alive cell. Used when importing existing state.
+     * Does nothing if the cell is dead or the age is less than 1.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param age the new age
+     */
+    void setAge(int row, int col, int age);
+
+    /**
+     * Sets the cells of one row alive with the given ages, as if setAlive()
+     * and setAge() were called for each. Used when restoring a snapshot;
+     * engines with packed rows override this to take whole words at once.
+     *
+     * @param row the row, which must be all dead (as after clear())
+     * @param bits the cells to set, bit b of word w being column w * 64 + b
+     * @param ages the ages of the set cells in column order
+     */
+    default void restoreRow(int row, long[] bits, int[] ages) {
+        int k = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                int col = (w << 6) + Long.numberOfTrailingZeros(word);
+                setAlive(row, col);
+                setAge(row, col, ages[k++]);
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Copies the ages of one row, 0 for dead cells, as getAge() would give
+     * them. Engines that keep ages in a flat array override this with a
+     * single array copy.
+     *
+     * @param row the row to copy
+     * @param ages the destination
+     * @param offset where the first column goes in ages
+     */
+    default void copyAges(int row, int[] ages, int offset) {
+        for (int j = 0; j < getCols(); j++) {
+            ages[offset + j] = getAge(row, j);
+        }
+    }
+
+    /**
+     * Gets the number of live cells. Engines keep this up to date as they
+     * step and edit, so it is O(1). Unbounded engines count the whole plane.
+     *
+     * @return the population
+     */
+    long getPopulation();
+
+    /**
+     * Gets the sum of the ages of all live cells, in O(1).
+     *
+     * @return the total age
+     */
+    long getAgeSum();
+
+    /**
+     * Gets the age of the oldest live cell, or 0 if there is none, in
+     * amortized O(1).
+     *
+     * @return the maximum age
+     */
+    int getMaxAge();
+
+    /**
+     * Adds delta to the age of every live cell that is older than minAge.
+     * Used when a Simulation skips whole periods of a cycle. Engines that
+     * keep ages in a flat array override this to skip getAge/setAge.
+     *
+     * @param minAge only cells with an age above this are changed
+     * @param delta the number of generations to add
+     */
+    default void addAge(int minAge, int delta) {
+        for (int i = 0; i < getRows(); i++) {
+            for (int j = 0; j < getCols(); j++) {
+                int a = getAge(i, j);
+                if (a > minAge) {
+                    setAge(i, j, a + delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets a 64-bit hash of the set of live cells: the XOR of cellKey() over
+     * every live cell, so that equal states hash equal on every engine.
+     * Ages are left out. Engines keep this up to date as cells are born and
+     * die, so it is O(1); the default recomputes it in O(rows * cols).
+     * Engines with dying states mix those in as well.
+     *
+     * @return the hash, 0 if no cell is alive
+     */
+    default long getStateHash() {
+        long hash = 0;
+        for (int i = 0; i < getRows(); i++) {
+            for (int j = 0; j < getCols(); j++) {
+                if (isAlive(i, j)) {
+                    hash ^= cellKey(i, j);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Gets the random-looking key of one cell that state hashes are made of
+     * (the SplitMix64 finalizer of its packed coordinates). Toggling a cell
+     * XORs its key into the hash.
+     *
+     * @param row the row of the cell, may be outside the grid
+     * @param col the column of the cell, may be outside the grid
+     * @return the key
+     */
+    static long cellKey(int row, int col) {
+        long z = (((long) row << 32) | (col & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gets the XOR of the keys of the cells set in a 64-bit word of a row.
+     *
+     * @param row the row of the cells
+     * @param col the column of bit 0
+     * @param bits the cells, bit b being column col + b
+     * @return the XOR of their cellKey()s
+     */
+    static long cellKeys(int row, int col, long bits) {
+        long keys = 0;
+        while (bits != 0) {
+            keys ^= cellKey(row, col + Long.numberOfTrailingZeros(bits));
+            bits &= bits - 1;
+        }
+        return keys;
+    }
+
+    /**
+     * Kills every cell in the grid.
+     */
+    void clear();
+
+    /**
+     * Advances the grid by ONE generation.
+     */
+    void step();
+}
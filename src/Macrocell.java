@@ -0,0 +1,337 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes Golly's Macrocell (.mc) format, which stores a pattern
+ * as the same shared quadtree HashLife uses. Every line is one distinct
+ * node, so a file is as large as the distinct structure of the pattern,
+ * not its area.
+ * <pre>
+ * [M2] (any text)
+ * #R B3/S23                 rule (optional, only Conway's rule is supported)
+ * #G 1000                   generation (optional)
+ * .*$..*$***$               an 8x8 leaf: rows end with $, . dead, * alive
+ * 4 1 0 0 1                 level, then nw ne sw se as earlier line numbers
+ * </pre>
+ * Node lines are numbered from 1 in the order they appear, 0 stands for
+ * the empty node, and the last line is the root. A level 1 line lists the
+ * four cell states (0 or 1) instead of line numbers.
+ *
+ * Reading builds the nodes directly in a HashLife universe, so nothing is
+ * expanded into cells. HashLife.copyInto then only visits the nodes that
+ * overlap the grid.
+ *
+ * @author Your Name Here
+ */
+public class Macrocell {
+
+    /**
+     * The start of the first line of every Macrocell file.
+     */
+    private static final String HEADER = "[M2]";
+
+    /**
+     * The level of the 8x8 leaf bitmaps.
+     */
+    private static final int LEAF_LEVEL = 3;
+
+    /**
+     * The side length of a leaf bitmap.
+     */
+    private static final int LEAF_SIZE = 1 << LEAF_LEVEL;
+
+    /**
+     * This class only has static methods.
+     */
+    private Macrocell() {
+    }
+
+    /**
+     * Reads a Macrocell file into a new universe. The center of the root
+     * node lands on the origin, and the generation is taken from #G.
+     *
+     * @param in the file; it is not closed
+     * @return the universe
+     * @throws IOException if the reader fails
+     * @throws IllegalArgumentException if the file is malformed or uses
+     *         another rule
+     */
+    public static HashLife read(Reader in) throws IOException {
+        BufferedReader lines = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        String line = lines.readLine();
+        if (line == null || !line.startsWith(HEADER)) {
+            throw new IllegalArgumentException("Not a Macrocell file.");
+        }
+
+        HashLife life = new HashLife();
+        HashLife.Node[] nodes = new HashLife.Node[1024];
+        int count = 0;
+        long generation = 0;
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            char c = line.charAt(0);
+            if (c == '#') {
+                if (line.startsWith("#G")) {
+                    generation = parseGeneration(line.substring(2).trim());
+                } else if (line.startsWith("#R")) {
+                    checkRule(line.substring(2).trim());
+                }
+                continue;
+            }
+            HashLife.Node node = c == '.' || c == '*' || c == '$'
+                    ? leaf(life, line)
+                    : inner(life, line, nodes, count);
+            if (++count == nodes.length) {
+                nodes = Arrays.copyOf(nodes, count * 2);
+            }
+            nodes[count] = node;
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("Macrocell file has no nodes.");
+        }
+        life.setRoot(nodes[count], generation);
+        return life;
+    }
+
+    /**
+     * Writes a universe as a Macrocell file. Each distinct non-empty node is
+     * written once, however often it occurs in the pattern.
+     *
+     * @param life the universe to save
+     * @param out where to write; it is not closed
+     * @throws IOException if the writer fails
+     */
+    public static void write(HashLife life, Writer out) throws IOException {
+        out.write(HEADER + " (GameOfLife)\n");
+        out.write("#R B3/S23\n");
+        if (life.getGenerations() > 0) {
+            out.write("#G " + life.getGenerations() + "\n");
+        }
+        HashLife.Node root = life.getRoot();
+        if (root.population == 0) {
+            // the root has to be some node; an empty leaf will do
+            out.write("$\n");
+            return;
+        }
+        writeNode(root, new IdentityHashMap<>(), out);
+    }
+
+    /**
+     * Helper that writes a node after its children and returns its line
+     * number.
+     *
+     * @param n the node, at least LEAF_LEVEL
+     * @param numbers the line numbers of the nodes written so far
+     * @param out where to write
+     * @return the line number, or 0 for an empty node
+     * @throws IOException if the writer fails
+     */
+    private static int writeNode(HashLife.Node n, Map<HashLife.Node, Integer> numbers, Writer out)
+            throws IOException {
+        if (n.population == 0) {
+            return 0;
+        }
+        Integer known = numbers.get(n);
+        if (known != null) {
+            return known;
+        }
+        if (n.level == LEAF_LEVEL) {
+            out.write(leafLine(n));
+        } else {
+            int nw = writeNode(n.nw, numbers, out);
+            int ne = writeNode(n.ne, numbers, out);
+            int sw = writeNode(n.sw, numbers, out);
+            int se = writeNode(n.se, numbers, out);
+            out.write(n.level + " " + nw + " " + ne + " " + sw + " " + se + "\n");
+        }
+        int number = numbers.size() + 1;
+        numbers.put(n, number);
+        return number;
+    }
+
+    /**
+     * Helper that draws a leaf as one bitmap line, leaving out dead cells at
+     * the end of a row and empty rows at the end.
+     *
+     * @param n a node of LEAF_LEVEL
+     * @return the line, including the line break
+     */
+    private static String leafLine(HashLife.Node n) {
+        StringBuilder line = new StringBuilder();
+        int end = 0;
+        for (int r = 0; r < LEAF_SIZE; r++) {
+            int last = -1;
+            for (int c = 0; c < LEAF_SIZE; c++) {
+                if (cell(n, r, c)) {
+                    last = c;
+                }
+            }
+            for (int c = 0; c <= last; c++) {
+                line.append(cell(n, r, c) ? '*' : '.');
+            }
+            line.append('$');
+            if (last >= 0) {
+                end = line.length();
+            }
+        }
+        line.setLength(end);
+        return line.append('\n').toString();
+    }
+
+    /**
+     * Helper that reads one cell of a small node.
+     *
+     * @param n the node
+     * @param r the row inside the node
+     * @param c the column inside the node
+     * @return true if the cell is alive
+     */
+    private static boolean cell(HashLife.Node n, int r, int c) {
+        for (int level = n.level; level > 0; level--) {
+            int half = 1 << (level - 1);
+            boolean south = r >= half;
+            boolean east = c >= half;
+            n = south ? (east ? n.se : n.sw) : (east ? n.ne : n.nw);
+            r -= south ? half : 0;
+            c -= east ? half : 0;
+        }
+        return n.population != 0;
+    }
+
+    /**
+     * Helper that builds a leaf from its bitmap line.
+     *
+     * @param life the universe the node belongs to
+     * @param line the bitmap
+     * @return the node, at LEAF_LEVEL
+     * @throws IllegalArgumentException if the bitmap is malformed
+     */
+    private static HashLife.Node leaf(HashLife life, String line) {
+        int[] bits = new int[LEAF_SIZE];
+        int r = 0;
+        int c = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == '$') {
+                r++;
+                c = 0;
+                continue;
+            }
+            if ((ch != '.' && ch != '*') || r >= LEAF_SIZE || c >= LEAF_SIZE) {
+                throw new IllegalArgumentException("Bad Macrocell leaf: " + line);
+            }
+            if (ch == '*') {
+                bits[r] |= 1 << c;
+            }
+            c++;
+        }
+        return square(life, bits, 0, 0, LEAF_LEVEL);
+    }
+
+    /**
+     * Helper that builds the node for a square of a leaf bitmap.
+     *
+     * @param life the universe the node belongs to
+     * @param bits the rows of the bitmap, bit c being column c
+     * @param top the first row of the square
+     * @param left the first column of the square
+     * @param level log2 of the side of the square
+     * @return the node
+     */
+    private static HashLife.Node square(HashLife life, int[] bits, int top, int left, int level) {
+        if (level == 0) {
+            return ((bits[top] >>> left) & 1) != 0 ? life.alive : life.dead;
+        }
+        int half = 1 << (level - 1);
+        return life.join(
+                square(life, bits, top, left, level - 1),
+                square(life, bits, top, left + half, level - 1),
+                square(life, bits, top + half, left, level - 1),
+                square(life, bits, top + half, left + half, level - 1));
+    }
+
+    /**
+     * Helper that builds a node from a "level nw ne sw se" line.
+     *
+     * @param life the universe the node belongs to
+     * @param line the line
+     * @param nodes the nodes read so far, from index 1
+     * @param count the number of nodes read so far
+     * @return the node
+     * @throws IllegalArgumentException if the line is malformed or refers
+     *         to a node that is not there or has the wrong level
+     */
+    private static HashLife.Node inner(HashLife life, String line, HashLife.Node[] nodes, int count) {
+        String[] parts = line.split("\\s+");
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Bad Macrocell node: " + line);
+        }
+        int level;
+        HashLife.Node[] children = new HashLife.Node[4];
+        try {
+            level = Integer.parseInt(parts[0]);
+            if (level < 1 || level > HashLife.MAX_LEVEL) {
+                throw new IllegalArgumentException("Bad Macrocell level: " + line);
+            }
+            for (int q = 0; q < 4; q++) {
+                int ref = Integer.parseInt(parts[q + 1]);
+                if (level == 1) {
+                    // the children of a level 1 node are cell states
+                    if (ref != 0 && ref != 1) {
+                        throw new IllegalArgumentException("Only two states are supported: " + line);
+                    }
+                    children[q] = ref == 1 ? life.alive : life.dead;
+                } else if (ref == 0) {
+                    children[q] = life.emptyNode(level - 1);
+                } else if (ref < 0 || ref > count || nodes[ref].level != level - 1) {
+                    throw new IllegalArgumentException("Bad Macrocell reference: " + line);
+                } else {
+                    children[q] = nodes[ref];
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad Macrocell node: " + line);
+        }
+        return life.join(children[0], children[1], children[2], children[3]);
+    }
+
+    /**
+     * Helper that parses the value of a #G line.
+     *
+     * @param text the generation
+     * @return the generation
+     * @throws IllegalArgumentException if it is not a non-negative number
+     */
+    private static long parseGeneration(String text) {
+        try {
+            long generation = Long.parseLong(text);
+            if (generation >= 0) {
+                return generation;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Bad Macrocell generation: " + text);
+    }
+
+    /**
+     * Helper that rejects any rule but Conway's, which is all HashLife runs.
+     *
+     * @param rule the value of the #R line
+     * @throws IllegalArgumentException if the rule is not B3/S23
+     */
+    private static void checkRule(String rule) {
+        String r = rule.replace(" ", "").toUpperCase();
+        if (!r.equals("B3/S23") && !r.equals("23/3")) {
+            throw new IllegalArgumentException("Unsupported rule: " + rule);
+        }
+    }
+}
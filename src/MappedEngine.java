@@ -0,0 +1,755 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A LifeEngine that keeps the bit-packed grid outside the Java heap, either
+ * in direct buffers or in a memory-mapped file, so the grid can be far
+ * larger than the heap: 100,000 x 100,000 cells take two generations of
+ * 1.25 GB each, and the heap only holds a few rows at a time.
+ *
+ * The rows are laid out like BitboardEngine's (bit b of word w is column
+ * w * 64 + b) and evolved with its rule formulas. step() streams the current
+ * generation through three rows of heap scratch and writes the next one
+ * into the other half of the storage, then flips a flag in the header, so
+ * the previous generation stays intact until the new one is complete.
+ *
+ * With a file the OS pages the grid in and out as it is touched, and
+ * open() continues a run where it stopped without a load step: the header
+ * holds the size, the rule, the generation, the population and the state
+ * hash. The file is little-endian:
+ * <pre>
+ * header   "GOLM", version (short), current half (byte), 0 (byte),
+ *          rows (int), cols (int), generation (long),
+ *          rule as Rule.getTransitions() (int), 0 (int),
+ *          population (long), state hash (long), padded to 64 bytes
+ * halves   two generations of rows x (cols + 63) / 64 words each
+ * </pre>
+ * Ages are not kept (every live cell has age 1), since even a byte per cell
+ * would be eight times the grid. The grid is bounded.
+ *
+ * @author Your Name Here
+ */
+public class MappedEngine implements LifeEngine, Closeable {
+
+    /**
+     * The first four bytes of every mapped world, "GOLM".
+     */
+    public static final int MAGIC = 0x4D4C4F47;
+
+    /**
+     * The version written by this class.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * The size of the header in bytes, which is also where the rows start.
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * The largest buffer a chunk of rows is mapped into. A single buffer
+     * cannot pass 2 GB, so bigger grids are split into chunks of whole rows.
+     */
+    private static final int CHUNK_BYTES = 1 << 30;
+
+    /**
+     * The number of rows in the grid.
+     */
+    private final int rows;
+
+    /**
+     * The number of columns in the grid.
+     */
+    private final int cols;
+
+    /**
+     * The number of 64-bit words needed to hold one row.
+     */
+    private final int words;
+
+    /**
+     * Mask of the valid bits in the last word of each row.
+     */
+    private final long lastMask;
+
+    /**
+     * The number of rows in every chunk but the last.
+     */
+    private final int chunkRows;
+
+    /**
+     * The header, at the start of the file for a mapped engine.
+     */
+    private final ByteBuffer header;
+
+    /**
+     * The two generations as chunks of rows, indexed by half and then by
+     * row / chunkRows.
+     */
+    private final ByteBuffer[][] chunks;
+
+    /**
+     * The same chunks viewed as longs.
+     */
+    private final LongBuffer[][] halves;
+
+    /**
+     * The mapped file, or null for direct buffers.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The half that holds the current generation, 0 or 1.
+     */
+    private int current;
+
+    /**
+     * The rule the grid evolves by.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * The rule as word masks, see BitboardEngine.ruleMasks(Rule), or null
+     * for Conway's rule.
+     */
+    private long[] ruleMasks;
+
+    /**
+     * The number of times step() has run since the world was created or
+     * cleared.
+     */
+    private long generation;
+
+    /**
+     * The number of live cells in the current generation.
+     */
+    private long population;
+
+    /**
+     * The XOR of the keys of the live cells, see LifeEngine.getStateHash().
+     */
+    private long stateHash;
+
+    /**
+     * Constructs an engine in direct (off-heap) buffers with every cell
+     * dead. The buffers count against -XX:MaxDirectMemorySize, which
+     * defaults to the maximum heap size.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    public MappedEngine(int rows, int cols) {
+        this(rows, cols, null, null);
+        for (int h = 0; h < 2; h++) {
+            for (int c = 0; c < halves[h].length; c++) {
+                chunks[h][c] = ByteBuffer.allocateDirect(chunkBytes(c)).order(ByteOrder.LITTLE_ENDIAN);
+                halves[h][c] = chunks[h][c].asLongBuffer();
+            }
+        }
+        writeHeader();
+    }
+
+    /**
+     * Helper constructor that sets up the geometry; the chunks are filled
+     * in by the caller.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @param header the mapped header, or null to allocate one
+     * @param channel the mapped file, or null
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    private MappedEngine(int rows, int cols, ByteBuffer header, FileChannel channel) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Grid dimensions must be positive.");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.words = (cols + 63) >>> 6;
+        this.lastMask = (cols & 63) == 0 ? -1L : (1L << (cols & 63)) - 1;
+        this.chunkRows = Math.max(1, CHUNK_BYTES / (words * 8));
+        this.header = header != null ? header
+                : ByteBuffer.allocateDirect(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.chunks = new ByteBuffer[2][(rows + chunkRows - 1) / chunkRows];
+        this.halves = new LongBuffer[2][chunks[0].length];
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a world in a new memory-mapped file with every cell dead,
+     * replacing the file if it exists. The file is sparse until cells are
+     * written, so creating even a huge world is instant.
+     *
+     * @param file where to keep the world
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @return the engine
+     * @throws IOException if the file cannot be created or mapped
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    public static MappedEngine create(Path file, int rows, int cols) throws IOException {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Grid dimensions must be positive.");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MappedEngine engine = map(channel, rows, cols);
+            engine.writeHeader();
+            return engine;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a world saved in a file by create() and continues from the last
+     * generation step() completed, with its rule and statistics.
+     *
+     * @param file the world
+     * @return the engine
+     * @throws IOException if the file cannot be read or mapped
+     * @throws IllegalArgumentException if the file is not a mapped world
+     */
+    public static MappedEngine open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            if (head.position() < HEADER_SIZE || head.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Not a mapped world.");
+            }
+            if (head.getShort(4) != VERSION) {
+                throw new IllegalArgumentException("Unsupported mapped world version " + head.getShort(4));
+            }
+            int rows = head.getInt(8);
+            int cols = head.getInt(12);
+            int half = head.get(6);
+            if (rows < 1 || cols < 1 || (half & ~1) != 0
+                    || channel.size() < HEADER_SIZE + 2 * (long) rows * ((cols + 63) >>> 6) * 8) {
+                throw new IllegalArgumentException("Corrupt mapped world header.");
+            }
+            MappedEngine engine = map(channel, rows, cols);
+            int transitions = head.getInt(24);
+            engine.current = half;
+            engine.generation = head.getLong(16);
+            engine.rule = Rule.of(transitions & 0x1FF, transitions >>> 9);
+            engine.ruleMasks = engine.rule.isConway() ? null : BitboardEngine.ruleMasks(engine.rule);
+            engine.population = head.getLong(32);
+            engine.stateHash = head.getLong(40);
+            return engine;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Helper that maps the header and every chunk of both halves.
+     *
+     * @param channel the file, open for reading and writing
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @return the engine, with the header fields not read yet
+     * @throws IOException if mapping fails
+     */
+    private static MappedEngine map(FileChannel channel, int rows, int cols) throws IOException {
+        MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        MappedEngine engine = new MappedEngine(rows, cols, head.order(ByteOrder.LITTLE_ENDIAN), channel);
+        long halfBytes = (long) rows * engine.words * 8;
+        for (int h = 0; h < 2; h++) {
+            long start = HEADER_SIZE + h * halfBytes;
+            for (int c = 0; c < engine.halves[h].length; c++) {
+                long offset = start + (long) c * engine.chunkRows * engine.words * 8;
+                engine.chunks[h][c] = channel.map(FileChannel.MapMode.READ_WRITE, offset, engine.chunkBytes(c))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                engine.halves[h][c] = engine.chunks[h][c].asLongBuffer();
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Helper that gives the size of a chunk; the last one may be short.
+     *
+     * @param c the chunk index
+     * @return the size in bytes
+     */
+    private int chunkBytes(int c) {
+        int n = Math.min(chunkRows, rows - c * chunkRows);
+        return n * words * 8;
+    }
+
+    /**
+     * Writes everything in the header but the magic number and version
+     * from the fields.
+     */
+    private void writeHeader() {
+        header.putInt(0, MAGIC);
+        header.putShort(4, VERSION);
+        header.put(6, (byte) current);
+        header.putInt(8, rows);
+        header.putInt(12, cols);
+        header.putLong(16, generation);
+        header.putInt(24, rule.getTransitions());
+        header.putLong(32, population);
+        header.putLong(40, stateHash);
+    }
+
+    /**
+     * Helper that writes the statistics after an edit, so the header always
+     * matches the cells in the file.
+     */
+    private void writeCounts() {
+        header.putLong(32, population);
+        header.putLong(40, stateHash);
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Every Life-like rule is supported, as on BitboardEngine. The rule is
+     * saved in the header.
+     *
+     * @param rule the new rule
+     * @throws UnsupportedOperationException if the rule has dying states
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule.getStates() > 2) {
+            throw new UnsupportedOperationException(getClass().getSimpleName()
+                    + " only has two states; use GenerationsEngine for " + rule);
+        }
+        this.rule = rule;
+        this.ruleMasks = rule.isConway() ? null : BitboardEngine.ruleMasks(rule);
+        header.putInt(24, rule.getTransitions());
+    }
+
+    /**
+     * Gets the rule the grid evolves by, which open() reads from the file.
+     *
+     * @return the rule
+     */
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Gets the number of generations computed since the world was created
+     * or last cleared, which open() reads from the file.
+     *
+     * @return the generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Checks whether the world lives in a file.
+     *
+     * @return true for a memory-mapped file, false for direct buffers
+     */
+    public boolean isMapped() {
+        return channel != null;
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return ((chunk(current, row).get(offset(row) + (col >>> 6)) >>> col) & 1L) != 0;
+    }
+
+    @Override
+    public int getAge(int row, int col) {
+        return isAlive(row, col) ? 1 : 0;
+    }
+
+    @Override
+    public void setAlive(int row, int col) {
+        LongBuffer chunk = chunk(current, row);
+        int index = offset(row) + (col >>> 6);
+        long word = chunk.get(index);
+        if (((word >>> col) & 1L) == 0) {
+            chunk.put(index, word | (1L << col));
+            population++;
+            stateHash ^= LifeEngine.cellKey(row, col);
+            writeCounts();
+        }
+    }
+
+    @Override
+    public void setDead(int row, int col) {
+        LongBuffer chunk = chunk(current, row);
+        int index = offset(row) + (col >>> 6);
+        long word = chunk.get(index);
+        if (((word >>> col) & 1L) != 0) {
+            chunk.put(index, word & ~(1L << col));
+            population--;
+            stateHash ^= LifeEngine.cellKey(row, col);
+            writeCounts();
+        }
+    }
+
+    /**
+     * Sets a run of cells alive a word at a time.
+     *
+     * @param row the row of the run
+     * @param col the column of the first cell
+     * @param length the number of cells
+     */
+    @Override
+    public void setAliveRun(int row, int col, int length) {
+        LongBuffer chunk = chunk(current, row);
+        int base = offset(row);
+        int end = col + length;
+        for (int w = col >>> 6; w < words && w << 6 < end; w++) {
+            long word = chunk.get(base + w);
+            long born = BitboardEngine.runMask(w, col, end) & ~word;
+            if (born != 0) {
+                chunk.put(base + w, word | born);
+                population += Long.bitCount(born);
+                stateHash ^= LifeEngine.cellKeys(row, w << 6, born);
+            }
+        }
+        writeCounts();
+    }
+
+    /**
+     * Does nothing: every live cell has age 1.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param age the new age
+     */
+    @Override
+    public void setAge(int row, int col, int age) {
+    }
+
+    /**
+     * Restores a row a word at a time. The ages are dropped.
+     *
+     * @param row the row, which must be all dead
+     * @param bits the cells to set
+     * @param ages the ages of the set cells in column order
+     */
+    @Override
+    public void restoreRow(int row, long[] bits, int[] ages) {
+        LongBuffer chunk = chunk(current, row);
+        int base = offset(row);
+        for (int w = 0; w < words; w++) {
+            long word = bits[w];
+            if (word != 0) {
+                chunk.put(base + w, chunk.get(base + w) | word);
+                population += Long.bitCount(word);
+                stateHash ^= LifeEngine.cellKeys(row, w << 6, word);
+            }
+        }
+        writeCounts();
+    }
+
+    /**
+     * Copies a row of ages, 1 for every live cell, reading each word once.
+     *
+     * @param row the row to copy
+     * @param ages the destination
+     * @param offset where the first column goes in ages
+     */
+    @Override
+    public void copyAges(int row, int[] ages, int offset) {
+        LongBuffer chunk = chunk(current, row);
+        int base = offset(row);
+        for (int w = 0; w < words; w++) {
+            long word = chunk.get(base + w);
+            int end = Math.min(64, cols - (w << 6));
+            for (int b = 0; b < end; b++) {
+                ages[offset + (w << 6) + b] = (int) ((word >>> b) & 1L);
+            }
+        }
+    }
+
+    /**
+     * Does nothing: every live cell stays at age 1.
+     *
+     * @param minAge only cells with an age above this are changed
+     * @param delta the number of generations to add
+     */
+    @Override
+    public void addAge(int minAge, int delta) {
+    }
+
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    @Override
+    public long getAgeSum() {
+        return population;
+    }
+
+    @Override
+    public int getMaxAge() {
+        return population > 0 ? 1 : 0;
+    }
+
+    @Override
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Kills every cell and sets the generation back to 0. A world that is
+     * already empty is not touched, so loading a pattern into a new file
+     * only writes the pages the pattern lands on.
+     */
+    @Override
+    public void clear() {
+        if (population != 0) {
+            long[] zeros = new long[words];
+            for (int r = 0; r < rows; r++) {
+                writeRow(current, r, zeros, 0);
+            }
+        }
+        population = 0;
+        stateHash = 0;
+        generation = 0;
+        writeHeader();
+    }
+
+    /**
+     * Advances the grid by ONE generation. Three rows of the current
+     * generation are held on the heap at a time, each padded with an empty
+     * word at both ends so the west and east neighbors need no bounds check.
+     */
+    @Override
+    public void step() {
+        int next = current ^ 1;
+        long[] above = new long[words + 2];
+        long[] mid = new long[words + 2];
+        long[] below = new long[words + 2];
+        long[] out = new long[words];
+        readRow(current, 0, mid);
+        long count = 0;
+        long keys = 0;
+        for (int r = 0; r < rows; r++) {
+            if (r + 1 < rows) {
+                readRow(current, r + 1, below);
+            } else {
+                Arrays.fill(below, 0L);
+            }
+            for (int w = 0; w < words; w++) {
+                int i = w + 1;
+                long a = above[i];
+                long m = mid[i];
+                long b = below[i];
+                long aw = (a << 1) | (above[i - 1] >>> 63);
+                long ae = (a >>> 1) | (above[i + 1] << 63);
+                long mw = (m << 1) | (mid[i - 1] >>> 63);
+                long me = (m >>> 1) | (mid[i + 1] << 63);
+                long bw = (b << 1) | (below[i - 1] >>> 63);
+                long be = (b >>> 1) | (below[i + 1] << 63);
+                long word = ruleMasks == null ? BitboardEngine.rule(aw, a, ae, mw, m, me, bw, b, be)
+                        : BitboardEngine.rule(ruleMasks, aw, a, ae, mw, m, me, bw, b, be);
+                word &= w == words - 1 ? lastMask : -1L;
+                out[w] = word;
+                count += Long.bitCount(word);
+                long diff = word ^ m;
+                if (diff != 0) {
+                    keys ^= LifeEngine.cellKeys(r, w << 6, diff);
+                }
+            }
+            writeRow(next, r, out, 0);
+            long[] spare = above;
+            above = mid;
+            mid = below;
+            below = spare;
+        }
+        current = next;
+        generation++;
+        population = count;
+        stateHash ^= keys;
+        writeHeader();
+    }
+
+    /**
+     * Writes the grid and header to the file, so that open() sees this
+     * generation even if the machine goes down. Without it the OS writes
+     * them back in its own time. Does nothing for direct buffers.
+     */
+    public void force() {
+        if (channel == null) {
+            return;
+        }
+        // the rows first, so the header never points at a half that is
+        // not on disk yet
+        for (ByteBuffer[] half : chunks) {
+            for (ByteBuffer chunk : half) {
+                ((MappedByteBuffer) chunk).force();
+            }
+        }
+        ((MappedByteBuffer) header).force();
+    }
+
+    /**
+     * Forces the file to disk and closes it. The engine must not be used
+     * afterwards. Does nothing for direct buffers, which the garbage
+     * collector frees.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            force();
+            channel.close();
+        }
+    }
+
+    /**
+     * Helper that finds the chunk holding a row.
+     *
+     * @param half 0 or 1
+     * @param row the row
+     * @return the chunk
+     */
+    private LongBuffer chunk(int half, int row) {
+        return halves[half][row / chunkRows];
+    }
+
+    /**
+     * Helper that gives the index of the first word of a row in its chunk.
+     *
+     * @param row the row
+     * @return the word index
+     */
+    private int offset(int row) {
+        return (row % chunkRows) * words;
+    }
+
+    /**
+     * Helper that copies a row into a heap array.
+     *
+     * @param half 0 or 1
+     * @param row the row
+     * @param dest the destination, with room for words longs after offset 1
+     */
+    private void readRow(int half, int row, long[] dest) {
+        LongBuffer chunk = chunk(half, row);
+        chunk.position(offset(row));
+        chunk.get(dest, 1, words);
+    }
+
+    /**
+     * Helper that copies a heap array into a row.
+     *
+     * @param half 0 or 1
+     * @param row the row
+     * @param src the words of the row
+     * @param from the index of the first word in src
+     */
+    private void writeRow(int half, int row, long[] src, int from) {
+        LongBuffer chunk = chunk(half, row);
+        chunk.position(offset(row));
+        chunk.put(src, from, words);
+    }
+
+    /**
+     * Main method for testing the MappedEngine: random soups must match the
+     * grid of Cells and BitboardEngine, and a world in a file must continue
+     * where it stopped after being closed and opened again.
+     *
+     * @param args command line arguments (not used)
+     * @throws IOException if the temporary file cannot be used
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = 70;
+        int cols = 1000;
+        boolean same = true;
+        for (String rule : new String[] {"B3/S23", "B36/S23", "B2/S"}) {
+            Simulation cells = new Simulation(rows, cols);
+            Simulation bitboard = new Simulation(new BitboardEngine(rows, cols, false));
+            Simulation mapped = new Simulation(new MappedEngine(rows, cols));
+            java.util.Random random = new java.util.Random(rule.hashCode());
+            for (Simulation sim : new Simulation[] {cells, bitboard, mapped}) {
+                sim.setRule(Rule.parse(rule));
+            }
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    if (random.nextInt(3) == 0) {
+                        cells.toggleCell(i, j);
+                        bitboard.toggleCell(i, j);
+                        mapped.toggleCell(i, j);
+                    }
+                }
+            }
+            int[] expected = new int[rows * cols];
+            int[] actual = new int[rows * cols];
+            for (int gen = 0; gen < 30; gen++) {
+                cells.evolve();
+                bitboard.evolve();
+                mapped.evolve();
+                bitboard.copyAges(expected);
+                mapped.copyAges(actual);
+                same = same && Arrays.equals(expected, actual)
+                        && mapped.getAliveCells() == cells.getAliveCells()
+                        && mapped.getStateHash() == cells.getStateHash();
+            }
+        }
+        if (same) {
+            System.out.println("Yay 1");
+        }
+
+        // a glider in a file, closed after 8 generations and opened again
+        Path file = java.nio.file.Files.createTempFile("world", ".map");
+        try {
+            long hash;
+            try (MappedEngine world = MappedEngine.create(file, 20, 100)) {
+                world.setRule(Rule.parse("B36/S23"));
+                int[][] glider = {{0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}};
+                for (int[] cell : glider) {
+                    world.setAlive(cell[0], cell[1] + 60);
+                }
+                for (int gen = 0; gen < 8; gen++) {
+                    world.step();
+                }
+                hash = world.getStateHash();
+            }
+            try (MappedEngine world = MappedEngine.open(file)) {
+                boolean resumed = world.isMapped() && world.getGeneration() == 8
+                        && world.getPopulation() == 5 && world.getStateHash() == hash
+                        && world.getRule().equals(Rule.parse("B36/S23")) && world.isAlive(4, 63)
+                        && new Simulation(world).getRule().equals(world.getRule());
+                for (int gen = 0; gen < 4; gen++) {
+                    world.step();
+                }
+                // one glider period later the same shape, one cell down and right
+                if (resumed && world.getPopulation() == 5 && world.isAlive(5, 64)
+                        && world.getStateHash() != hash) {
+                    System.out.println("Yay 2");
+                }
+            }
+        } finally {
+            java.nio.file.Files.delete(file);
+        }
+    }
+}
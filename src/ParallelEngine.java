@@ -0,0 +1,217 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A BitboardEngine that splits each generation into bands of rows and
+ * evolves them on a ForkJoinPool.
+ * Every band reads only the current generation and writes only its own rows
+ * of the next one, so the result is bit-identical to the sequential step().
+ *
+ * @author Your Name Here
+ */
+public class ParallelEngine extends BitboardEngine {
+
+    /**
+     * Bands smaller than this are not worth the cost of forking.
+     */
+    private static final int MIN_BAND_ROWS = 16;
+
+    /**
+     * The pool the bands run on.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The number of rows at or below which a band is computed directly.
+     */
+    private final int bandRows;
+
+    /**
+     * Constructs an engine that runs on the common ForkJoinPool.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     */
+    public ParallelEngine(int rows, int cols) {
+        this(rows, cols, true, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs an engine that runs on the given pool.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @param trackAges false to skip age bookkeeping for very large grids
+     * @param pool the pool to run the row bands on
+     */
+    public ParallelEngine(int rows, int cols, boolean trackAges, ForkJoinPool pool) {
+        super(rows, cols, trackAges);
+        this.pool = pool;
+        // a few bands per worker so a slow band does not stall the others
+        this.bandRows = Math.max(MIN_BAND_ROWS, rows / (pool.getParallelism() * 4));
+    }
+
+    /**
+     * Gets the pool the bands run on.
+     *
+     * @return the pool
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Advances the grid by ONE generation using all workers of the pool.
+     * Returns only after every band is done.
+     */
+    @Override
+    public void step() {
+        if (getRows() <= bandRows || pool.getParallelism() == 1) {
+            super.step();
+            return;
+        }
+        pool.invoke(new Band(0, getRows()));
+        swapBuffers();
+        totalRowStatistics();
+    }
+
+    /**
+     * A range of rows that splits itself in half until it is small enough.
+     */
+    private class Band extends RecursiveAction {
+
+        /**
+         * Version of the serialized form (RecursiveAction is Serializable).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The first row of the band.
+         */
+        private final int from;
+
+        /**
+         * One past the last row of the band.
+         */
+        private final int to;
+
+        /**
+         * Constructs a band covering rows [from, to).
+         *
+         * @param from the first row
+         * @param to one past the last row
+         */
+        Band(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= bandRows) {
+                stepRows(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Band(from, mid), new Band(mid, to));
+        }
+    }
+
+    /**
+     * Checks the banded step on a pool of four workers against
+     * BufferedEngine, then times the sequential and parallel engines on the
+     * same random soup, checks that they agree and prints the speedup. The
+     * common pool has one worker on a single-core machine, where step()
+     * never forks, hence the explicit pool for the check.
+     *
+     * @param args optional grid size and number of generations
+     */
+    public static void main(String[] args) {
+        ForkJoinPool four = new ForkJoinPool(4);
+        int rows = 300;
+        int cols = 200;
+        ParallelEngine banded = new ParallelEngine(rows, cols, true, four);
+        BufferedEngine buffered = new BufferedEngine(rows, cols);
+        Random soup = new Random(4);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (soup.nextInt(3) == 0) {
+                    banded.setAlive(i, j);
+                    buffered.setAlive(i, j);
+                }
+            }
+        }
+        boolean agree = banded.bandRows < rows;
+        for (int gen = 0; gen < 50 && agree; gen++) {
+            banded.step();
+            buffered.step();
+            agree = banded.getPopulation() == buffered.getPopulation()
+                    && banded.getAgeSum() == buffered.getAgeSum()
+                    && banded.getMaxAge() == buffered.getMaxAge()
+                    && banded.getStateHash() == buffered.getStateHash();
+            for (int i = 0; i < rows && agree; i++) {
+                for (int j = 0; j < cols; j++) {
+                    agree = agree && banded.getAge(i, j) == buffered.getAge(i, j);
+                }
+            }
+        }
+        four.shutdown();
+        if (agree) {
+            System.out.println("Yay 1");
+        }
+
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int gens = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        BitboardEngine sequential = new BitboardEngine(size, size, false);
+        ParallelEngine parallel = new ParallelEngine(size, size, false, ForkJoinPool.commonPool());
+        Random random = new Random(310);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (random.nextInt(3) == 0) {
+                    sequential.setAlive(i, j);
+                    parallel.setAlive(i, j);
+                }
+            }
+        }
+
+        long seqNanos = time(sequential, gens);
+        long parNanos = time(parallel, gens);
+
+        boolean same = true;
+        for (int i = 0; i < size && same; i++) {
+            for (int j = 0; j < size; j++) {
+                if (sequential.isAlive(i, j) != parallel.isAlive(i, j)) {
+                    same = false;
+                    break;
+                }
+            }
+        }
+
+        System.out.printf("%dx%d, %d generations, %d workers%n", size, size, gens,
+                parallel.getPool().getParallelism());
+        System.out.printf("sequential: %.2f ms/gen%n", seqNanos / 1e6 / gens);
+        System.out.printf("parallel:   %.2f ms/gen%n", parNanos / 1e6 / gens);
+        System.out.printf("speedup:    %.2fx%n", (double) seqNanos / parNanos);
+        System.out.println(same ? "results identical" : "RESULTS DIFFER");
+    }
+
+    /**
+     * Helper that warms an engine up and times a run of generations.
+     *
+     * @param engine the engine to run
+     * @param gens the number of timed generations
+     * @return the elapsed time in nanoseconds
+     */
+    private static long time(LifeEngine engine, int gens) {
+        for (int i = 0; i < 10; i++) {
+            engine.step();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < gens; i++) {
+            engine.step();
+        }
+        return System.nanoTime() - start;
+    }
+}
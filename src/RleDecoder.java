@@ -0,0 +1,314 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes an RLE pattern while reading it, one chunk at a time.
+ * Instead of building the whole body as a string and a boolean matrix the
+ * way Simulation.parseRle does, the decoder hands every run of live cells
+ * straight to a RunSink, so a long "500o" costs one call. Memory use is one
+ * fixed chunk buffer, whatever the size of the pattern.
+ *
+ * Like parseRle, runs past the width given in the header are cut off and
+ * rows past the height are ignored. Lines starting with # are comments.
+ *
+ * Multi-state patterns (Generations rules) use Golly's extended cells:
+ * . is dead, A to X are states 1 to 24, and a prefix p to y adds 24 times
+ * its position, so pA is 25 and yO is 255. b and o still mean 0 and 1.
+ *
+ * @author Your Name Here
+ */
+public class RleDecoder {
+
+    /**
+     * Receives the runs of live cells of a pattern.
+     */
+    public interface RunSink {
+
+        /**
+         * Called for every run of live cells, in reading order.
+         *
+         * @param row the pattern row of the run
+         * @param col the pattern column of the first cell
+         * @param length the number of live cells, at least 1
+         */
+        void aliveRun(int row, int col, int length);
+
+        /**
+         * Called for every run of cells in a state above 1, in reading
+         * order. The default ignores them, for sinks with only two states.
+         *
+         * @param row the pattern row of the run
+         * @param col the pattern column of the first cell
+         * @param length the number of cells, at least 1
+         * @param state the state of the cells, at least 2
+         */
+        default void stateRun(int row, int col, int length, int state) {
+        }
+    }
+
+    /**
+     * The number of characters read from the source at a time.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Where the pattern is read from.
+     */
+    private final Reader in;
+
+    /**
+     * The current chunk.
+     */
+    private final char[] chunk = new char[CHUNK_SIZE];
+
+    /**
+     * The position of the next character in chunk.
+     */
+    private int pos;
+
+    /**
+     * The number of valid characters in chunk.
+     */
+    private int limit;
+
+    /**
+     * True once the header (or the lack of one) has been dealt with.
+     */
+    private boolean headerRead;
+
+    /**
+     * The pattern width from the header, 10 if there is none (as in parseRle).
+     */
+    private int width = 10;
+
+    /**
+     * The pattern height from the header, 10 if there is none.
+     */
+    private int height = 10;
+
+    /**
+     * The rule from the header, or null if it has none.
+     */
+    private String rule;
+
+    /**
+     * Constructs a decoder that reads characters from a Reader. The reader
+     * is not closed by the decoder.
+     *
+     * @param in the source of the pattern
+     */
+    public RleDecoder(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Constructs a decoder that reads ASCII bytes from a channel. The
+     * channel is not closed by the decoder.
+     *
+     * @param channel the source of the pattern
+     */
+    public RleDecoder(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, StandardCharsets.US_ASCII.newDecoder(), CHUNK_SIZE));
+    }
+
+    /**
+     * Reads up to the end of the header line (x = 36, y = 9, rule = B3/S23),
+     * skipping comments before it. Does nothing if the header was read
+     * already; if the pattern has no header the defaults are kept.
+     *
+     * @throws IOException if the source cannot be read
+     * @throws IllegalArgumentException if x or y is not a number
+     */
+    public void readHeader() throws IOException {
+        if (headerRead) {
+            return;
+        }
+        headerRead = true;
+        int c;
+        while ((c = peek()) == '#' || c == '\n' || c == '\r') {
+            skipLine();
+        }
+        if (c != 'x') {
+            return; // no header, the body starts here
+        }
+
+        // the header is one short line, so building it as a string is fine
+        StringBuilder line = new StringBuilder();
+        while ((c = next()) != -1 && c != '\n' && c != '\r') {
+            line.append((char) c);
+        }
+        for (String part : line.toString().split(",")) {
+            int equals = part.indexOf('=');
+            if (equals < 0) {
+                continue;
+            }
+            String key = part.substring(0, equals).trim();
+            String value = part.substring(equals + 1).trim();
+            try {
+                if (key.equals("x")) {
+                    width = Integer.parseInt(value);
+                } else if (key.equals("y")) {
+                    height = Integer.parseInt(value);
+                } else if (key.equals("rule")) {
+                    rule = value;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad RLE header: " + line);
+            }
+        }
+    }
+
+    /**
+     * Gets the pattern width. Call readHeader() first.
+     *
+     * @return the width in cells
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the pattern height. Call readHeader() first.
+     *
+     * @return the height in cells
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the rule given in the header. Call readHeader() first.
+     *
+     * @return the rule text, for example B3/S23, or null if there was none
+     */
+    public String getRule() {
+        return rule;
+    }
+
+    /**
+     * Decodes the body up to the closing ! (or the end of the source) and
+     * passes every run of live cells to the sink, and every run of a higher
+     * state to its stateRun. Reads the header first if that has not been
+     * done.
+     *
+     * @param sink receives the runs
+     * @throws IOException if the source cannot be read
+     */
+    public void decode(RunSink sink) throws IOException {
+        readHeader();
+        int row = 0;
+        int col = 0;
+        int count = 0;
+        int prefix = 0;
+        boolean lineStart = true;
+        int c;
+        while ((c = next()) != -1) {
+            if (c == '\n' || c == '\r') {
+                lineStart = true;
+                continue;
+            }
+            if (lineStart && c == '#') {
+                skipLine();
+                continue;
+            }
+            lineStart = false;
+
+            if (c >= '0' && c <= '9') {
+                count = count * 10 + (c - '0');
+                continue;
+            }
+            if (c >= 'p' && c <= 'y') { // first half of a state above 24
+                prefix = c - 'p' + 1;
+                continue;
+            }
+            int n = count == 0 ? 1 : count;
+            count = 0;
+            int state = -1;
+            if (c == 'o') { // alive cells
+                state = 1;
+            } else if (c == 'b' || c == '.') { // dead cells
+                state = 0;
+            } else if (c >= 'A' && c <= 'X') { // multi-state cells
+                state = prefix * 24 + c - 'A' + 1;
+            }
+            prefix = 0;
+            if (state >= 0) {
+                int length = Math.min(n, width - col);
+                if (state > 0 && length > 0 && row < height) {
+                    if (state == 1) {
+                        sink.aliveRun(row, col, length);
+                    } else {
+                        sink.stateRun(row, col, length, state);
+                    }
+                }
+                col += Math.max(0, length);
+            } else if (c == '$') { // end of line
+                row += n;
+                col = 0;
+            } else if (c == '!') { // end of pattern
+                return;
+            }
+            // anything else (spaces) is ignored
+        }
+    }
+
+    /**
+     * Helper that returns the next character without consuming it.
+     *
+     * @return the character, or -1 at the end of the source
+     * @throws IOException if the source cannot be read
+     */
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return chunk[pos];
+    }
+
+    /**
+     * Helper that consumes the next character.
+     *
+     * @return the character, or -1 at the end of the source
+     * @throws IOException if the source cannot be read
+     */
+    private int next() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return chunk[pos++];
+    }
+
+    /**
+     * Helper that consumes everything up to and including the next line break.
+     *
+     * @throws IOException if the source cannot be read
+     */
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = next()) != -1 && c != '\n') {
+            // skip
+        }
+    }
+
+    /**
+     * Helper that reads the next chunk.
+     *
+     * @return false at the end of the source
+     * @throws IOException if the source cannot be read
+     */
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = in.read(chunk, 0, chunk.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * A Life-like rule: the neighbor counts at which a dead cell is born and
+ * the counts at which a live cell survives, such as B3/S23 (Conway's Game
+ * of Life) or B36/S23 (HighLife).
+ * A rule is compiled into two 9-bit masks when it is made, so applying it
+ * is one shift and one AND per cell, whatever the rule. Rules are
+ * immutable.
+ *
+ * A Generations rule such as B2/S/C3 (Brian's Brain) or 345/2/4 (Star
+ * Wars) has more than two states: state 0 is dead, 1 is alive, and a live
+ * cell that does not survive goes through the dying states 2, 3, ... before
+ * it is dead. Only state 1 counts as a neighbor, and a dying cell cannot be
+ * born again until it is dead. Only GenerationsEngine runs these.
+ *
+ * @author Your Name Here
+ */
+public final class Rule {
+
+    /**
+     * Conway's Game of Life, B3/S23, the default everywhere.
+     */
+    public static final Rule CONWAY = new Rule(1 << 3, (1 << 2) | (1 << 3), 2);
+
+    /**
+     * The most states a rule can have, so that a state fits in a byte.
+     */
+    public static final int MAX_STATES = 256;
+
+    /**
+     * The bits of a count mask, one for each of 0 to 8 neighbors.
+     */
+    private static final int ALL_COUNTS = (1 << 9) - 1;
+
+    /**
+     * Bit n is set if a dead cell with n live neighbors is born.
+     */
+    private final int birth;
+
+    /**
+     * Bit n is set if a live cell with n live neighbors survives.
+     */
+    private final int survival;
+
+    /**
+     * The number of cell states, 2 unless this is a Generations rule.
+     */
+    private final int states;
+
+    /**
+     * Constructs a rule from already checked masks.
+     *
+     * @param birth the birth mask
+     * @param survival the survival mask
+     * @param states the number of cell states
+     */
+    private Rule(int birth, int survival, int states) {
+        this.birth = birth;
+        this.survival = survival;
+        this.states = states;
+    }
+
+    /**
+     * Gets the rule with the given masks.
+     *
+     * @param birth bit n set if a dead cell with n neighbors is born
+     * @param survival bit n set if a live cell with n neighbors survives
+     * @return the rule
+     * @throws IllegalArgumentException if a mask has bits above 8
+     */
+    public static Rule of(int birth, int survival) {
+        return of(birth, survival, 2);
+    }
+
+    /**
+     * Gets the Generations rule with the given masks and number of states.
+     *
+     * @param birth bit n set if a dead cell with n neighbors is born
+     * @param survival bit n set if a live cell with n neighbors survives
+     * @param states the number of cell states, 2 for a Life-like rule
+     * @return the rule
+     * @throws IllegalArgumentException if a mask has bits above 8 or states
+     *         is not between 2 and MAX_STATES
+     */
+    public static Rule of(int birth, int survival, int states) {
+        if ((birth & ~ALL_COUNTS) != 0 || (survival & ~ALL_COUNTS) != 0) {
+            throw new IllegalArgumentException("Neighbor counts go from 0 to 8.");
+        }
+        if (states < 2 || states > MAX_STATES) {
+            throw new IllegalArgumentException("A rule has 2 to " + MAX_STATES + " states, not " + states);
+        }
+        if (birth == CONWAY.birth && survival == CONWAY.survival && states == 2) {
+            return CONWAY;
+        }
+        return new Rule(birth, survival, states);
+    }
+
+    /**
+     * Parses a rule in B/S notation (B3/S23, either part may come first,
+     * case does not matter) or in the older S/B notation (23/3). A third
+     * part gives the number of states of a Generations rule, as in B2/S/C3
+     * or /2/3. A Golly grid suffix such as :T64,64 is ignored, since the
+     * topology is set separately.
+     *
+     * @param text the rule
+     * @return the rule
+     * @throws IllegalArgumentException if the text is not a Life-like rule
+     */
+    public static Rule parse(String text) {
+        String r = text.trim().toUpperCase();
+        int colon = r.indexOf(':');
+        if (colon >= 0) {
+            r = r.substring(0, colon);
+        }
+        String[] parts = r.split("/", -1);
+        if (parts.length != 2 && parts.length != 3) {
+            throw new IllegalArgumentException("Not a Life-like rule: " + text);
+        }
+        int states = 2;
+        if (parts.length == 3) {
+            String c = parts[2].startsWith("C") || parts[2].startsWith("G") ? parts[2].substring(1) : parts[2];
+            try {
+                states = Integer.parseInt(c);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a Life-like rule: " + text);
+            }
+        }
+        String b;
+        String s;
+        if (parts[0].startsWith("B") && parts[1].startsWith("S")) {
+            b = parts[0].substring(1);
+            s = parts[1].substring(1);
+        } else if (parts[0].startsWith("S") && parts[1].startsWith("B")) {
+            s = parts[0].substring(1);
+            b = parts[1].substring(1);
+        } else {
+            // S/B: survival first, no letters
+            s = parts[0];
+            b = parts[1];
+        }
+        return of(counts(b, text), counts(s, text), states);
+    }
+
+    /**
+     * Helper that turns a list of digits into a count mask.
+     *
+     * @param digits the neighbor counts, for example "23"
+     * @param text the whole rule, for the error message
+     * @return the mask
+     * @throws IllegalArgumentException if a character is not a digit 0 to 8
+     */
+    private static int counts(String digits, String text) {
+        int mask = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '8') {
+                throw new IllegalArgumentException("Not a Life-like rule: " + text);
+            }
+            mask |= 1 << (c - '0');
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the birth mask.
+     *
+     * @return bit n set if a dead cell with n neighbors is born
+     */
+    public int getBirthMask() {
+        return birth;
+    }
+
+    /**
+     * Gets the survival mask.
+     *
+     * @return bit n set if a live cell with n neighbors survives
+     */
+    public int getSurvivalMask() {
+        return survival;
+    }
+
+    /**
+     * Gets the number of cell states.
+     *
+     * @return 2 for a Life-like rule, more for a Generations rule
+     */
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * Gets both masks as one 18-bit transition table: bit
+     * (alive ? 9 : 0) + n is set if a cell with n live neighbors is alive
+     * in the next generation. Evolve loops look cells up in this instead
+     * of branching on the rule. The dying states of a Generations rule are
+     * not in it.
+     *
+     * @return the table
+     */
+    public int getTransitions() {
+        return birth | (survival << 9);
+    }
+
+    /**
+     * Checks the fate of one cell.
+     *
+     * @param alive whether the cell is alive now
+     * @param neighbors the number of live neighbors, 0 to 8
+     * @return true if the cell is alive in the next generation
+     */
+    public boolean next(boolean alive, int neighbors) {
+        return ((getTransitions() >>> (neighbors + (alive ? 9 : 0))) & 1) != 0;
+    }
+
+    /**
+     * Gets the next state of one cell, including the dying states of a
+     * Generations rule.
+     *
+     * @param state the state of the cell now, 0 to getStates() - 1
+     * @param neighbors the number of live (state 1) neighbors, 0 to 8
+     * @return the state in the next generation
+     */
+    public int nextState(int state, int neighbors) {
+        if (state == 0) {
+            return (birth >>> neighbors) & 1;
+        }
+        if (state == 1 && ((survival >>> neighbors) & 1) != 0) {
+            return 1;
+        }
+        // a live cell starts dying, a dying one moves on until it is dead
+        return state + 1 < states ? state + 1 : 0;
+    }
+
+    /**
+     * Checks whether dead cells with no live neighbors are born, which
+     * makes empty space change. Engines that skip empty space cannot run
+     * such rules.
+     *
+     * @return true if the birth mask contains 0
+     */
+    public boolean isBirthFromNothing() {
+        return (birth & 1) != 0;
+    }
+
+    /**
+     * Checks whether this is Conway's rule, which some engines run on a
+     * faster path.
+     *
+     * @return true for B3/S23
+     */
+    public boolean isConway() {
+        return this == CONWAY;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Rule && ((Rule) other).birth == birth
+                && ((Rule) other).survival == survival && ((Rule) other).states == states;
+    }
+
+    @Override
+    public int hashCode() {
+        return getTransitions() ^ (states << 18);
+    }
+
+    /**
+     * Gets the rule in B/S notation, counts in increasing order, with the
+     * number of states for a Generations rule.
+     *
+     * @return for example "B36/S23" or "B2/S/C3"
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("B");
+        for (int n = 0; n <= 8; n++) {
+            if ((birth & (1 << n)) != 0) {
+                text.append(n);
+            }
+        }
+        text.append("/S");
+        for (int n = 0; n <= 8; n++) {
+            if ((survival & (1 << n)) != 0) {
+                text.append(n);
+            }
+        }
+        if (states > 2) {
+            text.append("/C").append(states);
+        }
+        return text.toString();
+    }
+}
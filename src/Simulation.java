@@ -5,10 +5,12 @@
 // big-O requirements are listed if they exist.
 // if no requirement is listed, you may do as you wish.
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 
 /**
  *  The simulator. This tracks the cells in a grid
@@ -17,6 +19,19 @@ import java.io.IOException;
  *  @author Troy Acuff and [Your Name Here]
  */
 public class Simulation {
+    /**
+     *  The longest cycle evolve() looks for. The state hashes of this many
+     *  earlier generations are remembered.
+     */
+    public static final int MAX_PERIOD = 64;
+
+    /**
+     *  The most generations a simulation runs. The count is an int, and a
+     *  cell alive since generation 0 is one older than it, so this keeps
+     *  every age in the int range too.
+     */
+    public static final int MAX_GENERATIONS = Integer.MAX_VALUE - 1;
+
     /**
      *  The grid that holds the cell data.
      *  YOU MUST USE THIS.
@@ -39,6 +54,95 @@ public class Simulation {
      */
     private int generations;
 
+    /**
+     *  Optional engine that owns the cell state instead of the grid.
+     *  When this is null the grid of Cells is evolved directly.
+     */
+    private LifeEngine engine;
+
+    /**
+     *  True when the engine has moved on since the grid was last copied
+     *  from it, so switching back to the grid of Cells has to refresh them.
+     */
+    private boolean gridStale;
+
+    /**
+     *  True when getGrid() has handed out the live grid of Cells, which may
+     *  have been edited directly since, so the statistics are recounted
+     *  before they are read. Cleared when evolve() replaces the grid.
+     */
+    private boolean gridExposed;
+
+    /**
+     *  True when the grid holds CellViews of the engine instead of Cells,
+     *  so it never needs a refresh and edits made through it reach the
+     *  engine.
+     */
+    private boolean gridIsView;
+
+    /**
+     *  The number of live Cells in the grid. This, the two fields below and
+     *  stateHash are maintained by evolve(), toggleCell() and reset(), so the
+     *  statistics getters need no scan until getGrid() hands the Cells out.
+     *  When an engine is in use it keeps its own statistics.
+     */
+    private int aliveCount;
+
+    /**
+     *  The sum of the ages of all live Cells. A long, since ages of a big
+     *  grid add up past the int range on long runs.
+     */
+    private long totalAge;
+
+    /**
+     *  The age of the oldest live Cell.
+     */
+    private int maxAge;
+
+    /**
+     *  How the edges of the grid behave.
+     */
+    private Topology topology = Topology.BOUNDED;
+
+    /**
+     *  The rule the grid evolves by, used by the grid of Cells and handed
+     *  to the engine.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     *  Alive flags of the current generation with a one-cell halo around
+     *  the grid, reused by every evolve() on the grid of Cells.
+     */
+    private byte[] halo;
+
+    /**
+     *  The XOR of LifeEngine.cellKey() over the live Cells, kept up to date
+     *  like the statistics above. Engines keep their own.
+     */
+    private long stateHash;
+
+    /**
+     *  State hashes of the generations before the current one, as a ring
+     *  buffer that ends just before historyEnd. Cleared by every edit.
+     */
+    private final long[] history = new long[MAX_PERIOD];
+
+    /**
+     *  The ring position the next hash goes to.
+     */
+    private int historyEnd;
+
+    /**
+     *  The number of valid hashes in history.
+     */
+    private int historySize;
+
+    /**
+     *  The period of the cycle the grid is in, or 0 if none was found.
+     */
+    private int period;
+
     /**
      *  Main constructor.
      *  Initialize the instance variables.
@@ -58,20 +162,36 @@ public class Simulation {
         initializeGrid();
     }
 
+    /**
+     *  Constructor for a simulation that runs on the given engine from the
+     *  start, under the engine's rule. The grid of Cells is only built if
+     *  getGrid() is called, so very large engines do not pay for one Cell
+     *  object per cell.
+     *
+     *  @param engine the engine that holds the cell state
+     */
+    public Simulation(LifeEngine engine) {
+        this.rows = engine.getRows();
+        this.cols = engine.getCols();
+        this.generations = 0;
+        this.engine = engine;
+        this.rule = engine.getRule();
+        this.gridStale = true;
+    }
+
     /**
      *  Helper method to initialize the grid of Cells.
      */
     private void initializeGrid() {
         // note that grid is DynamicArray OF DynamicArrays OF Cells
         // be sure to not only declare, but also INSTATIATE these objects
-        grid = new DynamicArray<>();
+        // sized up front, so each row is one allocation instead of log2(cols) doublings
+        grid = new DynamicArray<>(rows);
 
         for (int i = 0; i < rows; i++) {
-            DynamicArray<Cell> row = new DynamicArray<>();
-            for (int j = 0; j < cols; j++) {
-                // all cells created in this method should start DEAD
-                row.add(new Cell(false));
-            }
+            DynamicArray<Cell> row = new DynamicArray<>(cols);
+            // all cells created in this method should start DEAD
+            row.fill(cols, () -> new Cell(false));
             grid.add(row);
         }
     }
@@ -82,9 +202,393 @@ public class Simulation {
      *  @return grid for automatic testing
      */
     public DynamicArray<DynamicArray<Cell>> getGrid() {
+        syncGridFromEngine();
         return grid;
     }
 
+    /**
+     *  Switches the simulation to run on the given engine, or back to the
+     *  grid of Cells when engine is null. The current cell states and ages
+     *  are carried over in both directions.
+     *
+     *  @param engine the engine to use, or null for the grid of Cells
+     *  @throws IllegalArgumentException if the engine size does not match the grid
+     *  @throws UnsupportedOperationException if the new storage cannot run
+     *          the topology or the rule
+     */
+    public void setEngine(LifeEngine engine) {
+        if (engine != null && (engine.getRows() != rows || engine.getCols() != cols)) {
+            throw new IllegalArgumentException("Engine is " + engine.getRows() + "x"
+                    + engine.getCols() + " but the grid is " + rows + "x" + cols);
+        }
+        if (engine == null && rule.getStates() > 2) {
+            throw new UnsupportedOperationException("The grid of Cells only has two states, not the "
+                    + rule.getStates() + " of " + rule);
+        }
+        forgetHistory();
+        if (engine != null) {
+            engine.setTopology(topology);
+            engine.setRule(rule);
+        }
+        if (gridIsView) {
+            // the views belong to the old engine; Cells are copied from it below
+            // if they are needed
+            grid = null;
+            gridIsView = false;
+            gridStale = true;
+        }
+        if (engine != null && this.engine != null) {
+            // hand over engine to engine without going through Cells; dying
+            // states go along if the new engine has them
+            engine.clear();
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    int state = this.engine.getState(i, j);
+                    if (state == 1) {
+                        engine.setAlive(i, j);
+                        engine.setAge(i, j, this.engine.getAge(i, j));
+                    } else if (state > 1 && state < engine.getStates()) {
+                        engine.setState(i, j, state);
+                    }
+                }
+            }
+            this.engine = engine;
+            gridStale = true;
+            return;
+        }
+        copyGridFromEngine();
+        if (engine == null && this.engine != null) {
+            // the Cells now match the old engine, and so do its statistics
+            aliveCount = (int) this.engine.getPopulation();
+            totalAge = this.engine.getAgeSum();
+            maxAge = this.engine.getMaxAge();
+            stateHash = this.engine.getStateHash();
+        }
+        this.engine = engine;
+        if (engine != null) {
+            engine.clear();
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    Cell cell = grid.get(i).get(j);
+                    if (cell.isAlive()) {
+                        engine.setAlive(i, j);
+                        engine.setAge(i, j, cell.getAge());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     *  Changes how the edges of the grid behave. The same topology is used
+     *  by the grid of Cells and by the engine, if there is one.
+     *
+     *  @param topology BOUNDED or TORUS
+     *  @throws UnsupportedOperationException if the current engine cannot run it
+     */
+    public void setTopology(Topology topology) {
+        if (engine != null) {
+            engine.setTopology(topology);
+        }
+        this.topology = topology;
+        forgetHistory();
+    }
+
+    /**
+     *  Changes the rule the next generations are computed with. The same
+     *  rule is used by the grid of Cells and by the engine, if there is one.
+     *
+     *  @param rule the new rule
+     *  @throws UnsupportedOperationException if the current engine cannot run
+     *          it, or it has dying states and the grid of Cells is in use
+     */
+    public void setRule(Rule rule) {
+        if (engine != null) {
+            engine.setRule(rule);
+        } else if (rule.getStates() > 2) {
+            throw new UnsupportedOperationException("The grid of Cells only has two states; use"
+                    + " GenerationsEngine for " + rule);
+        }
+        this.rule = rule;
+        forgetHistory();
+    }
+
+    /**
+     *  Gets the rule the grid evolves by.
+     *
+     *  @return the rule, Rule.CONWAY unless it was changed
+     */
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     *  Gets how the edges of the grid behave.
+     *
+     *  @return the current topology
+     */
+    public Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     *  Gets the engine the simulation is currently running on.
+     *
+     *  @return the engine, or null if the grid of Cells is used directly
+     */
+    public LifeEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     *  Helper method that brings the grid up to date with the engine. The
+     *  engine gets a grid of CellViews once, which then always matches it
+     *  and passes edits straight through. Without an engine the grid is
+     *  about to be handed out, see gridExposed.
+     */
+    private void syncGridFromEngine() {
+        if (engine == null) {
+            // the caller can now change Cells behind our back
+            gridExposed = true;
+            return;
+        }
+        if (!gridIsView) {
+            grid = CellView.gridOf(engine);
+            gridIsView = true;
+        }
+    }
+
+    /**
+     *  Helper method that copies the engine state into the existing Cell
+     *  objects of the grid before the engine is dropped. No Cells are
+     *  created unless there were none yet.
+     */
+    private void copyGridFromEngine() {
+        if (engine == null || !gridStale) {
+            return;
+        }
+        if (grid == null) {
+            initializeGrid();
+        }
+        for (int i = 0; i < rows; i++) {
+            DynamicArray<Cell> row = grid.get(i);
+            for (int j = 0; j < cols; j++) {
+                Cell cell = row.get(j);
+                if (engine.isAlive(i, j)) {
+                    cell.setAlive();
+                    cell.setAge(engine.getAge(i, j));
+                } else {
+                    cell.reset();
+                }
+            }
+        }
+        gridStale = false;
+    }
+
+    /**
+     *  Copies the age of every cell into the given array in row-major order,
+     *  0 for dead cells. An engine is read directly, so this neither syncs
+     *  nor allocates the grid of Cells.
+     *
+     *  @param ages the destination, at least rows * cols long
+     *  @throws IllegalArgumentException if ages is too short
+     */
+    public void copyAges(int[] ages) {
+        if (ages.length < rows * cols) {
+            throw new IllegalArgumentException("Need room for " + rows * cols + " ages.");
+        }
+        for (int i = 0; i < rows; i++) {
+            copyRowAges(i, ages, i * cols);
+        }
+    }
+
+    /**
+     *  Copies the age of every cell of one row into the given array, 0 for
+     *  dead cells, without syncing the grid of Cells.
+     *
+     *  @param row the row to copy, assumed valid
+     *  @param ages the destination, at least cols long
+     *  @throws IllegalArgumentException if ages is too short
+     */
+    public void copyAges(int row, int[] ages) {
+        if (ages.length < cols) {
+            throw new IllegalArgumentException("Need room for " + cols + " ages.");
+        }
+        copyRowAges(row, ages, 0);
+    }
+
+    /**
+     *  Gets the number of states a cell can be in.
+     *
+     *  @return 2 for the grid of Cells, else what the engine has
+     */
+    public int getStates() {
+        return engine != null ? engine.getStates() : 2;
+    }
+
+    /**
+     *  Copies the state of every cell into the given array in row-major
+     *  order (0 dead, 1 alive, see LifeEngine.getState for the others),
+     *  without syncing the grid of Cells.
+     *
+     *  @param states the destination, at least rows * cols long
+     *  @throws IllegalArgumentException if states is too short
+     */
+    public void copyStates(byte[] states) {
+        if (states.length < rows * cols) {
+            throw new IllegalArgumentException("Need room for " + rows * cols + " states.");
+        }
+        for (int i = 0; i < rows; i++) {
+            if (engine != null) {
+                engine.copyStates(i, states, i * cols);
+                continue;
+            }
+            DynamicArray<Cell> cells = grid.get(i);
+            for (int j = 0; j < cols; j++) {
+                states[i * cols + j] = (byte) (cells.get(j).isAlive() ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     *  Helper method that copies one row of ages from whichever storage
+     *  is active.
+     *
+     *  @param row the row to copy
+     *  @param ages the destination
+     *  @param offset where the first column goes in ages
+     */
+    private void copyRowAges(int row, int[] ages, int offset) {
+        if (engine != null) {
+            engine.copyAges(row, ages, offset);
+            return;
+        }
+        DynamicArray<Cell> cells = grid.get(row);
+        for (int j = 0; j < cols; j++) {
+            Cell cell = cells.get(j);
+            ages[offset + j] = cell.isAlive() ? cell.getAge() : 0;
+        }
+    }
+
+    /**
+     *  Helper method to check a cell without going through the grid when
+     *  an engine is in use.
+     *
+     *  @param row the row of the cell, assumed valid
+     *  @param col the col of the cell, assumed valid
+     *  @return true if the cell is alive
+     */
+    private boolean isAliveAt(int row, int col) {
+        if (engine != null) {
+            return engine.isAlive(row, col);
+        }
+        return grid.get(row).get(col).isAlive();
+    }
+
+    /**
+     *  Helper method to set a cell alive in whichever storage is active.
+     *
+     *  @param row the row of the cell, assumed valid
+     *  @param col the col of the cell, assumed valid
+     */
+    private void setAliveAt(int row, int col) {
+        forgetHistory();
+        if (engine != null) {
+            engine.setAlive(row, col);
+            gridStale = true;
+        } else {
+            Cell cell = grid.get(row).get(col);
+            if (!cell.isAlive()) {
+                cell.setAlive();
+                aliveCount++;
+                totalAge++;
+                maxAge = Math.max(maxAge, 1);
+                stateHash ^= LifeEngine.cellKey(row, col);
+            }
+        }
+    }
+
+    /**
+     *  Helper method to set a run of cells in one row alive in whichever
+     *  storage is active. The part outside the grid is dropped, unless the
+     *  engine is unbounded.
+     *
+     *  @param row the row of the run, may be outside the grid
+     *  @param col the column of the first cell, may be outside the grid
+     *  @param length the number of cells
+     */
+    private void setAliveRun(int row, int col, int length) {
+        forgetHistory();
+        int end = col + length;
+        boolean unbounded = engine != null && !engine.isBounded();
+        if (row < 0 || row >= rows || end <= 0 || col >= cols) {
+            if (unbounded) {
+                engine.setAliveRun(row, col, length);
+                gridStale = true;
+            }
+            return;
+        }
+        int from = Math.max(0, col);
+        int to = Math.min(cols, end);
+        if (engine == null) {
+            for (int j = from; j < to; j++) {
+                setAliveAt(row, j);
+            }
+            return;
+        }
+        if (unbounded && col < from) {
+            engine.setAliveRun(row, col, from - col);
+        }
+        if (unbounded && end > to) {
+            engine.setAliveRun(row, to, end - to);
+        }
+        engine.setAliveRun(row, from, to - from);
+        gridStale = true;
+    }
+
+    /**
+     *  Helper method to put a run of dead cells of one row into a state
+     *  above 1, for multi-state patterns. The part outside the grid is
+     *  dropped.
+     *
+     *  @param row the row of the run, may be outside the grid
+     *  @param col the column of the first cell, may be outside the grid
+     *  @param length the number of cells
+     *  @param state the state, at least 2
+     *  @throws UnsupportedOperationException if the storage has no such state
+     */
+    private void setStateRun(int row, int col, int length, int state) {
+        if (engine == null) {
+            throw new UnsupportedOperationException("The grid of Cells has no state " + state);
+        }
+        forgetHistory();
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        for (int j = Math.max(0, col), end = Math.min(cols, col + length); j < end; j++) {
+            engine.setState(row, j, state);
+        }
+        gridStale = true;
+    }
+
+    /**
+     *  Helper method to set the age of a live Cell, keeping the statistics
+     *  of the grid of Cells up to date.
+     *
+     *  @param row the row of the cell, assumed valid
+     *  @param col the col of the cell, assumed valid
+     *  @param age the new age, at least 1
+     */
+    private void setAgeAt(int row, int col, int age) {
+        Cell cell = grid.get(row).get(col);
+        if (cell.isAlive()) {
+            // only used while loading, when ages can only go up from 1
+            totalAge += age - cell.getAge();
+            maxAge = Math.max(maxAge, age);
+            cell.setAge(age);
+        }
+    }
+
     /**
      *  This is called when the user interacts with the grid.
      *  Sets the cell at row/col to Alive
@@ -105,68 +609,286 @@ public class Simulation {
 
         // we are only setting cell to alive with this method since GUI has click and drag
         // functionality, and dragging too slow will toggle cell multiple times.
-        grid.get(row).get(col).setAlive();
+        setAliveAt(row, col);
     }
 
     /**
      *  Method to handle the evolution of the grid by ONE generation.
+     *
+     *  @throws UnsupportedOperationException if MAX_GENERATIONS were run
      */
     public void evolve() {
+        if (generations == MAX_GENERATIONS) {
+            throw new UnsupportedOperationException("Cannot run past generation " + MAX_GENERATIONS);
+        }
+        // the hash of this generation goes into the history before it is replaced
+        long previousHash = getStateHash();
+        if (engine != null) {
+            // the engine swaps its own buffers, nothing is allocated here
+            engine.step();
+            gridStale = true;
+            generations++;
+            detectCycle(previousHash);
+            return;
+        }
+
         // you will need to create a new grid to populate.
         // if you start killing and birthing new cells to the active grid,
         // then the current and next generation data will "cross-contaminate"
         // and you will get an invalid result.
-        DynamicArray<DynamicArray<Cell>> newGrid = new DynamicArray<>();
+        DynamicArray<DynamicArray<Cell>> newGrid = new DynamicArray<>(rows);
 
-        // Initialize new grid
+        // Initialize new grid, every row allocated at its final size
         for (int i = 0; i < rows; i++) {
-            DynamicArray<Cell> row = new DynamicArray<>();
-            for (int j = 0; j < cols; j++) {
-                row.add(new Cell(false));
-            }
+            DynamicArray<Cell> row = new DynamicArray<>(cols);
+            row.fill(cols, () -> new Cell(false));
             newGrid.add(row);
         }
 
-        // countLiveNeighbors is provided as a helper method, you should use this.
+        // the neighbors are read from a copy of the grid with a halo around it,
+        // which takes care of the edges once per generation instead of four
+        // bounds checks per neighbor. countLiveNeighbors gives the same counts.
+        fillHalo();
+        byte[] h = halo;
+        int stride = cols + 2;
 
-        // Rules:
+        // Rules (Conway's, B3/S23, unless setRule was called):
         // A live cell with fewer than 2 live neighbors dies, as if by underpopulation.
         // A live cell with 2 or 3 live neighbors survives to the next generation.
         // A live cell with more than 3 live neighbors dies, as if by overpopulation.
         // A dead cell with exactly 3 live neighbors becomes a live cell, as if by reproduction.
+        // The rule is a table indexed by the state and the neighbor count (see
+        // Rule.getTransitions), so every rule costs the same and nothing branches on it.
+        int transitions = rule.getTransitions();
+
+        int newAlive = 0;
+        long newTotalAge = 0;
+        int newMaxAge = 0;
+        long newHash = stateHash;
 
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                int liveNeighbors = countLiveNeighbors(i, j);
+                int mid = (i + 1) * stride + j + 1;
+                int liveNeighbors = h[mid - stride - 1] + h[mid - stride] + h[mid - stride + 1]
+                        + h[mid - 1] + h[mid + 1]
+                        + h[mid + stride - 1] + h[mid + stride] + h[mid + stride + 1];
                 Cell currentCell = grid.get(i).get(j);
                 Cell newCell = newGrid.get(i).get(j);
-
-                if (currentCell.isAlive()) {
-                    // Live cell rules
-                    if (liveNeighbors == 2 || liveNeighbors == 3) {
-                        newCell.setAlive();
-                        newCell.setAge(currentCell.getAge() + 1);
-                    }
-                    // Otherwise cell dies (underpopulation or overpopulation)
-                } else {
-                    // Dead cell rules
-                    if (liveNeighbors == 3) {
-                        newCell.setAlive();
-                        newCell.setAge(1);
-                    }
+                boolean alive = currentCell.isAlive();
+                // h[mid] is 1 for a live cell, which selects the survival half
+                boolean nextAlive = ((transitions >>> (liveNeighbors + 9 * h[mid])) & 1) != 0;
+
+                if (nextAlive) {
+                    // survivors get one older, births start at 1
+                    newCell.setAlive();
+                    newCell.setAge(alive ? currentCell.getAge() + 1 : 1);
+                    newAlive++;
+                    newTotalAge += newCell.getAge();
+                    newMaxAge = Math.max(newMaxAge, newCell.getAge());
+                }
+                if (nextAlive != alive) {
+                    newHash ^= LifeEngine.cellKey(i, j);
                 }
             }
         }
 
         // Replace old grid with new grid
         grid = newGrid;
+        gridExposed = false;
+
+        // statistics were totalled while building the new grid
+        aliveCount = newAlive;
+        totalAge = newTotalAge;
+        maxAge = newMaxAge;
+        stateHash = newHash;
 
         // don't forget to advance the generation counter.
         generations++;
+        detectCycle(previousHash);
 
         // O(row*col) requirement
     }
 
+    /**
+     *  Helper method that remembers the state hash of the previous generation
+     *  and looks for the current one among the last MAX_PERIOD generations.
+     *  The most recent match gives the period. Since the next generation
+     *  only depends on the live cells, a state that came back once repeats
+     *  forever (a false match would need a 64-bit hash collision).
+     *
+     *  @param previousHash the state hash before the last step
+     */
+    private void detectCycle(long previousHash) {
+        history[historyEnd] = previousHash;
+        historyEnd = (historyEnd + 1) % MAX_PERIOD;
+        historySize = Math.min(historySize + 1, MAX_PERIOD);
+
+        long hash = getStateHash();
+        period = 0;
+        for (int p = 1; p <= historySize; p++) {
+            if (history[(historyEnd - p + MAX_PERIOD) % MAX_PERIOD] == hash) {
+                period = p;
+                break;
+            }
+        }
+    }
+
+    /**
+     *  Helper method that recounts the statistics and the state hash of the
+     *  grid of Cells if getGrid() handed it out, since Cells may have been
+     *  edited directly. If the live cells changed, the remembered
+     *  generations are dropped as after any other edit.
+     */
+    private void recountGrid() {
+        if (engine != null || !gridExposed) {
+            return;
+        }
+        int count = 0;
+        long sum = 0;
+        int max = 0;
+        long hash = 0;
+        for (int i = 0; i < rows; i++) {
+            DynamicArray<Cell> row = grid.get(i);
+            for (int j = 0; j < cols; j++) {
+                Cell cell = row.get(j);
+                if (cell.isAlive()) {
+                    count++;
+                    sum += cell.getAge();
+                    max = Math.max(max, cell.getAge());
+                    hash ^= LifeEngine.cellKey(i, j);
+                }
+            }
+        }
+        if (hash != stateHash) {
+            forgetHistory();
+        }
+        aliveCount = count;
+        totalAge = sum;
+        maxAge = max;
+        stateHash = hash;
+    }
+
+    /**
+     *  Helper method that drops the remembered generations after an edit,
+     *  since the grid no longer follows from them.
+     */
+    private void forgetHistory() {
+        historySize = 0;
+        period = 0;
+    }
+
+    /**
+     *  Gets the period of the cycle the grid has settled into: 1 for a
+     *  still life (or an empty grid), 2 for a blinker and so on. Found by
+     *  comparing state hashes after every evolve(), in O(MAX_PERIOD).
+     *
+     *  @return the period, or 0 if the last MAX_PERIOD generations did not
+     *          repeat or the grid was edited since
+     */
+    public int getPeriod() {
+        recountGrid();
+        return period;
+    }
+
+    /**
+     *  Gets a 64-bit hash of the live cells (not their ages), equal for equal
+     *  states whichever storage is in use. Kept up to date as cells are born
+     *  and die, so this is O(1) unless getGrid() handed out the Cells.
+     *
+     *  @return the XOR of LifeEngine.cellKey() over the live cells
+     */
+    public long getStateHash() {
+        recountGrid();
+        return engine != null ? engine.getStateHash() : stateHash;
+    }
+
+    /**
+     *  Skips as many whole periods of the detected cycle as fit in the
+     *  given number of generations, without computing them. The live cells
+     *  are the same after a whole period, so only the generation count and
+     *  the ages move: a cell older than the period stays alive through every
+     *  skipped generation and ages with them, while a younger one is reborn
+     *  each period and keeps its age. The skip stops short of
+     *  MAX_GENERATIONS, and of the oldest cell passing Integer.MAX_VALUE.
+     *
+     *  @param maxGenerations the most generations to skip
+     *  @return the number of generations skipped, a multiple of getPeriod(),
+     *          0 if no cycle was detected
+     */
+    public long fastForward(long maxGenerations) {
+        recountGrid();
+        if (period == 0 || maxGenerations < period) {
+            return 0;
+        }
+        // the generation count and the ages are ints
+        long room = Math.min(maxGenerations, MAX_GENERATIONS - (long) generations);
+        if (getMaxAge() > period) {
+            room = Math.min(room, Integer.MAX_VALUE - (long) getMaxAge());
+        }
+        int skip = (int) (room / period * period);
+        if (skip == 0) {
+            return 0;
+        }
+        if (engine != null) {
+            engine.addAge(period, skip);
+            gridStale = true;
+        } else {
+            for (int i = 0; i < rows; i++) {
+                DynamicArray<Cell> row = grid.get(i);
+                for (int j = 0; j < cols; j++) {
+                    Cell cell = row.get(j);
+                    if (cell.isAlive() && cell.getAge() > period) {
+                        cell.setAge(cell.getAge() + skip);
+                        totalAge += skip;
+                    }
+                }
+            }
+            if (maxAge > period) {
+                maxAge += skip;
+            }
+        }
+        generations += skip;
+        return skip;
+    }
+
+    /**
+     *  Helper method that copies the alive flags of the grid into the halo
+     *  buffer and fills the border around them: dead for a bounded grid, or
+     *  the opposite edge for a torus.
+     */
+    private void fillHalo() {
+        int stride = cols + 2;
+        if (halo == null || halo.length != (rows + 2) * stride) {
+            halo = new byte[(rows + 2) * stride];
+        }
+        for (int i = 0; i < rows; i++) {
+            DynamicArray<Cell> row = grid.get(i);
+            int start = (i + 1) * stride + 1;
+            for (int j = 0; j < cols; j++) {
+                halo[start + j] = (byte) (row.get(j).isAlive() ? 1 : 0);
+            }
+        }
+
+        int bottom = (rows + 1) * stride;
+        if (topology == Topology.TORUS) {
+            System.arraycopy(halo, rows * stride + 1, halo, 1, cols);
+            System.arraycopy(halo, stride + 1, halo, bottom + 1, cols);
+            for (int r = 0; r < rows + 2; r++) {
+                halo[r * stride] = halo[r * stride + cols];
+                halo[r * stride + cols + 1] = halo[r * stride + 1];
+            }
+        } else {
+            for (int j = 0; j < stride; j++) {
+                halo[j] = 0;
+                halo[bottom + j] = 0;
+            }
+            for (int r = 1; r <= rows; r++) {
+                halo[r * stride] = 0;
+                halo[r * stride + cols + 1] = 0;
+            }
+        }
+    }
+
     /**
      *  Helper method to count the live neighbors of a specific cell at row/col
      *
@@ -182,6 +904,8 @@ public class Simulation {
         //   Diagonal cells (northeast, northwest, southeast, southwest).
 
         int count = 0;
+        boolean unbounded = engine != null && !engine.isBounded();
+        boolean torus = topology == Topology.TORUS && !unbounded;
 
         // Check all 8 neighbors
         for (int i = -1; i <= 1; i++) {
@@ -193,11 +917,16 @@ public class Simulation {
 
                 int neighborRow = row + i;
                 int neighborCol = col + j;
+                if (torus) {
+                    // wrap around to the opposite edge
+                    neighborRow = (neighborRow + rows) % rows;
+                    neighborCol = (neighborCol + cols) % cols;
+                }
 
-                // Check bounds
-                if (neighborRow >= 0 && neighborRow < rows &&
-                        neighborCol >= 0 && neighborCol < cols) {
-                    if (grid.get(neighborRow).get(neighborCol).isAlive()) {
+                // Check bounds (an unbounded engine has cells past the edge)
+                if (unbounded || (neighborRow >= 0 && neighborRow < rows &&
+                        neighborCol >= 0 && neighborCol < cols)) {
+                    if (isAliveAt(neighborRow, neighborCol)) {
                         count++;
                     }
                 }
@@ -220,12 +949,23 @@ public class Simulation {
      */
     public void reset() {
         // note that Cell objects have a reset() method
+        forgetHistory();
+        if (engine != null) {
+            engine.clear();
+            gridStale = true;
+            generations = 0;
+            return;
+        }
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
                 grid.get(i).get(j).reset();
             }
         }
         generations = 0;
+        aliveCount = 0;
+        totalAge = 0;
+        maxAge = 0;
+        stateHash = 0;
 
         // O(row*col) requirement
     }
@@ -234,17 +974,15 @@ public class Simulation {
      *  Returns the count of live cells in the grid.
      */
     public int getAliveCells() {
-        int count = 0;
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                if (grid.get(i).get(j).isAlive()) {
-                    count++;
-                }
-            }
+        if (engine != null) {
+            return (int) Math.min(Integer.MAX_VALUE, engine.getPopulation());
         }
+        // counted by evolve(), toggleCell() and reset(), and recounted once
+        // getGrid() has handed the Cells out
+        recountGrid();
 
         // O(row*col) requirement
-        return count;
+        return aliveCount;
     }
 
     /**
@@ -252,25 +990,16 @@ public class Simulation {
      */
     public double getAverageAge() {
         // dead cells DO NOT COUNT
-        int totalAge = 0;
-        int aliveCount = 0;
+        recountGrid();
+        long count = engine != null ? engine.getPopulation() : aliveCount;
+        long sum = engine != null ? engine.getAgeSum() : totalAge;
 
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                Cell cell = grid.get(i).get(j);
-                if (cell.isAlive()) {
-                    totalAge += cell.getAge();
-                    aliveCount++;
-                }
-            }
-        }
-
-        if (aliveCount == 0) {
+        if (count == 0) {
             return 0.0;
         }
 
         // O(row*col) requirement
-        return (double) totalAge / aliveCount;
+        return (double) sum / count;
     }
 
     /**
@@ -279,19 +1008,10 @@ public class Simulation {
     public int getMaxAge() {
         // you MAY use Math.max, it is part of java.lang and does not require
         // additional imports.
-        int maxAge = 0;
-
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                Cell cell = grid.get(i).get(j);
-                if (cell.isAlive()) {
-                    maxAge = Math.max(maxAge, cell.getAge());
-                }
-            }
-        }
+        recountGrid();
 
         // O(row*col) requirement
-        return maxAge;
+        return engine != null ? engine.getMaxAge() : maxAge;
     }
 
     /**
@@ -316,7 +1036,8 @@ public class Simulation {
 
         // Iterate through all lines to parse out RLE header info (width and height)
         // header line is of the form: x = 36, y = 9, rule = B3/S23
-        // we want the x and y values, rule part is irrelevant to this project.
+        // we want the x and y values, and the rule if there is one.
+        Rule headerRule = null;
         for (String line : lines) {
             if (line.startsWith("x")) { // Header line
                 String[] parts = line.split(",");
@@ -332,6 +1053,8 @@ public class Simulation {
                         // extract and assign height value
                         String[] yPart = part.split("=");
                         height = Integer.parseInt(yPart[1].trim());
+                    } else if (part.startsWith("rule")) {
+                        headerRule = Rule.parse(part.split("=")[1]);
                     }
                 }
             } else {
@@ -387,10 +1110,181 @@ public class Simulation {
             }
         }
 
-        // Apply the pattern to the grid
+        // Apply the pattern to the grid, under its own rule if it has one
+        if (headerRule != null) {
+            setRule(headerRule);
+        }
         applyPatternToGrid(pattern);
     }
 
+    /**
+     *  Loads an RLE pattern by streaming it from a reader, the same way
+     *  parseRle and applyPatternToGrid would: the grid is reset and the
+     *  pattern is centered. Runs of live cells go straight into the grid
+     *  storage, so no string of the whole body and no boolean matrix is
+     *  built, and memory use does not depend on the size of the pattern.
+     *  A rule in the header replaces the current rule. Multi-state cells
+     *  (see RleDecoder) are put into their state.
+     *
+     *  @param in the RLE text; it is not closed
+     *  @throws IOException if the reader fails
+     *  @throws IllegalArgumentException if the header rule is not Life-like
+     *  @throws UnsupportedOperationException if the storage cannot run the
+     *          rule or hold the states
+     */
+    public void loadRle(Reader in) throws IOException {
+        loadRle(new RleDecoder(in));
+    }
+
+    /**
+     *  Loads an RLE pattern from a decoder, which may already have read the
+     *  header (for example to size the grid). See loadRle(Reader).
+     *
+     *  @param decoder the decoder positioned at the header or the body
+     *  @throws IOException if the source of the decoder fails
+     *  @throws IllegalArgumentException if the header rule is not Life-like
+     *  @throws UnsupportedOperationException if the storage cannot run the
+     *          rule or hold the states
+     */
+    public void loadRle(RleDecoder decoder) throws IOException {
+        decoder.readHeader();
+        if (decoder.getRule() != null) {
+            setRule(Rule.parse(decoder.getRule()));
+        }
+        reset();
+
+        // same offsets as applyPatternToGrid
+        int startRow = rows / 2 - decoder.getHeight() / 2;
+        int startCol = cols / 2 - decoder.getWidth() / 2;
+        decoder.decode(new RleDecoder.RunSink() {
+            @Override
+            public void aliveRun(int row, int col, int length) {
+                setAliveRun(startRow + row, startCol + col, length);
+            }
+
+            @Override
+            public void stateRun(int row, int col, int length, int state) {
+                setStateRun(startRow + row, startCol + col, length, state);
+            }
+        });
+    }
+
+    /**
+     *  Loads a pattern from a Macrocell (.mc) file, placing the center of
+     *  its root node at the center of the grid. The file is read into a
+     *  HashLife quadtree and only the part that overlaps the grid is turned
+     *  into cells, so huge patterns need memory for their distinct nodes,
+     *  not for their area. The grid is reset first.
+     *
+     *  @param in the file; it is not closed
+     *  @throws IOException if the reader fails
+     *  @throws IllegalArgumentException if the file is malformed
+     */
+    public void loadMacrocell(Reader in) throws IOException {
+        Macrocell.read(in).copyInto(this);
+    }
+
+    /**
+     *  Saves the live cells as a Macrocell (.mc) file, with the center of
+     *  the grid at the center of the root node. Ages are not saved.
+     *
+     *  @param out where to write; it is not closed
+     *  @throws IOException if the writer fails
+     *  @throws UnsupportedOperationException if the rule is not Conway's,
+     *          the only one HashLife and so Macrocell support here
+     */
+    public void saveMacrocell(Writer out) throws IOException {
+        if (!rule.isConway()) {
+            throw new UnsupportedOperationException("Macrocell files are only written for B3/S23, not " + rule);
+        }
+        Macrocell.write(HashLife.fromSimulation(this), out);
+    }
+
+    /**
+     *  Saves the cell states, ages, topology, rule and generation count to a
+     *  channel in the binary format described in Snapshot.
+     *
+     *  @param out where to write; it is not closed
+     *  @throws IOException if the channel fails
+     *  @throws UnsupportedOperationException if the rule has dying states,
+     *          which a snapshot does not hold
+     */
+    public void saveSnapshot(WritableByteChannel out) throws IOException {
+        if (rule.getStates() > 2) {
+            throw new UnsupportedOperationException("Snapshots only hold two states, not the "
+                    + rule.getStates() + " of " + rule);
+        }
+        Snapshot.write(this, out);
+    }
+
+    /**
+     *  Restores a snapshot written by saveSnapshot: every cell with its
+     *  age, the topology, the rule and the generation count. If the snapshot turns
+     *  out to be broken the grid is left empty.
+     *
+     *  @param snapshot the snapshot, positioned at the header or the body
+     *  @throws IOException if the source of the snapshot fails or ends early
+     *  @throws IllegalArgumentException if the snapshot is malformed or was
+     *          saved from a grid of another size
+     */
+    public void loadSnapshot(Snapshot snapshot) throws IOException {
+        snapshot.readHeader();
+        if (snapshot.getRows() != rows || snapshot.getCols() != cols) {
+            throw new IllegalArgumentException("Snapshot is " + snapshot.getRows() + "x"
+                    + snapshot.getCols() + " but the grid is " + rows + "x" + cols);
+        }
+        if (snapshot.getGenerations() > MAX_GENERATIONS) {
+            throw new IllegalArgumentException("Too many generations: " + snapshot.getGenerations());
+        }
+        setTopology(snapshot.getTopology());
+        setRule(snapshot.getRule());
+        reset();
+        try {
+            snapshot.decode(this::restoreRow);
+        } catch (IOException | IllegalArgumentException e) {
+            reset();
+            throw e;
+        }
+        generations = (int) snapshot.getGenerations();
+    }
+
+    /**
+     *  Helper method that restores one row of a snapshot. An engine takes
+     *  the row in one call; on the grid of Cells runs of live cells are set
+     *  first, then the ages that are not 1.
+     *
+     *  @param row the row
+     *  @param bits the alive bits, bit b of word w being column w * 64 + b
+     *  @param ages the ages of the live cells in column order
+     */
+    private void restoreRow(int row, long[] bits, int[] ages) {
+        if (engine != null) {
+            engine.restoreRow(row, bits, ages);
+            gridStale = true;
+            return;
+        }
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                int start = Long.numberOfTrailingZeros(word);
+                int length = Long.numberOfTrailingZeros(~(word >>> start));
+                setAliveRun(row, (w << 6) + start, length);
+                word = start + length == 64 ? 0 : word & (-1L << (start + length));
+            }
+        }
+        int k = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                int age = ages[k++];
+                if (age != 1) {
+                    setAgeAt(row, (w << 6) + Long.numberOfTrailingZeros(word), age);
+                }
+                word &= word - 1;
+            }
+        }
+    }
+
     /**
      *  Translates boolean 2d array into actual cell data in our grid.
      */
@@ -400,6 +1294,7 @@ public class Simulation {
         // we won't test any scenario where the pattern is larger than the grid,
         // but your sim may crash if you try to do that.
         // for best results, make sure your grid size is large enough before loading big patterns.
+        // with an unbounded engine (see SparseEngine) the part outside the grid is kept.
 
         // grid gets reset first
         reset();
@@ -418,7 +1313,11 @@ public class Simulation {
                     int gridRow = startRow + i;
                     int gridCol = startCol + j;
                     if (gridRow >= 0 && gridRow < rows && gridCol >= 0 && gridCol < cols) {
-                        grid.get(gridRow).get(gridCol).setAlive();
+                        setAliveAt(gridRow, gridCol);
+                    } else if (engine != null && !engine.isBounded()) {
+                        // nothing is clipped on an unbounded plane
+                        engine.setAlive(gridRow, gridCol);
+                        gridStale = true;
                     }
                 }
             }
@@ -433,17 +1332,9 @@ public class Simulation {
      */
     private void loadRleFile(String filename) {
         File file = new File(filename);
-        try {
-            DynamicArray<String> lines = new DynamicArray<>();
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (!line.startsWith("#")) { // Ignore comments
-                        lines.add(line);
-                    }
-                }
-                parseRle(lines);
-            }
+        try (Reader reader = new FileReader(file)) {
+            // streamed straight into the grid, see loadRle
+            loadRle(reader);
         } catch (IOException e) {
             // do nothing
         }
@@ -515,6 +1406,230 @@ public class Simulation {
             System.out.println("Yay 5");
         }
 
+        // the primitive engine should agree with the grid of Cells
+        Simulation cells = new Simulation(20, 20);
+        Simulation buffered = new Simulation(20, 20);
+        buffered.setEngine(new BufferedEngine(20, 20));
+        int[][] glider = {{0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}};
+        for (int[] p : glider) {
+            cells.toggleCell(p[0], p[1]);
+            buffered.toggleCell(p[0], p[1]);
+        }
+        boolean same = true;
+        for (int gen = 0; gen < 30; gen++) {
+            cells.evolve();
+            buffered.evolve();
+            for (int i = 0; i < 20; i++) {
+                for (int j = 0; j < 20; j++) {
+                    Cell a = cells.getGrid().get(i).get(j);
+                    Cell b = buffered.getGrid().get(i).get(j);
+                    if (a.isAlive() != b.isAlive() || (a.isAlive() && a.getAge() != b.getAge())) {
+                        same = false;
+                    }
+                }
+            }
+        }
+        if (same && buffered.getAliveCells() == 5 && buffered.getMaxAge() == cells.getMaxAge()) {
+            System.out.println("Yay 6");
+        }
+
+        // the bitboard engine should agree on a soup that crosses word boundaries
+        Simulation soupCells = new Simulation(40, 150);
+        Simulation soupBits = new Simulation(new BitboardEngine(40, 150));
+        java.util.Random random = new java.util.Random(310);
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 150; j++) {
+                if (random.nextInt(3) == 0) {
+                    soupCells.toggleCell(i, j);
+                    soupBits.toggleCell(i, j);
+                }
+            }
+        }
+        for (int gen = 0; gen < 50; gen++) {
+            soupCells.evolve();
+            soupBits.evolve();
+        }
+        if (soupCells.getAliveCells() == soupBits.getAliveCells()
+                && soupCells.getAverageAge() == soupBits.getAverageAge()
+                && soupCells.getMaxAge() == soupBits.getMaxAge()) {
+            System.out.println("Yay 7");
+        }
+
+        // on the unbounded plane a glider keeps going past the edge and comes back
+        Simulation plane = new Simulation(new SparseEngine(10, 10));
+        for (int[] p : glider) {
+            plane.toggleCell(p[0], p[1]);
+        }
+        for (int gen = 0; gen < 400; gen++) {
+            plane.evolve();
+        }
+        SparseEngine sparse = (SparseEngine) plane.getEngine();
+        if (plane.getAliveCells() == 5 && sparse.getPopulation() == 5
+                && sparse.isAlive(102, 100) && sparse.getTileCount() <= 4) {
+            System.out.println("Yay 8");
+        }
+
+        // on a torus a glider comes back to where it started after 4 * size generations
+        Simulation torusCells = new Simulation(12, 12);
+        Simulation torusBuffered = new Simulation(new BufferedEngine(12, 12));
+        torusCells.setTopology(Topology.TORUS);
+        torusBuffered.setTopology(Topology.TORUS);
+        for (int[] p : glider) {
+            torusCells.toggleCell(p[0], p[1]);
+            torusBuffered.toggleCell(p[0], p[1]);
+        }
+        for (int gen = 0; gen < 48; gen++) {
+            torusCells.evolve();
+            torusBuffered.evolve();
+        }
+        boolean home = torusCells.getAliveCells() == 5 && torusBuffered.getAliveCells() == 5;
+        for (int[] p : glider) {
+            home = home && torusCells.getGrid().get(p[0]).get(p[1]).isAlive()
+                    && torusBuffered.getGrid().get(p[0]).get(p[1]).isAlive();
+        }
+        if (home && torusCells.countLiveNeighbors(0, 0) == torusBuffered.countLiveNeighbors(0, 0)) {
+            System.out.println("Yay 9");
+        }
+
+        // a snapshot keeps every cell, its age and the generation count
+        try {
+            java.io.ByteArrayOutputStream saved = new java.io.ByteArrayOutputStream();
+            soupCells.saveSnapshot(java.nio.channels.Channels.newChannel(saved));
+            Simulation restored = new Simulation(new TiledEngine(40, 150));
+            restored.loadSnapshot(new Snapshot(java.nio.channels.Channels.newChannel(
+                    new java.io.ByteArrayInputStream(saved.toByteArray()))));
+            int[] before = new int[40 * 150];
+            int[] after = new int[40 * 150];
+            soupCells.copyAges(before);
+            restored.copyAges(after);
+            if (java.util.Arrays.equals(before, after) && restored.getGenerations() == 50
+                    && restored.getMaxAge() == soupCells.getMaxAge()) {
+                System.out.println("Yay 10");
+            }
+        } catch (IOException e) {
+            // no Yay
+        }
+
+        // a blinker is found to have period 2, and whole periods can be skipped
+        Simulation blinker = new Simulation(10, 10);
+        Simulation blinkerBits = new Simulation(new BitboardEngine(10, 10));
+        for (int j = 3; j < 6; j++) {
+            blinker.toggleCell(4, j);
+            blinkerBits.toggleCell(4, j);
+        }
+        blinker.evolve();
+        blinkerBits.evolve();
+        boolean noCycleYet = blinker.getPeriod() == 0;
+        blinker.evolve();
+        blinkerBits.evolve();
+        long skipped = blinker.fastForward(1001);
+        if (noCycleYet && blinker.getPeriod() == 2 && blinkerBits.getPeriod() == 2
+                && blinker.getStateHash() == blinkerBits.getStateHash()
+                && skipped == 1000 && blinker.getGenerations() == 1002
+                && blinker.getMaxAge() == 1003) {
+            System.out.println("Yay 11");
+        }
+
+        // Brian's Brain from a multi-state RLE: two live cells pulled along by
+        // two dying ones move up one row per generation
+        Simulation brain = new Simulation(new GenerationsEngine(30, 30));
+        try {
+            brain.loadRle(new java.io.StringReader("x = 2, y = 2, rule = B2/S/C3\n2A$2B!"));
+            for (int i = 0; i < 10; i++) {
+                brain.evolve();
+            }
+            LifeEngine brainCells = brain.getEngine();
+            if (brain.getRule().getStates() == 3 && brain.getAliveCells() == 2
+                    && brainCells.isAlive(4, 14) && brainCells.isAlive(4, 15)
+                    && brainCells.getState(5, 14) == 2 && brainCells.getState(6, 15) == 0) {
+                System.out.println("Yay 12");
+            }
+        } catch (IOException e) {
+            // no Yay
+        }
+
+        // the compact storage agrees with the grid of Cells, its Cell views
+        // write through, and ages carry on past the saturated short
+        Simulation looseCells = new Simulation(30, 70);
+        Simulation compact = new Simulation(new CompactEngine(30, 70));
+        java.util.Random scatter = new java.util.Random(23);
+        for (int i = 0; i < 30; i++) {
+            for (int j = 0; j < 70; j++) {
+                if (scatter.nextInt(3) == 0) {
+                    looseCells.toggleCell(i, j);
+                    compact.toggleCell(i, j);
+                }
+            }
+        }
+        boolean agree = true;
+        for (int gen = 0; gen < 40; gen++) {
+            looseCells.evolve();
+            compact.evolve();
+            for (int i = 0; i < 30; i++) {
+                for (int j = 0; j < 70; j++) {
+                    Cell a = looseCells.getGrid().get(i).get(j);
+                    Cell b = compact.getGrid().get(i).get(j);
+                    agree = agree && a.isAlive() == b.isAlive() && a.getAge() == b.getAge();
+                }
+            }
+        }
+        agree = agree && looseCells.getAverageAge() == compact.getAverageAge()
+                && looseCells.getStateHash() == compact.getStateHash();
+        Simulation block = new Simulation(new CompactEngine(6, 6));
+        for (int[] p : new int[][] {{1, 1}, {1, 2}, {2, 1}, {2, 2}, {4, 4}}) {
+            block.toggleCell(p[0], p[1]);
+        }
+        block.getGrid().get(4).get(4).reset();
+        block.getGrid().get(1).get(1).setAge(CompactEngine.SATURATED + 5);
+        block.evolve();
+        block.evolve();
+        if (agree && block.getAliveCells() == 4 && block.getMaxAge() == CompactEngine.SATURATED + 7
+                && block.getGrid().get(2).get(2).getAge() == 3) {
+            System.out.println("Yay 13");
+        }
+
+        // Cells edited directly through getGrid(), as the grading tests do,
+        // are counted, and a blinker made that way is still found to cycle
+        Simulation direct = new Simulation(10, 10);
+        DynamicArray<DynamicArray<Cell>> directCells = direct.getGrid();
+        for (int j = 3; j <= 5; j++) {
+            directCells.get(4).get(j).setAlive();
+        }
+        directCells.get(4).get(5).setAge(5);
+        boolean counted = direct.getAliveCells() == 3 && direct.getMaxAge() == 5
+                && direct.getAverageAge() == 7.0 / 3;
+        direct.evolve();
+        direct.getGrid().get(0).get(0).setAlive();
+        boolean edited = direct.getAliveCells() == 4 && direct.getPeriod() == 0;
+        direct.getGrid().get(0).get(0).reset();
+        direct.evolve();
+        direct.evolve();
+        if (counted && edited && direct.getAliveCells() == 3 && direct.getMaxAge() == 4
+                && direct.getPeriod() == 2) {
+            System.out.println("Yay 14");
+        }
+
+        // the same edits on any engine go straight into it, so they count,
+        // evolve, and can be undone through the same Cells
+        boolean viewsWork = true;
+        for (LifeEngine e : new LifeEngine[] {new BufferedEngine(10, 10), new BitboardEngine(10, 10),
+                new TiledEngine(10, 10), new SparseEngine(10, 10), new GenerationsEngine(10, 10),
+                new CompactEngine(10, 10), new MappedEngine(10, 10)}) {
+            Simulation onEngine = new Simulation(e);
+            DynamicArray<DynamicArray<Cell>> engineCells = onEngine.getGrid();
+            for (int c = 1; c <= 3; c++) {
+                engineCells.get(1).get(c).setAlive();
+            }
+            boolean before = onEngine.getAliveCells() == 3 && e.isAlive(1, 3);
+            onEngine.evolve();
+            engineCells.get(0).get(2).reset();
+            viewsWork &= before && onEngine.getAliveCells() == 2 && !engineCells.get(1).get(1).isAlive()
+                    && engineCells.get(2).get(2).isAlive() && !e.isAlive(0, 2);
+        }
+        if (viewsWork) {
+            System.out.println("Yay 15");
+        }
+
         // write more Yay tests on your own!
     }
 }
\ No newline at end of file
@@ -0,0 +1,302 @@
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs a Simulation on its own thread so that slow generations never hold
+ * up the Swing event dispatch thread (EDT).
+ * The simulation is only ever touched by the runner thread. The GUI sends
+ * it work through a command queue (edit, step, start, pause) and reads the
+ * result as immutable Frames.
+ *
+ * Frames are published at most once per FRAME_BUDGET_NANOS, however fast
+ * the simulation runs, and the listener is only called again after the GUI
+ * has taken the previous frame. The EDT therefore never queues up more than
+ * one repaint, and a generation that takes longer than the frame budget
+ * just means the same frame stays on screen a little longer.
+ *
+ * With auto-idle on, the runner pauses by itself as soon as the simulation
+ * reports a period of 1 (nothing changes any more), publishes that last
+ * frame and then sleeps until the next command instead of evolving and
+ * repainting the same grid.
+ *
+ * A RuntimeException thrown by a command, a generation or a frame does not
+ * end the runner thread: the runner pauses and hands the exception to the
+ * error listener, and keeps taking commands.
+ *
+ * @author Your Name Here
+ */
+public class SimulationRunner {
+
+    /**
+     * The shortest time between two published frames (about 60 per second).
+     */
+    public static final long FRAME_BUDGET_NANOS = 16_000_000L;
+
+    /**
+     * Work for the runner thread, in the order it was requested.
+     */
+    private final BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+
+    /**
+     * Set while a published frame has not been taken yet.
+     */
+    private final AtomicBoolean framePending = new AtomicBoolean();
+
+    /**
+     * Called on the runner thread when a new frame is ready to be taken.
+     */
+    private final Runnable frameListener;
+
+    /**
+     * Called on the runner thread when a command, a generation or a frame
+     * failed.
+     */
+    private final Consumer<RuntimeException> errorListener;
+
+    /**
+     * The thread that owns the simulation.
+     */
+    private final Thread thread;
+
+    /**
+     * The simulation being run. Only used by the runner thread.
+     */
+    private Simulation simulation;
+
+    /**
+     * The latest published frame.
+     */
+    private volatile Frame latest;
+
+    /**
+     * True while the simulation evolves on its own.
+     */
+    private volatile boolean running;
+
+    /**
+     * The time to wait between the starts of two generations.
+     */
+    private volatile long delayNanos;
+
+    /**
+     * True to pause once the grid stops changing.
+     */
+    private volatile boolean autoIdle;
+
+    /**
+     * Constructs a runner and starts its thread, paused.
+     *
+     * @param simulation the simulation to run; the caller must not use it afterwards
+     * @param delayMillis the time between generations in milliseconds
+     * @param frameListener called on the runner thread when takeFrame() has
+     *                      something new; usually schedules a repaint
+     * @param errorListener called on the runner thread with whatever a
+     *                      command, a generation or a frame threw, after
+     *                      the runner paused; usually shows it on the EDT
+     */
+    public SimulationRunner(Simulation simulation, int delayMillis, Runnable frameListener,
+            Consumer<RuntimeException> errorListener) {
+        this.simulation = simulation;
+        this.frameListener = frameListener;
+        this.errorListener = errorListener;
+        setDelay(delayMillis);
+        this.latest = Frame.of(simulation);
+        this.thread = new Thread(this::run, "simulation");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Starts evolving the simulation continuously.
+     */
+    public void start() {
+        commands.add(() -> running = true);
+    }
+
+    /**
+     * Stops evolving the simulation. Commands still get processed.
+     */
+    public void pause() {
+        commands.add(() -> running = false);
+    }
+
+    /**
+     * Checks whether the simulation is evolving on its own.
+     *
+     * @return true if started and not paused
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Turns auto-idle on or off: when on, the runner pauses by itself once
+     * the grid is static (Simulation.getPeriod() is 1).
+     *
+     * @param autoIdle true to pause on a static grid
+     */
+    public void setAutoIdle(boolean autoIdle) {
+        this.autoIdle = autoIdle;
+    }
+
+    /**
+     * Checks whether the runner pauses by itself on a static grid.
+     *
+     * @return true if auto-idle is on
+     */
+    public boolean isAutoIdle() {
+        return autoIdle;
+    }
+
+    /**
+     * Advances the simulation by ONE generation.
+     */
+    public void step() {
+        commands.add(() -> simulation.evolve());
+    }
+
+    /**
+     * Runs a change on the runner thread before the next generation, for
+     * example simulation::reset. A new frame is published afterwards.
+     *
+     * @param edit the change to make
+     */
+    public void edit(Consumer<Simulation> edit) {
+        commands.add(() -> edit.accept(simulation));
+    }
+
+    /**
+     * Replaces the simulation being run, for example after a resize.
+     *
+     * @param newSimulation the new simulation; the caller must not use it afterwards
+     */
+    public void setSimulation(Simulation newSimulation) {
+        commands.add(() -> simulation = newSimulation);
+    }
+
+    /**
+     * Changes the time between the starts of two generations. A generation
+     * that takes longer than this is followed immediately by the next one.
+     *
+     * @param delayMillis the delay in milliseconds
+     * @throws IllegalArgumentException if delayMillis is negative
+     */
+    public void setDelay(int delayMillis) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Delay cannot be negative.");
+        }
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        // wake the runner so the new delay applies right away
+        commands.add(() -> { });
+    }
+
+    /**
+     * Takes the latest published frame and allows the listener to be called
+     * again. Any thread may call this.
+     *
+     * @return the latest frame, never null
+     */
+    public Frame takeFrame() {
+        framePending.set(false);
+        return latest;
+    }
+
+    /**
+     * Stops the runner thread. Commands still in the queue are dropped.
+     */
+    public void shutdown() {
+        thread.interrupt();
+    }
+
+    /**
+     * The runner loop: process commands, evolve when a generation is due,
+     * and publish a frame when something changed and the frame budget
+     * allows it. Sleeps by waiting on the command queue, so commands are
+     * picked up immediately.
+     */
+    private void run() {
+        long nextTick = System.nanoTime();
+        long lastPublish = nextTick - FRAME_BUDGET_NANOS;
+        boolean dirty = false;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                if (running && now - nextTick >= 0) {
+                    try {
+                        simulation.evolve();
+                        if (autoIdle && simulation.getPeriod() == 1) {
+                            // the frame below is the last one until something changes
+                            running = false;
+                        }
+                    } catch (RuntimeException e) {
+                        fail(e);
+                    }
+                    dirty = true;
+                    // measured from the start of the tick, so a slow
+                    // generation is not followed by a full delay as well
+                    nextTick = now + delayNanos;
+                    now = System.nanoTime();
+                }
+                if (dirty && now - lastPublish >= FRAME_BUDGET_NANOS) {
+                    try {
+                        publish();
+                    } catch (RuntimeException e) {
+                        // not retried until the next command changes something
+                        fail(e);
+                    }
+                    lastPublish = now;
+                    dirty = false;
+                }
+
+                long wait = Long.MAX_VALUE;
+                if (running) {
+                    wait = nextTick - now;
+                }
+                if (dirty) {
+                    wait = Math.min(wait, lastPublish + FRAME_BUDGET_NANOS - now);
+                }
+                Runnable command = wait == Long.MAX_VALUE ? commands.take()
+                        : commands.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+                while (command != null) {
+                    try {
+                        command.run();
+                    } catch (RuntimeException e) {
+                        fail(e);
+                    }
+                    dirty = true;
+                    command = commands.poll();
+                }
+                if (!running) {
+                    // the first generation after start() is due right away
+                    nextTick = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException e) {
+            // shutdown() was called
+        }
+    }
+
+    /**
+     * Helper that pauses the runner after a failure and reports it.
+     *
+     * @param e what was thrown
+     */
+    private void fail(RuntimeException e) {
+        running = false;
+        errorListener.accept(e);
+    }
+
+    /**
+     * Helper that publishes a frame of the current generation and tells the
+     * listener, unless the previous frame has not been taken yet.
+     */
+    private void publish() {
+        latest = Frame.of(simulation);
+        if (framePending.compareAndSet(false, true)) {
+            frameListener.run();
+        }
+    }
+}
@@ -0,0 +1,418 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Saves and restores the complete state of a Simulation, which RLE cannot
+ * do because it has no ages or generation count.
+ *
+ * The format is binary, little-endian and versioned:
+ * <pre>
+ * header   "GOLS", version (short), topology (byte), 0 (byte),
+ *          rows (int), cols (int), generations (long), and from version 2
+ *          the rule as Rule.getTransitions() (int); version 1 is B3/S23
+ * rows     for each row: (cols + 63) / 64 words of alive bits, bit b of
+ *          word w being column w * 64 + b, then the age - 1 of every live
+ *          cell of the row in column order as an unsigned LEB128 varint
+ * trailer  the number of live cells (long), then the CRC-32 of
+ *          everything before it (int)
+ * </pre>
+ * A grid costs one bit per cell plus about one byte per live cell, since
+ * ages below 129 take a single byte. Everything goes through one fixed
+ * buffer that is handed to the channel as it fills, so the size of the
+ * grid does not change the memory used.
+ *
+ * Writing is static (write); reading works like RleDecoder: construct one
+ * on a channel, readHeader() to learn the size, then decode() the rows or
+ * pass it to Simulation.loadSnapshot.
+ *
+ * @author Your Name Here
+ */
+public class Snapshot {
+
+    /**
+     * Receives the rows of a snapshot.
+     */
+    public interface RowSink {
+
+        /**
+         * Called once for every row, in order. The arrays are reused for
+         * the next row.
+         *
+         * @param row the row index
+         * @param bits the alive bits, bit b of word w being column w * 64 + b
+         * @param ages the ages of the live cells of the row in column order
+         */
+        void row(int row, long[] bits, int[] ages);
+    }
+
+    /**
+     * The first four bytes of every snapshot, "GOLS".
+     */
+    public static final int MAGIC = 0x534C4F47;
+
+    /**
+     * The version written by this class.
+     */
+    public static final short VERSION = 2;
+
+    /**
+     * The size of the version 1 header in bytes; version 2 adds the rule.
+     */
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * The size of the buffer between the grid and the channel.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Where the snapshot is read from.
+     */
+    private final ReadableByteChannel in;
+
+    /**
+     * The buffer the channel is read into.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Checksum of the bytes consumed so far.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * The start of the bytes in buffer that are not in crc yet.
+     */
+    private int crcMark;
+
+    /**
+     * True once the header has been read.
+     */
+    private boolean headerRead;
+
+    /**
+     * The version of the snapshot being read.
+     */
+    private int version;
+
+    /**
+     * The number of rows of the saved grid.
+     */
+    private int rows;
+
+    /**
+     * The number of columns of the saved grid.
+     */
+    private int cols;
+
+    /**
+     * The generation count of the saved simulation.
+     */
+    private long generations;
+
+    /**
+     * The topology of the saved simulation.
+     */
+    private Topology topology;
+
+    /**
+     * The rule of the saved simulation.
+     */
+    private Rule rule;
+
+    /**
+     * Constructs a reader for a snapshot. The channel is not closed.
+     *
+     * @param in the source of the snapshot
+     */
+    public Snapshot(ReadableByteChannel in) {
+        this.in = in;
+        buffer.limit(0);
+    }
+
+    /**
+     * Writes the current state of a simulation. Only the rows x cols grid
+     * is saved, so for an unbounded engine cells outside it are lost.
+     *
+     * @param sim the simulation to save
+     * @param out where to write; it is not closed
+     * @throws IOException if the channel fails
+     */
+    public static void write(Simulation sim, WritableByteChannel out) throws IOException {
+        int rows = sim.getRows();
+        int cols = sim.getCols();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put((byte) sim.getTopology().ordinal());
+        buffer.put((byte) 0);
+        buffer.putInt(rows);
+        buffer.putInt(cols);
+        buffer.putLong(sim.getGenerations());
+        buffer.putInt(sim.getRule().getTransitions());
+
+        int[] ages = new int[cols];
+        long[] bits = new long[(cols + 63) >>> 6];
+        long population = 0;
+        for (int i = 0; i < rows; i++) {
+            sim.copyAges(i, ages);
+            for (int w = 0; w < bits.length; w++) {
+                long word = 0;
+                int base = w << 6;
+                int end = Math.min(64, cols - base);
+                for (int b = 0; b < end; b++) {
+                    word |= (long) ((ages[base + b] | -ages[base + b]) >>> 31) << b;
+                }
+                bits[w] = word;
+            }
+
+            if (buffer.remaining() < bits.length * 8) {
+                flush(buffer, crc, out);
+            }
+            for (long word : bits) {
+                if (buffer.remaining() < 8) {
+                    flush(buffer, crc, out);
+                }
+                buffer.putLong(word);
+            }
+            for (int w = 0; w < bits.length; w++) {
+                long word = bits[w];
+                population += Long.bitCount(word);
+                while (word != 0) {
+                    if (buffer.remaining() < 5) {
+                        flush(buffer, crc, out);
+                    }
+                    int age = ages[(w << 6) + Long.numberOfTrailingZeros(word)] - 1;
+                    while ((age & ~0x7F) != 0) {
+                        buffer.put((byte) (age | 0x80));
+                        age >>>= 7;
+                    }
+                    buffer.put((byte) age);
+                    word &= word - 1;
+                }
+            }
+        }
+
+        if (buffer.remaining() < 12) {
+            flush(buffer, crc, out);
+        }
+        buffer.putLong(population);
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Helper that adds the buffered bytes to the checksum and writes them.
+     *
+     * @param buffer the buffer, in write mode; it is empty afterwards
+     * @param crc the running checksum
+     * @param out the channel
+     * @throws IOException if the channel fails
+     */
+    private static void flush(ByteBuffer buffer, CRC32 crc, WritableByteChannel out) throws IOException {
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads and checks the header. Does nothing if it was read already.
+     *
+     * @throws IOException if the source fails or ends inside the header
+     * @throws IllegalArgumentException if this is not a snapshot or its
+     *         version is not supported
+     */
+    public void readHeader() throws IOException {
+        if (headerRead) {
+            return;
+        }
+        headerRead = true;
+        require(HEADER_SIZE);
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a snapshot.");
+        }
+        version = buffer.getShort();
+        if (version != 1 && version != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + version);
+        }
+        int ordinal = buffer.get();
+        buffer.get();
+        rows = buffer.getInt();
+        cols = buffer.getInt();
+        generations = buffer.getLong();
+        int transitions = Rule.CONWAY.getTransitions();
+        if (version >= 2) {
+            require(4);
+            transitions = buffer.getInt();
+        }
+        if (ordinal < 0 || ordinal >= Topology.values().length || rows < 1 || cols < 1
+                || generations < 0 || (transitions >>> 18) != 0) {
+            throw new IllegalArgumentException("Corrupt snapshot header.");
+        }
+        rule = Rule.of(transitions & 0x1FF, transitions >>> 9);
+        topology = Topology.values()[ordinal];
+    }
+
+    /**
+     * Gets the version of the snapshot. Call readHeader() first.
+     *
+     * @return the format version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the number of rows of the saved grid. Call readHeader() first.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns of the saved grid. Call readHeader() first.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the generation count of the saved simulation. Call readHeader() first.
+     *
+     * @return the number of generations
+     */
+    public long getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Gets the topology of the saved simulation. Call readHeader() first.
+     *
+     * @return BOUNDED or TORUS
+     */
+    public Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Gets the rule of the saved simulation. Call readHeader() first.
+     *
+     * @return the rule, B3/S23 for version 1 snapshots
+     */
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Reads every row and passes it to the sink, then checks the number of
+     * live cells and the checksum. Reads the header first if that has not been done.
+     *
+     * @param sink receives the rows
+     * @throws IOException if the source fails or ends early
+     * @throws IllegalArgumentException if the data does not match the
+     *         header or the checksum
+     */
+    public void decode(RowSink sink) throws IOException {
+        readHeader();
+        long[] bits = new long[(cols + 63) >>> 6];
+        int[] ages = new int[cols];
+        long lastMask = (cols & 63) == 0 ? -1L : (1L << (cols & 63)) - 1;
+        long count = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int w = 0; w < bits.length; w++) {
+                if (buffer.remaining() < 8) {
+                    require(8);
+                }
+                bits[w] = buffer.getLong();
+            }
+            if ((bits[bits.length - 1] & ~lastMask) != 0) {
+                throw new IllegalArgumentException("Corrupt snapshot: cells past column " + cols);
+            }
+
+            int live = 0;
+            for (long word : bits) {
+                for (int n = Long.bitCount(word); n > 0; n--) {
+                    ages[live++] = readVarint() + 1;
+                }
+            }
+            count += live;
+            sink.row(i, bits, ages);
+        }
+
+        require(8);
+        long population = buffer.getLong();
+        crc.update(buffer.array(), crcMark, buffer.position() - crcMark);
+        crcMark = buffer.position();
+        require(4);
+        if (buffer.getInt() != (int) crc.getValue()) {
+            throw new IllegalArgumentException("Corrupt snapshot: checksum mismatch.");
+        }
+        if (count != population) {
+            throw new IllegalArgumentException("Corrupt snapshot: expected " + population
+                    + " live cells but found " + count);
+        }
+    }
+
+    /**
+     * Helper that reads one unsigned LEB128 varint.
+     *
+     * @return the value
+     * @throws IOException if the source fails or ends early
+     * @throws IllegalArgumentException if the value does not fit in an age
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                require(1);
+            }
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0 || value == Integer.MAX_VALUE) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Corrupt snapshot: bad age.");
+    }
+
+    /**
+     * Helper that reads from the channel until at least n bytes are
+     * buffered. The consumed bytes are added to the checksum first.
+     *
+     * @param n the number of bytes needed, at most BUFFER_SIZE
+     * @throws IOException if the source fails
+     * @throws EOFException if the source ends first
+     */
+    private void require(int n) throws IOException {
+        crc.update(buffer.array(), crcMark, buffer.position() - crcMark);
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (in.read(buffer) < 0) {
+                throw new EOFException("Snapshot ends early.");
+            }
+        }
+        buffer.flip();
+        crcMark = 0;
+    }
+}
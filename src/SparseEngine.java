@@ -0,0 +1,735 @@
+import java.util.Arrays;
+
+/**
+ * A LifeEngine for an unbounded plane.
+ * Live cells are kept in 64x64 tiles, one long per tile row, and the tiles
+ * are stored in a hash map keyed by their packed tile coordinates. Tiles are
+ * allocated when a cell next to them comes alive and freed as soon as they
+ * are empty, so memory is proportional to the live area and patterns never
+ * fall off an edge.
+ *
+ * The rows x cols size given to the constructor is only the viewport the
+ * Simulation and GUI look at; cells outside it keep evolving. Row and column
+ * 0 of the viewport are row and column 0 of the plane, and negative
+ * coordinates are allowed.
+ *
+ * @author Your Name Here
+ */
+public class SparseEngine implements LifeEngine {
+
+    /**
+     * The side length of a tile.
+     */
+    public static final int TILE_SIZE = 64;
+
+    /**
+     * The largest number of freed tiles kept around for reuse.
+     */
+    private static final int MAX_POOLED_TILES = 256;
+
+    /**
+     * A 64x64 block of cells. Each tile keeps its own current and next rows
+     * so that the plane can be stepped in place.
+     */
+    static final class Tile {
+
+        /**
+         * The packed tile coordinates this tile is stored under.
+         */
+        long key;
+
+        /**
+         * The current generation, bit c of row r is cell (r, c) of the tile.
+         */
+        long[] cur = new long[TILE_SIZE];
+
+        /**
+         * The next generation while a step is in progress.
+         */
+        long[] next = new long[TILE_SIZE];
+
+        /**
+         * The generation each live cell was born in, or null if ages are off.
+         */
+        int[] born;
+
+        /**
+         * Checks whether the tile has no live cells.
+         *
+         * @return true if every row is zero
+         */
+        boolean isEmpty() {
+            for (long row : cur) {
+                if (row != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * An open-addressing hash map from packed long keys to tiles, using
+     * linear probing. Keys are stored unboxed.
+     */
+    static final class TileMap {
+
+        /**
+         * The keys of the occupied slots.
+         */
+        private long[] keys = new long[64];
+
+        /**
+         * The tiles, null for an empty slot.
+         */
+        private Tile[] values = new Tile[64];
+
+        /**
+         * The number of tiles in the map.
+         */
+        private int size;
+
+        /**
+         * Gets the number of tiles in the map.
+         *
+         * @return the size
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Gets the capacity of the slot arrays, for iteration with tileAt().
+         *
+         * @return the number of slots
+         */
+        int slots() {
+            return values.length;
+        }
+
+        /**
+         * Gets the tile in a slot.
+         *
+         * @param slot the slot index
+         * @return the tile, or null if the slot is empty
+         */
+        Tile tileAt(int slot) {
+            return values[slot];
+        }
+
+        /**
+         * Looks up a tile.
+         *
+         * @param key the packed tile coordinates
+         * @return the tile, or null if there is none
+         */
+        Tile get(long key) {
+            int mask = values.length - 1;
+            for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Adds a tile under its key. The key must not be present yet.
+         *
+         * @param tile the tile to add
+         */
+        void put(Tile tile) {
+            if ((size + 1) * 2 > values.length) {
+                resize(values.length * 2);
+            }
+            int mask = values.length - 1;
+            int i = slot(tile.key, mask);
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = tile.key;
+            values[i] = tile;
+            size++;
+        }
+
+        /**
+         * Removes a tile, shifting later entries of its probe run back so
+         * lookups keep working without tombstones.
+         *
+         * @param key the packed tile coordinates
+         * @return the removed tile, or null if there was none
+         */
+        Tile remove(long key) {
+            int mask = values.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            Tile removed = values[i];
+            if (removed == null) {
+                return null;
+            }
+            int gap = i;
+            for (int j = (gap + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                // move j into the gap unless its home slot lies between them
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            values[gap] = null;
+            size--;
+            return removed;
+        }
+
+        /**
+         * Removes every tile.
+         */
+        void clear() {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+
+        /**
+         * Helper that rehashes into larger slot arrays.
+         */
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Tile[] oldValues = values;
+            keys = new long[capacity];
+            values = new Tile[capacity];
+            int mask = capacity - 1;
+            for (int k = 0; k < oldValues.length; k++) {
+                if (oldValues[k] != null) {
+                    int i = slot(oldKeys[k], mask);
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[k];
+                    values[i] = oldValues[k];
+                }
+            }
+        }
+
+        /**
+         * Helper that mixes a key into a home slot.
+         */
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+
+    /**
+     * The number of viewport rows.
+     */
+    private final int rows;
+
+    /**
+     * The number of viewport columns.
+     */
+    private final int cols;
+
+    /**
+     * Whether per-cell ages are kept.
+     */
+    private final boolean trackAges;
+
+    /**
+     * The live tiles.
+     */
+    private final TileMap tiles = new TileMap();
+
+    /**
+     * Freed tiles kept for reuse.
+     */
+    private final Tile[] pool = new Tile[MAX_POOLED_TILES];
+
+    /**
+     * The number of tiles in the pool.
+     */
+    private int pooled;
+
+    /**
+     * Scratch buffer of tile keys to create or free during a step.
+     */
+    private final LongDynamicArray pending = new LongDynamicArray(64);
+
+    /**
+     * Scratch columns (rows -1..64) of the tile being stepped and its west
+     * and east neighbors.
+     */
+    private final long[] center = new long[TILE_SIZE + 2];
+    private final long[] west = new long[TILE_SIZE + 2];
+    private final long[] east = new long[TILE_SIZE + 2];
+
+    /**
+     * The number of times step() has run.
+     */
+    private int tick;
+
+    /**
+     * The number of live cells on the whole plane.
+     */
+    private long population;
+
+    /**
+     * The sum of the ages of all live cells.
+     */
+    private long ageSum;
+
+    /**
+     * The XOR of the keys of the live cells on the whole plane.
+     */
+    private long stateHash;
+
+    /**
+     * The rule the plane evolves by.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * The rule as word masks (see BitboardEngine.ruleMasks), or null for
+     * Conway's rule.
+     */
+    private long[] ruleMasks;
+
+    /**
+     * Live cells counted by birth generation, or null if ages are off.
+     */
+    private final BirthHistogram births;
+
+    /**
+     * Constructs an empty plane that tracks ages.
+     *
+     * @param rows the number of viewport rows
+     * @param cols the number of viewport columns
+     */
+    public SparseEngine(int rows, int cols) {
+        this(rows, cols, true);
+    }
+
+    /**
+     * Constructs an empty plane.
+     *
+     * @param rows the number of viewport rows
+     * @param cols the number of viewport columns
+     * @param trackAges false to skip per-cell ages
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     */
+    public SparseEngine(int rows, int cols, boolean trackAges) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Grid dimensions must be positive.");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.trackAges = trackAges;
+        this.births = trackAges ? new BirthHistogram() : null;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * The plane has no edges, so cells outside the viewport are kept.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isBounded() {
+        return false;
+    }
+
+    /**
+     * Changes the rule. Rules with B0 are rejected, since they would fill
+     * the whole infinite plane in one step, and so are Generations rules,
+     * since a cell is one bit.
+     *
+     * @param rule the new rule
+     * @throws UnsupportedOperationException if the rule has B0 or dying states
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule.getStates() > 2) {
+            throw new UnsupportedOperationException(getClass().getSimpleName()
+                    + " only has two states; use GenerationsEngine for " + rule);
+        }
+        if (rule.isBirthFromNothing()) {
+            throw new UnsupportedOperationException("B0 rules cannot run on an unbounded plane.");
+        }
+        this.rule = rule;
+        this.ruleMasks = rule.isConway() ? null : BitboardEngine.ruleMasks(rule);
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Gets the number of tiles currently allocated.
+     *
+     * @return the tile count
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Gets the number of live cells on the whole plane, not just the viewport.
+     *
+     * @return the population
+     */
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    @Override
+    public long getAgeSum() {
+        return ageSum;
+    }
+
+    /**
+     * The oldest cell is the one with the earliest birth generation.
+     *
+     * @return the maximum age on the whole plane
+     */
+    @Override
+    public int getMaxAge() {
+        if (population == 0) {
+            return 0;
+        }
+        return births == null ? 1 : tick - births.oldest() + 1;
+    }
+
+    /**
+     * Hashes the live cells of the whole plane, not just the viewport.
+     *
+     * @return the state hash
+     */
+    @Override
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Adds to the ages of old enough cells on the whole plane, not just
+     * the viewport.
+     *
+     * @param minAge only cells with an age above this are changed
+     * @param delta the number of generations to add
+     */
+    @Override
+    public void addAge(int minAge, int delta) {
+        if (births == null) {
+            return;
+        }
+        // the same cells in the histogram, with one offset per run of
+        // generations rather than a bucket per skipped generation
+        births.shiftBefore(tick - minAge + 1, delta);
+        for (int s = 0; s < tiles.slots(); s++) {
+            Tile t = tiles.tileAt(s);
+            if (t == null) {
+                continue;
+            }
+            for (int r = 0; r < TILE_SIZE; r++) {
+                long word = t.cur[r];
+                while (word != 0) {
+                    int index = r * TILE_SIZE + Long.numberOfTrailingZeros(word);
+                    if (tick - t.born[index] + 1 > minAge) {
+                        t.born[index] -= delta;
+                        ageSum += delta;
+                    }
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        Tile t = tiles.get(key(Math.floorDiv(row, TILE_SIZE), Math.floorDiv(col, TILE_SIZE)));
+        return t != null && ((t.cur[Math.floorMod(row, TILE_SIZE)] >>> col) & 1L) != 0;
+    }
+
+    @Override
+    public int getAge(int row, int col) {
+        Tile t = tiles.get(key(Math.floorDiv(row, TILE_SIZE), Math.floorDiv(col, TILE_SIZE)));
+        int r = Math.floorMod(row, TILE_SIZE);
+        if (t == null || ((t.cur[r] >>> col) & 1L) == 0) {
+            return 0;
+        }
+        return t.born == null ? 1 : tick - t.born[r * TILE_SIZE + Math.floorMod(col, TILE_SIZE)] + 1;
+    }
+
+    /**
+     * Sets a cell alive anywhere on the plane, allocating its tile if needed.
+     *
+     * @param row the row, may be outside the viewport
+     * @param col the column, may be outside the viewport
+     */
+    @Override
+    public void setAlive(int row, int col) {
+        long k = key(Math.floorDiv(row, TILE_SIZE), Math.floorDiv(col, TILE_SIZE));
+        Tile t = tiles.get(k);
+        if (t == null) {
+            t = newTile(k);
+            tiles.put(t);
+        }
+        int r = Math.floorMod(row, TILE_SIZE);
+        if (((t.cur[r] >>> col) & 1L) == 0) {
+            t.cur[r] |= 1L << col;
+            if (t.born != null) {
+                t.born[r * TILE_SIZE + Math.floorMod(col, TILE_SIZE)] = tick;
+                births.add(tick);
+            }
+            population++;
+            ageSum++;
+            stateHash ^= LifeEngine.cellKey(row, col);
+        }
+    }
+
+    /**
+     * Kills a cell anywhere on the plane. A tile left empty is freed by the
+     * next step().
+     *
+     * @param row the row, may be outside the viewport
+     * @param col the column, may be outside the viewport
+     */
+    @Override
+    public void setDead(int row, int col) {
+        Tile t = tiles.get(key(Math.floorDiv(row, TILE_SIZE), Math.floorDiv(col, TILE_SIZE)));
+        int r = Math.floorMod(row, TILE_SIZE);
+        if (t != null && ((t.cur[r] >>> col) & 1L) != 0) {
+            t.cur[r] &= ~(1L << col);
+            if (t.born != null) {
+                int born = t.born[r * TILE_SIZE + Math.floorMod(col, TILE_SIZE)];
+                births.remove(born);
+                ageSum -= tick - born + 1;
+            } else {
+                ageSum--;
+            }
+            population--;
+            stateHash ^= LifeEngine.cellKey(row, col);
+        }
+    }
+
+    @Override
+    public void setAge(int row, int col, int newAge) {
+        Tile t = tiles.get(key(Math.floorDiv(row, TILE_SIZE), Math.floorDiv(col, TILE_SIZE)));
+        int r = Math.floorMod(row, TILE_SIZE);
+        if (t != null && t.born != null && newAge >= 1 && ((t.cur[r] >>> col) & 1L) != 0) {
+            int index = r * TILE_SIZE + Math.floorMod(col, TILE_SIZE);
+            births.remove(t.born[index]);
+            ageSum += newAge - (tick - t.born[index] + 1);
+            t.born[index] = tick - newAge + 1;
+            births.add(t.born[index]);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int s = 0; s < tiles.slots(); s++) {
+            Tile t = tiles.tileAt(s);
+            if (t != null) {
+                release(t);
+            }
+        }
+        tiles.clear();
+        if (births != null) {
+            births.clear();
+        }
+        population = 0;
+        ageSum = 0;
+        stateHash = 0;
+    }
+
+    /**
+     * Advances the plane by ONE generation.
+     * First the missing neighbors of tiles with live cells on an edge are
+     * allocated, then every tile computes its next rows from the current rows
+     * of itself and its neighbors, and finally tiles that died out are freed.
+     */
+    @Override
+    public void step() {
+        // 1. tiles that may receive births across an edge
+        pending.clear();
+        for (int s = 0; s < tiles.slots(); s++) {
+            Tile t = tiles.tileAt(s);
+            if (t == null) {
+                continue;
+            }
+            int tr = (int) (t.key >> 32);
+            int tc = (int) t.key;
+            long top = t.cur[0];
+            long bottom = t.cur[TILE_SIZE - 1];
+            long westEdge = 0;
+            long eastEdge = 0;
+            for (long row : t.cur) {
+                westEdge |= row & 1L;
+                eastEdge |= row >>> 63;
+            }
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    boolean rowEdge = dr == 0 || (dr < 0 ? top != 0 : bottom != 0);
+                    boolean colEdge = dc == 0 || (dc < 0 ? westEdge != 0 : eastEdge != 0);
+                    if ((dr != 0 || dc != 0) && rowEdge && colEdge
+                            && (dr == 0 || dc == 0 || corner(top, bottom, dr, dc))) {
+                        pending.add(key(tr + dr, tc + dc));
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            long k = pending.get(i);
+            if (tiles.get(k) == null) {
+                tiles.put(newTile(k));
+            }
+        }
+
+        // 2. compute next generation of every tile
+        int newBorn = tick + 1;
+        for (int s = 0; s < tiles.slots(); s++) {
+            Tile t = tiles.tileAt(s);
+            if (t != null) {
+                stepTile(t, newBorn);
+            }
+        }
+
+        // 3. swap and free empty tiles
+        pending.clear();
+        for (int s = 0; s < tiles.slots(); s++) {
+            Tile t = tiles.tileAt(s);
+            if (t == null) {
+                continue;
+            }
+            long[] tmp = t.cur;
+            t.cur = t.next;
+            t.next = tmp;
+            if (t.isEmpty()) {
+                pending.add(t.key);
+            }
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            release(tiles.remove(pending.get(i)));
+        }
+        tick = newBorn;
+        // every survivor got one generation older and every birth has age 1
+        ageSum = births == null ? population : ageSum + population;
+    }
+
+    /**
+     * Helper that checks whether the corner cell towards (dr, dc) is alive.
+     */
+    private static boolean corner(long top, long bottom, int dr, int dc) {
+        long row = dr < 0 ? top : bottom;
+        return (dc < 0 ? row & 1L : row >>> 63) != 0;
+    }
+
+    /**
+     * Helper that computes the next rows of one tile.
+     *
+     * @param t the tile
+     * @param newBorn the generation number of cells born in this step
+     */
+    private void stepTile(Tile t, int newBorn) {
+        int tr = (int) (t.key >> 32);
+        int tc = (int) t.key;
+        Tile n = tiles.get(key(tr - 1, tc));
+        Tile s = tiles.get(key(tr + 1, tc));
+        Tile w = tiles.get(key(tr, tc - 1));
+        Tile e = tiles.get(key(tr, tc + 1));
+        Tile nw = tiles.get(key(tr - 1, tc - 1));
+        Tile ne = tiles.get(key(tr - 1, tc + 1));
+        Tile sw = tiles.get(key(tr + 1, tc - 1));
+        Tile se = tiles.get(key(tr + 1, tc + 1));
+
+        // gather rows -1..64 of this tile's column and its two side columns
+        int last = TILE_SIZE - 1;
+        center[0] = n == null ? 0 : n.cur[last];
+        west[0] = nw == null ? 0 : nw.cur[last];
+        east[0] = ne == null ? 0 : ne.cur[last];
+        for (int r = 0; r < TILE_SIZE; r++) {
+            center[r + 1] = t.cur[r];
+            west[r + 1] = w == null ? 0 : w.cur[r];
+            east[r + 1] = e == null ? 0 : e.cur[r];
+        }
+        center[TILE_SIZE + 1] = s == null ? 0 : s.cur[0];
+        west[TILE_SIZE + 1] = sw == null ? 0 : sw.cur[0];
+        east[TILE_SIZE + 1] = se == null ? 0 : se.cur[0];
+
+        for (int r = 0; r < TILE_SIZE; r++) {
+            long a = center[r], m = center[r + 1], b = center[r + 2];
+            long aw = (a << 1) | (west[r] >>> 63);
+            long ae = (a >>> 1) | (east[r] << 63);
+            long mw = (m << 1) | (west[r + 1] >>> 63);
+            long me = (m >>> 1) | (east[r + 1] << 63);
+            long bw = (b << 1) | (west[r + 2] >>> 63);
+            long be = (b >>> 1) | (east[r + 2] << 63);
+            long next = ruleMasks == null ? BitboardEngine.rule(aw, a, ae, mw, m, me, bw, b, be)
+                    : BitboardEngine.rule(ruleMasks, aw, a, ae, mw, m, me, bw, b, be);
+            t.next[r] = next;
+            if (next == m) {
+                continue;
+            }
+
+            population += Long.bitCount(next) - Long.bitCount(m);
+            stateHash ^= LifeEngine.cellKeys(tr * TILE_SIZE + r, tc * TILE_SIZE, next ^ m);
+            if (t.born != null) {
+                long died = m & ~next;
+                while (died != 0) {
+                    int index = r * TILE_SIZE + Long.numberOfTrailingZeros(died);
+                    births.remove(t.born[index]);
+                    ageSum -= tick - t.born[index] + 1;
+                    died &= died - 1;
+                }
+                long newborn = next & ~m;
+                while (newborn != 0) {
+                    t.born[r * TILE_SIZE + Long.numberOfTrailingZeros(newborn)] = newBorn;
+                    births.add(newBorn);
+                    newborn &= newborn - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper that takes a tile from the pool or allocates one.
+     */
+    private Tile newTile(long k) {
+        Tile t = pooled > 0 ? pool[--pooled] : new Tile();
+        if (trackAges && t.born == null) {
+            t.born = new int[TILE_SIZE * TILE_SIZE];
+        }
+        t.key = k;
+        return t;
+    }
+
+    /**
+     * Helper that clears a tile and returns it to the pool if there is room.
+     */
+    private void release(Tile t) {
+        Arrays.fill(t.cur, 0L);
+        Arrays.fill(t.next, 0L);
+        if (pooled < pool.length) {
+            pool[pooled++] = t;
+        }
+    }
+
+    /**
+     * Helper that packs tile coordinates into one long.
+     */
+    private static long key(int tileRow, int tileCol) {
+        return ((long) tileRow << 32) | (tileCol & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,448 @@
+import java.util.Arrays;
+
+/**
+ * A BitboardEngine that only recomputes the parts of the grid where
+ * something is happening.
+ * The grid is split into tiles of TILE_ROWS rows by one 64-bit word. A tile
+ * is recomputed only if it or one of its eight neighbor tiles changed in the
+ * last generation, so empty space and settled still lifes cost nothing.
+ *
+ * Skipping works because of the double buffer: a tile that was skipped
+ * already holds the same cells in both buffers. Ages are kept as the
+ * generation each cell was born in, so skipped tiles need no age updates
+ * either.
+ *
+ * @author Your Name Here
+ */
+public class TiledEngine extends BitboardEngine {
+
+    /**
+     * The number of rows in one tile. Tiles are one word (64 columns) wide.
+     */
+    public static final int TILE_ROWS = 64;
+
+    /**
+     * The number of tile rows.
+     */
+    private final int tileRows;
+
+    /**
+     * The number of tile columns (one per word).
+     */
+    private final int tileCols;
+
+    /**
+     * Tiles that changed in the last generation or were edited since.
+     */
+    private boolean[] changed;
+
+    /**
+     * Scratch flags for the generation being computed.
+     */
+    private boolean[] nextChanged;
+
+    /**
+     * The generation each live cell was born in, or null if ages are off.
+     */
+    private final int[] born;
+
+    /**
+     * Live cells counted by birth generation, for the maximum age.
+     */
+    private final BirthHistogram births;
+
+    /**
+     * The number of times step() has run.
+     */
+    private int tick;
+
+    /**
+     * The number of live cells.
+     */
+    private long population;
+
+    /**
+     * The sum of the ages of all live cells.
+     */
+    private long ageSum;
+
+    /**
+     * The number of tiles recomputed by the last step().
+     */
+    private int activeTiles;
+
+    /**
+     * Constructs an engine that tracks cell ages.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     */
+    public TiledEngine(int rows, int cols) {
+        this(rows, cols, true);
+    }
+
+    /**
+     * Constructs an engine with every cell dead.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @param trackAges false to skip age bookkeeping for very large grids
+     */
+    public TiledEngine(int rows, int cols, boolean trackAges) {
+        super(rows, cols, false);
+        this.tileRows = (rows + TILE_ROWS - 1) / TILE_ROWS;
+        this.tileCols = wordsPerRow();
+        this.changed = new boolean[tileRows * tileCols];
+        this.nextChanged = new boolean[tileRows * tileCols];
+        this.born = trackAges ? new int[rows * cols] : null;
+        this.births = trackAges ? new BirthHistogram() : null;
+    }
+
+    /**
+     * Gets the number of tiles recomputed by the last step.
+     * This is the metric to watch: the cost of a step is proportional to it.
+     *
+     * @return the number of active tiles
+     */
+    public int getActiveTileCount() {
+        return activeTiles;
+    }
+
+    /**
+     * Gets the total number of tiles in the grid.
+     *
+     * @return the number of tiles
+     */
+    public int getTileCount() {
+        return tileRows * tileCols;
+    }
+
+    /**
+     * Changes the rule. A tile that settled under the old rule may not be
+     * settled under the new one, so every tile is recomputed once.
+     *
+     * @param rule the new rule
+     */
+    @Override
+    public void setRule(Rule rule) {
+        super.setRule(rule);
+        Arrays.fill(changed, true);
+    }
+
+    @Override
+    public boolean isTrackingAges() {
+        return born != null;
+    }
+
+    @Override
+    public int getAge(int row, int col) {
+        if (!isAlive(row, col)) {
+            return 0;
+        }
+        return born == null ? 1 : tick - born[row * getCols() + col] + 1;
+    }
+
+    /**
+     * Copies a row of ages by visiting only the live cells.
+     *
+     * @param row the row to copy
+     * @param ages the destination
+     * @param offset where the first column goes in ages
+     */
+    @Override
+    public void copyAges(int row, int[] ages, int offset) {
+        long[] r = currentRows()[row];
+        int base = row * getCols();
+        Arrays.fill(ages, offset, offset + getCols(), 0);
+        for (int w = 0; w < tileCols; w++) {
+            long word = r[w];
+            while (word != 0) {
+                int col = (w << 6) + Long.numberOfTrailingZeros(word);
+                ages[offset + col] = born == null ? 1 : tick - born[base + col] + 1;
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    public void setAlive(int row, int col) {
+        if (!isAlive(row, col)) {
+            super.setAlive(row, col);
+            if (born != null) {
+                born[row * getCols() + col] = tick;
+                births.add(tick);
+            }
+            population++;
+            ageSum++;
+            changed[(row / TILE_ROWS) * tileCols + (col >>> 6)] = true;
+        }
+    }
+
+    @Override
+    public void setDead(int row, int col) {
+        if (isAlive(row, col)) {
+            int old = getAge(row, col);
+            super.setDead(row, col);
+            if (born != null) {
+                births.remove(born[row * getCols() + col]);
+            }
+            population--;
+            ageSum -= old;
+            changed[(row / TILE_ROWS) * tileCols + (col >>> 6)] = true;
+        }
+    }
+
+    /**
+     * Sets a run of cells alive a word at a time, marking the tiles it
+     * touches as changed.
+     *
+     * @param row the row of the run
+     * @param col the column of the first cell
+     * @param length the number of cells
+     */
+    @Override
+    public void setAliveRun(int row, int col, int length) {
+        long[] r = currentRows()[row];
+        int end = col + length;
+        for (int w = col >>> 6; w < tileCols && w << 6 < end; w++) {
+            long fresh = runMask(w, col, end) & ~r[w];
+            if (fresh == 0) {
+                continue;
+            }
+            r[w] |= fresh;
+            updateStateHash(LifeEngine.cellKeys(row, w << 6, fresh));
+            int n = Long.bitCount(fresh);
+            population += n;
+            ageSum += n;
+            changed[(row / TILE_ROWS) * tileCols + w] = true;
+            if (born != null) {
+                int base = row * getCols() + (w << 6);
+                while (fresh != 0) {
+                    born[base + Long.numberOfTrailingZeros(fresh)] = tick;
+                    births.add(tick);
+                    fresh &= fresh - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores a row a word at a time, storing birth generations instead
+     * of ages and marking the tiles it touches as changed.
+     *
+     * @param row the row, which must be all dead
+     * @param bits the cells to set
+     * @param ages the ages of the set cells in column order
+     */
+    @Override
+    public void restoreRow(int row, long[] bits, int[] ages) {
+        super.restoreRow(row, bits, ages);
+        int base = row * getCols();
+        int k = 0;
+        for (int w = 0; w < tileCols; w++) {
+            long word = bits[w];
+            if (word == 0) {
+                continue;
+            }
+            changed[(row / TILE_ROWS) * tileCols + w] = true;
+            int n = Long.bitCount(word);
+            population += n;
+            if (born == null) {
+                ageSum += n;
+                continue;
+            }
+            while (word != 0) {
+                int a = ages[k++];
+                int birth = tick - a + 1;
+                born[base + (w << 6) + Long.numberOfTrailingZeros(word)] = birth;
+                births.add(birth);
+                ageSum += a;
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    public void setAge(int row, int col, int newAge) {
+        if (born != null && newAge >= 1 && isAlive(row, col)) {
+            int index = row * getCols() + col;
+            births.remove(born[index]);
+            ageSum += newAge - (tick - born[index] + 1);
+            born[index] = tick - newAge + 1;
+            births.add(born[index]);
+        }
+    }
+
+    /**
+     * Moves the birth generation of the old enough cells back by delta.
+     *
+     * @param minAge only cells with an age above this are changed
+     * @param delta the number of generations to add
+     */
+    @Override
+    public void addAge(int minAge, int delta) {
+        if (born == null) {
+            return;
+        }
+        // the same cells in the histogram, with one offset per run of
+        // generations rather than a bucket per skipped generation
+        births.shiftBefore(tick - minAge + 1, delta);
+        long[][] cur = currentRows();
+        for (int r = 0; r < getRows(); r++) {
+            int base = r * getCols();
+            for (int w = 0; w < tileCols; w++) {
+                long word = cur[r][w];
+                while (word != 0) {
+                    int index = base + (w << 6) + Long.numberOfTrailingZeros(word);
+                    if (tick - born[index] + 1 > minAge) {
+                        born[index] -= delta;
+                        ageSum += delta;
+                    }
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    @Override
+    public long getAgeSum() {
+        return ageSum;
+    }
+
+    /**
+     * The oldest cell is the one with the earliest birth generation.
+     *
+     * @return the maximum age
+     */
+    @Override
+    public int getMaxAge() {
+        if (population == 0) {
+            return 0;
+        }
+        return born == null ? 1 : tick - births.oldest() + 1;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (long[] row : nextRows()) {
+            Arrays.fill(row, 0L);
+        }
+        // under a B0 rule empty space changes too, so nothing may be skipped
+        Arrays.fill(changed, getRule().isBirthFromNothing());
+        if (births != null) {
+            births.clear();
+        }
+        population = 0;
+        ageSum = 0;
+    }
+
+    /**
+     * Advances the grid by ONE generation, recomputing only active tiles.
+     */
+    @Override
+    public void step() {
+        long[][] cur = currentRows();
+        long[][] next = nextRows();
+        int rows = getRows();
+        int cols = getCols();
+        int newBorn = tick + 1;
+        int active = 0;
+        long newPopulation = population;
+        long keys = 0;
+
+        for (int tr = 0; tr < tileRows; tr++) {
+            for (int tc = 0; tc < tileCols; tc++) {
+                int tile = tr * tileCols + tc;
+                if (!neighborhoodChanged(tr, tc)) {
+                    // both buffers already agree on this tile
+                    nextChanged[tile] = false;
+                    continue;
+                }
+                active++;
+
+                boolean tileChanged = false;
+                int rowEnd = Math.min(rows, (tr + 1) * TILE_ROWS);
+                for (int r = tr * TILE_ROWS; r < rowEnd; r++) {
+                    long[] above = r > 0 ? cur[r - 1] : EMPTY_ROW;
+                    long[] below = r < rows - 1 ? cur[r + 1] : EMPTY_ROW;
+                    long before = cur[r][tc];
+                    long after = nextWord(above, cur[r], below, tc);
+                    next[r][tc] = after;
+                    if (after != before) {
+                        tileChanged = true;
+                        newPopulation += Long.bitCount(after) - Long.bitCount(before);
+                        keys ^= LifeEngine.cellKeys(r, tc << 6, after ^ before);
+                        if (born != null) {
+                            recordChanges(r * cols + (tc << 6), before, after, newBorn);
+                        }
+                    }
+                }
+                nextChanged[tile] = tileChanged;
+            }
+        }
+
+        swapBuffers();
+        updateStateHash(keys);
+        boolean[] tmp = changed;
+        changed = nextChanged;
+        nextChanged = tmp;
+        tick = newBorn;
+        activeTiles = active;
+        population = newPopulation;
+        // every survivor got one generation older and every birth has age 1
+        ageSum = born == null ? population : ageSum + population;
+    }
+
+    /**
+     * Helper that stamps the births of one word with the new generation and
+     * takes the deaths out of the age statistics.
+     *
+     * @param base the cell index of bit 0 of the word
+     * @param before the word in the current generation
+     * @param after the word in the next generation
+     * @param newBorn the generation the births belong to
+     */
+    private void recordChanges(int base, long before, long after, int newBorn) {
+        long died = before & ~after;
+        while (died != 0) {
+            int index = base + Long.numberOfTrailingZeros(died);
+            births.remove(born[index]);
+            ageSum -= tick - born[index] + 1;
+            died &= died - 1;
+        }
+        long newborn = after & ~before;
+        while (newborn != 0) {
+            born[base + Long.numberOfTrailingZeros(newborn)] = newBorn;
+            births.add(newBorn);
+            newborn &= newborn - 1;
+        }
+    }
+
+    /**
+     * Helper that checks whether a tile or any of its neighbors changed.
+     *
+     * @param tr the tile row
+     * @param tc the tile column
+     * @return true if the tile has to be recomputed
+     */
+    private boolean neighborhoodChanged(int tr, int tc) {
+        int r0 = Math.max(0, tr - 1);
+        int r1 = Math.min(tileRows - 1, tr + 1);
+        int c0 = Math.max(0, tc - 1);
+        int c1 = Math.min(tileCols - 1, tc + 1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                if (changed[r * tileCols + c]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * How the edges of the grid behave.
+ *
+ * @author Your Name Here
+ */
+public enum Topology {
+
+    /**
+     * Cells outside the grid are always dead (the original behavior).
+     */
+    BOUNDED,
+
+    /**
+     * The grid wraps around: the top edge touches the bottom edge and the
+     * left edge touches the right edge, so nothing ever leaves the grid.
+     */
+    TORUS
+}
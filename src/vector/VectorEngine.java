@@ -0,0 +1,286 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A BitboardEngine whose rule kernel runs on SIMD registers through the
+ * Vector API (jdk.incubator.vector). The neighbor adders of
+ * BitboardEngine.rule(...) are applied to a LongVector of consecutive words
+ * of a row, so an AVX2 CPU advances 4 x 64 cells per operation and an
+ * AVX-512 CPU 8 x 64. Everything else (ages, statistics, the state hash,
+ * edits) is inherited, and the results are identical.
+ *
+ * This class lives in src/vector because it needs the incubator module to
+ * compile and run:
+ *
+ *   javac --add-modules jdk.incubator.vector -d out src/*.java src/vector/*.java
+ *   java --add-modules jdk.incubator.vector -cp out HeadlessRunner ... --engine vector
+ *
+ * Nothing else refers to it directly: BitboardEngine.createVectorEngine()
+ * loads it by name and falls back to the scalar engine when the class or
+ * the module is missing. BitboardEngine.createVectorized() does not hand it
+ * out yet, since it measured slower than the scalar kernel.
+ *
+ * @author Your Name Here
+ */
+public class VectorEngine extends BitboardEngine {
+
+    /**
+     * The widest vector of longs the CPU supports.
+     */
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * The rule as word masks, see BitboardEngine.ruleMasks(Rule), each
+     * broadcast to a vector once when the rule is set, or null for Conway's
+     * rule, which uses the fused formula.
+     */
+    private LongVector[] masks;
+
+    /**
+     * Constructs an engine that tracks cell ages.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @throws UnsupportedOperationException if the CPU has no vector of two or more longs
+     */
+    public VectorEngine(int rows, int cols) {
+        this(rows, cols, true);
+    }
+
+    /**
+     * Constructs an engine with every cell dead.
+     *
+     * @param rows the number of rows in the grid
+     * @param cols the number of columns in the grid
+     * @param trackAges false to skip age bookkeeping for very large grids
+     * @throws IllegalArgumentException if rows or cols is less than 1
+     * @throws UnsupportedOperationException if the CPU has no vector of two or more longs
+     */
+    public VectorEngine(int rows, int cols, boolean trackAges) {
+        super(rows, cols, trackAges);
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("No SIMD vector of longs on this CPU.");
+        }
+    }
+
+    /**
+     * Gets the number of words processed per vector operation.
+     *
+     * @return the lane count, 4 on AVX2 and 8 on AVX-512
+     */
+    public static int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void setRule(Rule rule) {
+        super.setRule(rule);
+        if (rule.isConway()) {
+            masks = null;
+            return;
+        }
+        long[] words = ruleMasks(rule);
+        LongVector[] vectors = new LongVector[words.length];
+        for (int i = 0; i < words.length; i++) {
+            vectors[i] = LongVector.broadcast(SPECIES, words[i]);
+        }
+        masks = vectors;
+    }
+
+    /**
+     * Computes one row of the next generation, a vector of words at a time.
+     * The first and last word of a row, the words left over at the end, and
+     * the rows at the top and bottom edge (whose neighbor row is empty) go
+     * through the scalar code, so every vector load stays inside the row.
+     *
+     * @param above the row above, or an empty array at the top edge
+     * @param mid the row being evolved
+     * @param below the row below, or an empty array at the bottom edge
+     * @param out where the next generation of mid is written
+     */
+    @Override
+    void stepRow(long[] above, long[] mid, long[] below, long[] out) {
+        int words = mid.length;
+        if (above.length == 0 || below.length == 0) {
+            super.stepRow(above, mid, below, out);
+            return;
+        }
+        out[0] = nextWord(above, mid, below, 0);
+        int w = stepVectors(above, mid, below, out);
+        for (; w < words; w++) {
+            out[w] = nextWord(above, mid, below, w);
+        }
+    }
+
+    /**
+     * Computes the next generation of a row from word 1 on, lanes words at
+     * a time, for as long as a whole vector fits before the last word.
+     * The words on either side are loaded at offsets w - 1 and w + 1, so
+     * the west and east neighbor masks come from lanewise shifts without
+     * any shuffling across lanes. The loop lives here rather than in
+     * stepRow() so that the JIT compiles it as one unit with every vector
+     * kept in a register; a call per vector is too big to inline and costs
+     * more than the SIMD saves.
+     *
+     * @param above the row above
+     * @param mid the row being evolved
+     * @param below the row below
+     * @param out where the next generation of mid is written
+     * @return the first word that was not computed
+     */
+    private int stepVectors(long[] above, long[] mid, long[] below, long[] out) {
+        int lanes = SPECIES.length();
+        LongVector[] k = masks;
+        int w = 1;
+        for (; w + lanes < mid.length; w += lanes) {
+            LongVector a = LongVector.fromArray(SPECIES, above, w);
+            LongVector m = LongVector.fromArray(SPECIES, mid, w);
+            LongVector b = LongVector.fromArray(SPECIES, below, w);
+            LongVector aw = west(a, above, w);
+            LongVector ae = east(a, above, w);
+            LongVector mw = west(m, mid, w);
+            LongVector me = east(m, mid, w);
+            LongVector bw = west(b, below, w);
+            LongVector be = east(b, below, w);
+
+            // the same full adders as BitboardEngine.rule(...), one lane per word
+            LongVector aSum = xor(xor(aw, a), ae);
+            LongVector aCarry = aw.and(a).or(ae.and(xor(aw, a)));
+            LongVector bSum = xor(xor(bw, b), be);
+            LongVector bCarry = bw.and(b).or(be.and(xor(bw, b)));
+            LongVector mSum = xor(mw, me);
+            LongVector mCarry = mw.and(me);
+
+            LongVector ones = xor(xor(aSum, bSum), mSum);
+            LongVector onesCarry = aSum.and(bSum).or(mSum.and(xor(aSum, bSum)));
+
+            LongVector t = xor(xor(aCarry, bCarry), mCarry);
+            LongVector tCarry = aCarry.and(bCarry).or(mCarry.and(xor(aCarry, bCarry)));
+            LongVector twos = xor(t, onesCarry);
+            LongVector foursCarry = t.and(onesCarry);
+            LongVector fours = xor(tCarry, foursCarry);
+
+            if (k == null) {
+                // exactly 3, or exactly 2 and already alive
+                twos.and(fours.not()).and(ones.or(m)).intoArray(out, w);
+                continue;
+            }
+            LongVector eights = tCarry.and(foursCarry);
+
+            // one mask per count, ANDed with the rule's all-ones or all-zeros masks
+            LongVector low0 = ones.not().and(twos.not());
+            LongVector low1 = ones.and(twos.not());
+            LongVector low2 = ones.not().and(twos);
+            LongVector low3 = ones.and(twos);
+            LongVector under4 = fours.not().and(eights.not());
+            LongVector n0 = low0.and(under4);
+            LongVector n1 = low1.and(under4);
+            LongVector n2 = low2.and(under4);
+            LongVector n3 = low3.and(under4);
+            LongVector n4 = low0.and(fours);
+            LongVector n5 = low1.and(fours);
+            LongVector n6 = low2.and(fours);
+            LongVector n7 = low3.and(fours);
+
+            LongVector born = n0.and(k[0]).or(n1.and(k[1])).or(n2.and(k[2])).or(n3.and(k[3]))
+                    .or(n4.and(k[4])).or(n5.and(k[5])).or(n6.and(k[6])).or(n7.and(k[7]))
+                    .or(eights.and(k[8]));
+            LongVector kept = n0.and(k[9]).or(n1.and(k[10])).or(n2.and(k[11])).or(n3.and(k[12]))
+                    .or(n4.and(k[13])).or(n5.and(k[14])).or(n6.and(k[15])).or(n7.and(k[16]))
+                    .or(eights.and(k[17]));
+            born.and(m.not()).or(kept.and(m)).intoArray(out, w);
+        }
+        return w;
+    }
+
+    /**
+     * Helper that builds the west neighbor mask of a vector of words: each
+     * word shifted up by one, with the top bit of the word before it.
+     *
+     * @param v the words at w
+     * @param row the row they come from
+     * @param w the first word, at least 1
+     * @return the west neighbors
+     */
+    private static LongVector west(LongVector v, long[] row, int w) {
+        LongVector before = LongVector.fromArray(SPECIES, row, w - 1);
+        return v.lanewise(VectorOperators.LSHL, 1).or(before.lanewise(VectorOperators.LSHR, 63));
+    }
+
+    /**
+     * Helper that builds the east neighbor mask of a vector of words: each
+     * word shifted down by one, with the bottom bit of the word after it.
+     *
+     * @param v the words at w
+     * @param row the row they come from
+     * @param w the first word, with w + lanes inside the row
+     * @return the east neighbors
+     */
+    private static LongVector east(LongVector v, long[] row, int w) {
+        LongVector after = LongVector.fromArray(SPECIES, row, w + 1);
+        return v.lanewise(VectorOperators.LSHR, 1).or(after.lanewise(VectorOperators.LSHL, 63));
+    }
+
+    /**
+     * Helper for a lanewise exclusive or.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @return x ^ y in every lane
+     */
+    private static LongVector xor(LongVector x, LongVector y) {
+        return x.lanewise(VectorOperators.XOR, y);
+    }
+
+    /**
+     * Main method for testing the VectorEngine: random soups under a few
+     * rules must match the scalar BitboardEngine and the grid of Cells
+     * generation by generation.
+     *
+     * @param args command line arguments (not used)
+     */
+    public static void main(String[] args) {
+        if (BitboardEngine.createVectorEngine(8, 8, true) instanceof VectorEngine
+                && !(BitboardEngine.createVectorized(8, 8) instanceof VectorEngine)) {
+            System.out.println("Yay 1");
+        }
+
+        int rows = 70;
+        int cols = 1000;
+        boolean same = true;
+        for (String rule : new String[] {"B3/S23", "B36/S23", "B0/S8", "B2/S"}) {
+            Simulation cells = new Simulation(rows, cols);
+            Simulation scalar = new Simulation(new BitboardEngine(rows, cols));
+            Simulation vector = new Simulation(new VectorEngine(rows, cols));
+            java.util.Random random = new java.util.Random(rule.hashCode());
+            for (Simulation sim : new Simulation[] {cells, scalar, vector}) {
+                sim.setRule(Rule.parse(rule));
+            }
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    if (random.nextInt(3) == 0) {
+                        cells.toggleCell(i, j);
+                        scalar.toggleCell(i, j);
+                        vector.toggleCell(i, j);
+                    }
+                }
+            }
+            int[] expected = new int[rows * cols];
+            int[] actual = new int[rows * cols];
+            for (int gen = 0; gen < 30; gen++) {
+                cells.evolve();
+                scalar.evolve();
+                vector.evolve();
+                cells.copyAges(expected);
+                vector.copyAges(actual);
+                same = same && java.util.Arrays.equals(expected, actual)
+                        && vector.getStateHash() == scalar.getStateHash()
+                        && vector.getStateHash() == cells.getStateHash();
+            }
+        }
+        if (same) {
+            System.out.println("Yay 2");
+        }
+    }
+}